@@ -0,0 +1,114 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.access;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.utils.HttpClientUtils;
+import io.fabric8.maven.core.util.kubernetes.OpenshiftHelper;
+import io.fabric8.openshift.client.DefaultOpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftAPIGroups;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftConfig;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+/**
+ * Clients and cluster discovery results which are shared by all goals running in the same plugin realm.
+ * Entries are keyed by the master URL, namespace and credentials of the client configuration, and all
+ * clients share a single connection pool so that connections (and their TLS handshakes) are reused
+ * from goal to goal.
+ */
+class ClientRegistry {
+
+    private static final ConnectionPool CONNECTION_POOL = new ConnectionPool();
+
+    private static final Map<List<Object>, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private ClientRegistry() { }
+
+    static Entry get(Config config) {
+        return ENTRIES.computeIfAbsent(createKey(config), key -> new Entry(config));
+    }
+
+    private static List<Object> createKey(Config config) {
+        return Arrays.<Object>asList(
+            config.getMasterUrl(), config.getNamespace(),
+            config.getUsername(), config.getPassword(), config.getOauthToken(),
+            config.getClientCertFile(), config.getClientCertData(),
+            config.getClientKeyFile(), config.getClientKeyData(),
+            config.getCaCertFile(), config.getCaCertData(), config.isTrustCerts());
+    }
+
+    static class Entry {
+
+        private final Config config;
+
+        private OkHttpClient httpClient;
+        private KubernetesClient kubernetesClient;
+        private OpenShiftClient openShiftClient;
+
+        // Discovery results, null as long as not looked up successfully
+        private Boolean openShift;
+        private Boolean openShiftImageStream;
+
+        private Entry(Config config) {
+            this.config = config;
+        }
+
+        synchronized KubernetesClient getKubernetesClient() {
+            if (kubernetesClient == null) {
+                kubernetesClient = new DefaultKubernetesClient(getHttpClient(), config);
+            }
+            return kubernetesClient;
+        }
+
+        synchronized OpenShiftClient getOpenShiftClient() {
+            if (openShiftClient == null) {
+                // The OpenShift client adds its own OAuth interceptor on top of the shared HTTP client
+                openShiftClient = new DefaultOpenShiftClient(getHttpClient(), OpenShiftConfig.wrap(config));
+            }
+            return openShiftClient;
+        }
+
+        synchronized boolean isOpenShift() {
+            if (openShift == null) {
+                openShift = OpenshiftHelper.isOpenShift(getKubernetesClient());
+            }
+            return openShift;
+        }
+
+        synchronized boolean supportsOpenShiftImageStreams() {
+            if (openShiftImageStream == null) {
+                openShiftImageStream = getOpenShiftClient().supportsOpenShiftAPIGroup(OpenShiftAPIGroups.IMAGE);
+            }
+            return openShiftImageStream;
+        }
+
+        private OkHttpClient getHttpClient() {
+            if (httpClient == null) {
+                httpClient = HttpClientUtils.createHttpClient(config).newBuilder().connectionPool(CONNECTION_POOL).build();
+            }
+            return httpClient;
+        }
+    }
+}
@@ -19,14 +19,12 @@ import java.net.UnknownHostException;
 
 import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.ConfigBuilder;
-import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.util.kubernetes.KubernetesHelper;
 import io.fabric8.maven.core.util.kubernetes.OpenshiftHelper;
 import io.fabric8.maven.docker.util.Logger;
-import io.fabric8.openshift.client.DefaultOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftAPIGroups;
 import io.fabric8.openshift.client.OpenShiftClient;
 import org.apache.commons.lang3.StringUtils;
@@ -59,6 +57,7 @@ public class ClusterAccess {
         this.client = client;
     }
 
+    @SuppressWarnings("unchecked")
     public <T extends KubernetesClient> T createDefaultClient(Logger log) {
         if (isOpenShift(log)) {
             return (T) createOpenShiftClient();
@@ -67,12 +66,20 @@ public class ClusterAccess {
         return (T) createKubernetesClient();
     }
 
+    /**
+     * Get a client for the configured cluster and namespace. Clients are shared between all
+     * goals accessing the same cluster with the same credentials, so they must not be closed.
+     */
     public KubernetesClient createKubernetesClient() {
-        return new DefaultKubernetesClient(createDefaultConfig());
+        return getRegistryEntry().getKubernetesClient();
     }
 
+    /**
+     * Get an OpenShift client for the configured cluster and namespace. Clients are shared between all
+     * goals accessing the same cluster with the same credentials, so they must not be closed.
+     */
     public OpenShiftClient createOpenShiftClient() {
-        return new DefaultOpenShiftClient(createDefaultConfig());
+        return getRegistryEntry().getOpenShiftClient();
     }
 
     // ============================================================================
@@ -80,6 +87,11 @@ public class ClusterAccess {
     private Config createDefaultConfig() {
         return new ConfigBuilder().withNamespace(getNamespace()).build();
     }
+
+    private ClientRegistry.Entry getRegistryEntry() {
+        return ClientRegistry.get(createDefaultConfig());
+    }
+
     public String getNamespace() {
         return namespace;
     }
@@ -92,7 +104,7 @@ public class ClusterAccess {
         if (isOpenShift(log)) {
             OpenShiftClient openShiftClient = null;
             if (this.client == null) {
-                openShiftClient = createOpenShiftClient();
+                return getRegistryEntry().supportsOpenShiftImageStreams();
             } else if (this.client instanceof OpenShiftClient) {
                 openShiftClient = (OpenShiftClient) this.client;
             } else if (this.client.isAdaptable(OpenShiftClient.class)) {
@@ -108,7 +120,7 @@ public class ClusterAccess {
     public boolean isOpenShift(Logger log) {
         try {
             return this.client == null ?
-                OpenshiftHelper.isOpenShift(createKubernetesClient()) :
+                getRegistryEntry().isOpenShift() :
                 OpenshiftHelper.isOpenShift(this.client);
         } catch (KubernetesClientException exp) {
             Throwable cause = exp.getCause();
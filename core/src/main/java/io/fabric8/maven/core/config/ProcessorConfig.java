@@ -70,6 +70,14 @@ public class ProcessorConfig {
         }
     }
 
+    public List<String> getIncludes() {
+        return includes != null ? Collections.unmodifiableList(includes) : Collections.<String>emptyList();
+    }
+
+    public Set<String> getExcludes() {
+        return excludes != null ? Collections.unmodifiableSet(excludes) : Collections.<String>emptySet();
+    }
+
     public String getConfig(String name, String key) {
         TreeMap processorMap =  config.get(name);
         return processorMap != null ? (String) processorMap.get(key) : null;
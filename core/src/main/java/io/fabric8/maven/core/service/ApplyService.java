@@ -17,11 +17,23 @@ package io.fabric8.maven.core.service;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import io.fabric8.kubernetes.api.model.ConfigMap;
@@ -42,6 +54,7 @@ import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
 import io.fabric8.kubernetes.api.model.apps.StatefulSet;
 import io.fabric8.kubernetes.api.model.extensions.Ingress;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.maven.core.util.FileUtil;
@@ -95,6 +108,13 @@ public class ApplyService {
     private String namespace = KubernetesHelper.getDefaultNamespace();
     private boolean rollingUpgradePreserveScale = true;
     private boolean recreateMode;
+    private int applyThreads = 1;
+    private boolean prefetchLiveResources;
+    private volatile LiveResourceIndex liveResources;
+    // Set on an apply thread when the entity being applied has not been found in the snapshot of running resources
+    private final ThreadLocal<Boolean> missingFromSnapshot = new ThreadLocal<>();
+    // Set on an apply thread when the entity being applied is looked up without the snapshot
+    private final ThreadLocal<Boolean> bypassSnapshot = new ThreadLocal<>();
     private PatchService patchService;
 
     public ApplyService(KubernetesClient kubernetesClient, Logger log) {
@@ -330,7 +350,7 @@ public class ApplyService {
             log.debug("Only processing Services right now so ignoring ServiceAccount: " + id);
             return;
         }
-        ServiceAccount old = kubernetesClient.serviceAccounts().inNamespace(namespace).withName(id).get();
+        ServiceAccount old = getLiveResource(serviceAccount, namespace, kubernetesClient.serviceAccounts());
         if (isRunning(old)) {
             if (UserConfigurationCompare.configEqual(serviceAccount, old)) {
                 log.info("ServiceAccount has not changed so not doing anything");
@@ -341,7 +361,7 @@ public class ApplyService {
                 } else {
                     log.info("Updating a ServiceAccount from " + sourceName);
                     try {
-                        Object answer = kubernetesClient.serviceAccounts().inNamespace(namespace).withName(id).replace(serviceAccount);
+                        Object answer = patchService.mergePatchEntity(namespace, serviceAccount, old, kubernetesClient.serviceAccounts());
                         logGeneratedEntity("Updated ServiceAccount: ", namespace, serviceAccount, answer);
                     } catch (Exception e) {
                         onApplyError("Failed to update ServiceAccount from " + sourceName + ". " + e + ". " + serviceAccount, e);
@@ -383,7 +403,7 @@ public class ApplyService {
             log.debug("Only processing Services right now so ignoring PersistentVolumeClaim: " + id);
             return;
         }
-        PersistentVolumeClaim old = kubernetesClient.persistentVolumeClaims().inNamespace(namespace).withName(id).get();
+        PersistentVolumeClaim old = getLiveResource(entity, namespace, kubernetesClient.persistentVolumeClaims());
         if (isRunning(old)) {
             if (UserConfigurationCompare.configEqual(entity, old)) {
                 log.info("PersistentVolumeClaim has not changed so not doing anything");
@@ -447,7 +467,7 @@ public class ApplyService {
             return;
         }
 
-        Secret old = kubernetesClient.secrets().inNamespace(namespace).withName(id).get();
+        Secret old = getLiveResource(secret, namespace, kubernetesClient.secrets());
         // check if the secret already exists or not
         if (isRunning(old)) {
             // if the secret already exists and is the same, then do nothing
@@ -570,7 +590,7 @@ public class ApplyService {
             if (StringUtils.isBlank(namespace)) {
                 namespace = getNamespace();
             }
-            Route route = openShiftClient.routes().inNamespace(namespace).withName(id).get();
+            Route route = getLiveResource(entity, namespace, openShiftClient.routes());
             if (route == null) {
                 try {
                     log.info("Creating Route " + namespace + ":" + id + " " +
@@ -596,7 +616,7 @@ public class ApplyService {
                 namespace = getNamespace();
             }
             applyNamespace(namespace);
-            BuildConfig old = openShiftClient.buildConfigs().inNamespace(namespace).withName(id).get();
+            BuildConfig old = getLiveResource(entity, namespace, openShiftClient.buildConfigs());
             if (isRunning(old)) {
                 if (UserConfigurationCompare.configEqual(entity, old)) {
                     log.info("BuildConfig has not changed so not doing anything");
@@ -651,7 +671,7 @@ public class ApplyService {
                 namespace = getNamespace();
             }
             applyNamespace(namespace);
-            RoleBinding old = openShiftClient.roleBindings().inNamespace(namespace).withName(id).get();
+            RoleBinding old = getLiveResource(entity, namespace, openShiftClient.roleBindings());
             if (isRunning(old)) {
                 if (UserConfigurationCompare.configEqual(entity, old)) {
                     log.info("RoleBinding has not changed so not doing anything");
@@ -663,11 +683,8 @@ public class ApplyService {
                     } else {
                         log.info("Updating RoleBinding from " + sourceName);
                         try {
-                            String resourceVersion = KubernetesHelper.getResourceVersion(old);
-                            ObjectMeta metadata = getOrCreateMetadata(entity);
-                            metadata.setNamespace(namespace);
-                            metadata.setResourceVersion(resourceVersion);
-                            Object answer = openShiftClient.roleBindings().inNamespace(namespace).withName(id).replace(entity);
+                            getOrCreateMetadata(entity).setNamespace(namespace);
+                            Object answer = patchService.mergePatchEntity(namespace, entity, old, openShiftClient.roleBindings());
                             logGeneratedEntity("Updated RoleBinding: ", namespace, entity, answer);
                         } catch (Exception e) {
                             onApplyError("Failed to update RoleBinding from " + sourceName + ". " + e + ". " + entity, e);
@@ -706,7 +723,7 @@ public class ApplyService {
                 namespace = getNamespace();
             }
             applyNamespace(namespace);
-            PolicyBinding old = openShiftClient.policyBindings().inNamespace(namespace).withName(id).get();
+            PolicyBinding old = getLiveResource(entity, namespace, openShiftClient.policyBindings());
             if (isRunning(old)) {
                 if (UserConfigurationCompare.configEqual(entity, old)) {
                     log.info("PolicyBinding has not changed so not doing anything");
@@ -718,11 +735,8 @@ public class ApplyService {
                     } else {
                         log.info("Updating PolicyBinding from " + sourceName);
                         try {
-                            String resourceVersion = KubernetesHelper.getResourceVersion(old);
-                            ObjectMeta metadata = getOrCreateMetadata(entity);
-                            metadata.setNamespace(namespace);
-                            metadata.setResourceVersion(resourceVersion);
-                            Object answer = openShiftClient.policyBindings().inNamespace(namespace).withName(id).replace(entity);
+                            getOrCreateMetadata(entity).setNamespace(namespace);
+                            Object answer = patchService.mergePatchEntity(namespace, entity, old, openShiftClient.policyBindings());
                             logGeneratedEntity("Updated PolicyBinding: ", namespace, entity, answer);
                         } catch (Exception e) {
                             onApplyError("Failed to update PolicyBinding from " + sourceName + ". " + e + ". " + entity, e);
@@ -828,6 +842,208 @@ public class ApplyService {
         }
     }
 
+    /**
+     * Applies the given entities onto the Kubernetes master.
+     *
+     * If more than one apply thread is configured, the entities are grouped into {@link ApplyTier}s which are
+     * applied one after another. All entities within a tier are applied concurrently. Errors are collected per
+     * entity and reported when the tier has finished, in which case no further tiers are applied.
+     */
+    public void applyEntities(Collection<HasMetadata> entities, String sourceName) throws Exception {
+        if (prefetchLiveResources) {
+            liveResources = LiveResourceIndex.forEntities(log, entities);
+            if (liveResources.getSelector().isEmpty()) {
+                log.verbose("No labels common to all entities, looking up running resources one by one");
+            } else {
+                log.verbose("Looking up running resources with labels %s", liveResources.getSelector());
+            }
+        }
+        try {
+            if (applyThreads <= 1) {
+                for (HasMetadata entity : entities) {
+                    applyWithLiveResources(entity, sourceName);
+                }
+            } else {
+                applyEntitiesInTiers(entities, sourceName);
+            }
+        } finally {
+            liveResources = null;
+        }
+    }
+
+    private void applyEntitiesInTiers(Collection<HasMetadata> entities, String sourceName) throws Exception {
+        Map<ApplyTier, List<HasMetadata>> tiers = groupByApplyTier(entities);
+        ExecutorService executor = Executors.newFixedThreadPool(applyThreads, createApplyThreadFactory());
+        try {
+            for (Map.Entry<ApplyTier, List<HasMetadata>> tier : tiers.entrySet()) {
+                if (!tier.getValue().isEmpty()) {
+                    applyTier(executor, tier.getKey(), tier.getValue(), sourceName);
+                }
+                if (tier.getKey() == ApplyTier.NAMESPACES) {
+                    // Namespaces are created on demand when applying entities, so lets create them
+                    // upfront to avoid concurrent attempts to create the same namespace
+                    applyReferencedNamespaces(entities);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Lookup the running version of the given entity, either from the snapshot of running resources
+     * taken by {@link #applyEntities(Collection, String)} or directly from the cluster
+     */
+    private <T extends HasMetadata, L, D> T getLiveResource(T entity, String namespace, MixedOperation<T, L, D, ? extends Resource<T, D>> resources) {
+        LiveResourceIndex index = liveResources;
+        if (index != null && bypassSnapshot.get() == null) {
+            T old = index.get(entity, namespace, resources);
+            if (old == null) {
+                missingFromSnapshot.set(Boolean.TRUE);
+            }
+            return old;
+        }
+        return resources.inNamespace(namespace).withName(getName(entity)).get();
+    }
+
+    /**
+     * Apply an entity. If it has not been found in the snapshot of running resources but creating it
+     * fails with a conflict, it is running with other labels. In this case it is applied again with
+     * the running version looked up directly.
+     */
+    private void applyWithLiveResources(HasMetadata entity, String sourceName) throws Exception {
+        missingFromSnapshot.remove();
+        try {
+            apply(entity, sourceName);
+        } catch (SnapshotConflictException e) {
+            log.verbose("%s %s is already running with other labels, looking it up", getKind(entity), getName(entity));
+            missingFromSnapshot.remove();
+            bypassSnapshot.set(Boolean.TRUE);
+            try {
+                apply(entity, sourceName);
+            } finally {
+                bypassSnapshot.remove();
+            }
+        } finally {
+            missingFromSnapshot.remove();
+        }
+    }
+
+    private void applyTier(ExecutorService executor, ApplyTier tier, List<HasMetadata> entities, String sourceName) throws Fabric8ServiceException {
+        long start = System.currentTimeMillis();
+        Map<HasMetadata, Future<?>> futures = new LinkedHashMap<>();
+        for (HasMetadata entity : entities) {
+            futures.put(entity, executor.submit(() -> {
+                applyWithLiveResources(entity, sourceName);
+                return null;
+            }));
+        }
+
+        Map<String, Throwable> errors = new LinkedHashMap<>();
+        for (Map.Entry<HasMetadata, Future<?>> entry : futures.entrySet()) {
+            try {
+                entry.getValue().get();
+            } catch (ExecutionException e) {
+                errors.put(getKind(entry.getKey()) + " " + getName(entry.getKey()), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new Fabric8ServiceException("Interrupted while applying " + tier.getDescription(), e);
+            }
+        }
+        log.info("Applied %d %s in %d ms (%d failed)",
+                 entities.size(), tier.getDescription(), System.currentTimeMillis() - start, errors.size());
+
+        if (!errors.isEmpty()) {
+            Fabric8ServiceException exception =
+                new Fabric8ServiceException("Failed to apply " + errors.keySet() + " from " + sourceName,
+                                            errors.values().iterator().next());
+            for (Throwable error : errors.values()) {
+                if (error != exception.getCause()) {
+                    exception.addSuppressed(error);
+                }
+            }
+            throw exception;
+        }
+    }
+
+    private void applyReferencedNamespaces(Collection<HasMetadata> entities) {
+        Set<String> namespaces = new LinkedHashSet<>();
+        for (HasMetadata entity : entities) {
+            if (entity instanceof Namespace || entity instanceof Project || entity instanceof ProjectRequest) {
+                continue;
+            }
+            String namespace = KubernetesHelper.getNamespace(entity);
+            if (StringUtils.isNotBlank(namespace)) {
+                namespaces.add(namespace);
+            } else if (entity instanceof BuildConfig || entity instanceof RoleBinding || entity instanceof PolicyBinding) {
+                // These create the default namespace on demand when applied
+                namespaces.add(getNamespace());
+            }
+        }
+        for (String namespace : namespaces) {
+            applyNamespace(namespace);
+        }
+    }
+
+    static Map<ApplyTier, List<HasMetadata>> groupByApplyTier(Collection<HasMetadata> entities) {
+        Map<ApplyTier, List<HasMetadata>> tiers = new EnumMap<>(ApplyTier.class);
+        for (ApplyTier tier : ApplyTier.values()) {
+            tiers.put(tier, new ArrayList<>());
+        }
+        for (HasMetadata entity : entities) {
+            if (entity != null) {
+                tiers.get(ApplyTier.of(entity)).add(entity);
+            }
+        }
+        return tiers;
+    }
+
+    private ThreadFactory createApplyThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "fabric8:apply-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Dependency tiers used when applying entities concurrently. An entity may only depend on entities
+     * of an earlier tier, so that all entities of a single tier can be applied in parallel.
+     */
+    enum ApplyTier {
+        NAMESPACES("namespaces"),
+        CONFIGURATION("service accounts, secrets and configuration"),
+        SERVICES("services"),
+        CONTROLLERS("controllers and other resources");
+
+        private final String description;
+
+        ApplyTier(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        static ApplyTier of(HasMetadata entity) {
+            if (entity instanceof Namespace || entity instanceof Project || entity instanceof ProjectRequest) {
+                return NAMESPACES;
+            }
+            if (entity instanceof ServiceAccount || entity instanceof Secret || entity instanceof ConfigMap ||
+                entity instanceof PersistentVolumeClaim || entity instanceof Role || entity instanceof RoleBinding ||
+                entity instanceof PolicyBinding || entity instanceof OAuthClient || entity instanceof ImageStream ||
+                entity instanceof BuildConfig || entity instanceof Template) {
+                return CONFIGURATION;
+            }
+            if (entity instanceof Service || entity instanceof Route || entity instanceof Ingress) {
+                return SERVICES;
+            }
+            return CONTROLLERS;
+        }
+    }
+
     public void applyService(Service service, String sourceName) throws Exception {
         String namespace = getNamespace();
         String id = getName(service);
@@ -836,7 +1052,7 @@ public class ApplyService {
             log.debug("Ignoring Service: " + namespace + ":" + id);
             return;
         }
-        Service old = kubernetesClient.services().inNamespace(namespace).withName(id).get();
+        Service old = getLiveResource(service, namespace, kubernetesClient.services());
         if (isRunning(old)) {
             if (UserConfigurationCompare.configEqual(service, old)) {
                 log.info("Service has not changed so not doing anything");
@@ -873,7 +1089,7 @@ public class ApplyService {
             log.debug("Ignoring " + kind + ": " + namespace + ":" + id);
             return;
         }
-        T old = resources.inNamespace(namespace).withName(id).get();
+        T old = getLiveResource(resource, namespace, resources);
         if (isRunning(old)) {
             if (UserConfigurationCompare.configEqual(resource, old)) {
                 log.info(kind + " has not changed so not doing anything");
@@ -885,7 +1101,7 @@ public class ApplyService {
                 } else {
                     log.info("Updating " + kind + " from " + sourceName);
                     try {
-                        Object answer = resources.inNamespace(namespace).withName(id).replace(resource);
+                        Object answer = patchService.mergePatchEntity(namespace, resource, old, resources);
                         logGeneratedEntity("Updated " + kind + ": ", namespace, resource, answer);
                     } catch (Exception e) {
                         onApplyError("Failed to update " + kind + " from " + sourceName + ". " + e + ". " + resource, e);
@@ -1023,6 +1239,11 @@ public class ApplyService {
                 Object answer = kubernetesClient.namespaces().create(entity);
                 logGeneratedEntity("Created namespace: ", namespace, entity, answer);
                 return true;
+            } catch (KubernetesClientException e) {
+                if (e.getCode() != HttpURLConnection.HTTP_CONFLICT) {
+                    onApplyError("Failed to create namespace: " + name + " due " + e.getMessage(), e);
+                }
+                // Created concurrently in the meantime
             } catch (Exception e) {
                 onApplyError("Failed to create namespace: " + name + " due " + e.getMessage(), e);
             }
@@ -1050,6 +1271,11 @@ public class ApplyService {
                 Object answer = openshiftClient.projectrequests().create(entity);
                 logGeneratedEntity("Created ProjectRequest: ", namespace, entity, answer);
                 return true;
+            } catch (KubernetesClientException e) {
+                if (e.getCode() != HttpURLConnection.HTTP_CONFLICT) {
+                    onApplyError("Failed to create ProjectRequest: " + name + " due " + e.getMessage(), e);
+                }
+                // Created concurrently in the meantime
             } catch (Exception e) {
                 onApplyError("Failed to create ProjectRequest: " + name + " due " + e.getMessage(), e);
             }
@@ -1065,7 +1291,7 @@ public class ApplyService {
             log.debug("Only processing Services right now so ignoring ReplicationController: " + namespace + ":" + id);
             return;
         }
-        ReplicationController old = kubernetesClient.replicationControllers().inNamespace(namespace).withName(id).get();
+        ReplicationController old = getLiveResource(replicationController, namespace, kubernetesClient.replicationControllers());
         if (isRunning(old)) {
             if (UserConfigurationCompare.configEqual(replicationController, old)) {
                 log.info("ReplicationController has not changed so not doing anything");
@@ -1136,7 +1362,7 @@ public class ApplyService {
             log.debug("Only processing Services right now so ignoring Pod: " + namespace + ":" + id);
             return;
         }
-        Pod old = kubernetesClient.pods().inNamespace(namespace).withName(id).get();
+        Pod old = getLiveResource(pod, namespace, kubernetesClient.pods());
         if (isRunning(old)) {
             if (UserConfigurationCompare.configEqual(pod, old)) {
                 log.info("Pod has not changed so not doing anything");
@@ -1237,10 +1463,24 @@ public class ApplyService {
      * Logs an error applying some JSON to Kubernetes and optionally throws an exception
      */
     protected void onApplyError(String message, Exception e) {
+        if (Boolean.TRUE.equals(missingFromSnapshot.get()) && isConflict(e)) {
+            // Not an error, the entity is applied again by applyWithLiveResources()
+            throw new SnapshotConflictException(e);
+        }
         log.error(message, e);
         throw new RuntimeException(message, e);
     }
 
+    private static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof KubernetesClientException &&
+                ((KubernetesClientException) cause).getCode() == HttpURLConnection.HTTP_CONFLICT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns true if this controller allows new resources to be created in the given namespace
      */
@@ -1317,4 +1557,35 @@ public class ApplyService {
     public void setRollingUpgradePreserveScale(boolean rollingUpgradePreserveScale) {
         this.rollingUpgradePreserveScale = rollingUpgradePreserveScale;
     }
+
+    public boolean isPrefetchLiveResources() {
+        return prefetchLiveResources;
+    }
+
+    /**
+     * If enabled, {@link #applyEntities(Collection, String)} looks up the running resources with a single
+     * label filtered LIST call per kind and namespace instead of a GET call per entity
+     */
+    public void setPrefetchLiveResources(boolean prefetchLiveResources) {
+        this.prefetchLiveResources = prefetchLiveResources;
+    }
+
+    public int getApplyThreads() {
+        return applyThreads;
+    }
+
+    /**
+     * Number of threads used by {@link #applyEntities(Collection, String)}. With a single thread
+     * all entities are applied sequentially in the given order
+     */
+    public void setApplyThreads(int applyThreads) {
+        this.applyThreads = applyThreads;
+    }
+
+    // Creating an entity which has not been found in the snapshot of running resources failed with a conflict
+    private static class SnapshotConflictException extends RuntimeException {
+        private SnapshotConflictException(Exception cause) {
+            super(cause);
+        }
+    }
 }
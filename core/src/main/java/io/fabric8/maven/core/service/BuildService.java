@@ -16,6 +16,7 @@
 package io.fabric8.maven.core.service;
 
 import java.io.File;
+import java.util.List;
 
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.maven.core.config.BuildRecreateMode;
@@ -38,11 +39,20 @@ public interface BuildService {
      */
     void build(ImageConfiguration imageConfig) throws Fabric8ServiceException;
 
+    /**
+     * Builds the given images. Depending on the build concurrency of the configuration,
+     * the images might be built concurrently.
+     *
+     * @param imageConfigs the images to build
+     */
+    void buildImages(List<ImageConfiguration> imageConfigs) throws Fabric8ServiceException;
+
     /**
      * Post processing step called after all images has been build
      * @param config build configuration
+     * @throws Fabric8ServiceException if the post processing fails
      */
-    void postProcess(BuildServiceConfig config);
+    void postProcess(BuildServiceConfig config) throws Fabric8ServiceException;
 
     /**
      * Class to hold configuration parameters for the building service.
@@ -71,6 +81,10 @@ public interface BuildService {
 
         private boolean s2iImageStreamLookupPolicyLocal;
 
+        private boolean s2iCompressBinary;
+
+        private int buildConcurrency = 1;
+
         public BuildServiceConfig() {
         }
 
@@ -116,6 +130,14 @@ public interface BuildService {
             return s2iImageStreamLookupPolicyLocal;
         }
 
+        public boolean isS2iCompressBinary() {
+            return s2iCompressBinary;
+        }
+
+        public int getBuildConcurrency() {
+            return buildConcurrency;
+        }
+
         public void attachArtifact(String classifier, File destFile) {
             if (attacher != null) {
                 attacher.attach(classifier, destFile);
@@ -168,6 +190,16 @@ public interface BuildService {
                 return this;
             }
 
+            public Builder s2iCompressBinary(boolean s2iCompressBinary) {
+                config.s2iCompressBinary = s2iCompressBinary;
+                return this;
+            }
+
+            public Builder buildConcurrency(int buildConcurrency) {
+                config.buildConcurrency = buildConcurrency;
+                return this;
+            }
+
             public Builder enricherTask(Task<KubernetesListBuilder> enricherTask) {
                 config.enricherTask = enricherTask;
                 return this;
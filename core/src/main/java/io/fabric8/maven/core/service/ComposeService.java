@@ -17,16 +17,19 @@ package io.fabric8.maven.core.service;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import com.google.common.base.Function;
+import io.fabric8.maven.core.util.ProcessOutputPump;
 import io.fabric8.maven.core.util.ProcessUtil;
 import io.fabric8.maven.docker.util.Logger;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.shared.utils.io.FileUtils;
-import org.apache.maven.shared.utils.io.IOUtil;
 
 /*
 * Docker compose services for converting docker compose artifacts to kubernetes artifacts
@@ -36,11 +39,18 @@ public class ComposeService {
 
     public static final String KOMPOSE_RESOURCES_DIRECTORY = "kompose_resources";
 
+    private static final int MAX_ERROR_OUTPUT_LENGTH = 64 * 1024;
+    private static final long OUTPUT_DRAIN_TIMEOUT_SECONDS = 10;
+
     private File defaultKomposeBinDir;
     private Path komposeResourcesPath;
     private Path composeFilePath;
     private Logger log;
     private Process process;
+    private List<ProcessOutputPump.PumpedStream> outputs;
+
+    // Error output of kompose, limited to the first MAX_ERROR_OUTPUT_LENGTH characters
+    private final StringBuilder errorOutput = new StringBuilder();
 
     /**
      * Create instance of compose service
@@ -103,6 +113,7 @@ public class ComposeService {
             }
 
             process = Runtime.getRuntime().exec(new String[] {komposeBinaryFile.getAbsolutePath(), "convert", "-o", komposeResourcesPath.toString(), "-f", composeFilePath.toString()});
+            startOutputPumping();
         } catch (IOException exp) {
             cleanComposeResources();
             throw new Fabric8ServiceException(exp.getMessage(), exp);
@@ -112,10 +123,12 @@ public class ComposeService {
 
     private File[] handelKomposeResult() throws IOException, Fabric8ServiceException {
         if(process.exitValue() != 0) {
-            StringWriter stringWriter = new StringWriter();
-            IOUtil.copy(process.getErrorStream(), stringWriter);
-            log.error("conversion failed : " + stringWriter.toString());
-            throw new Fabric8ServiceException(stringWriter.toString());
+            String errors;
+            synchronized (errorOutput) {
+                errors = errorOutput.toString();
+            }
+            log.error("conversion failed : %s", errors);
+            throw new Fabric8ServiceException(errors);
         }
 
         process = null;
@@ -134,9 +147,39 @@ public class ComposeService {
         }
     }
 
+    // Read the output while kompose is running, so that it never blocks on a full pipe
+    private void startOutputPumping() {
+        errorOutput.setLength(0);
+        ProcessOutputPump pump = ProcessOutputPump.getInstance();
+        outputs = Arrays.asList(
+            pump.register(process, process.getInputStream(), new Function<String, Void>() {
+                @Override
+                public Void apply(String line) {
+                    log.debug("%s", line);
+                    return null;
+                }
+            }),
+            pump.register(process, process.getErrorStream(), new Function<String, Void>() {
+                @Override
+                public Void apply(String line) {
+                    synchronized (errorOutput) {
+                        if (errorOutput.length() < MAX_ERROR_OUTPUT_LENGTH) {
+                            errorOutput.append(line).append('\n');
+                        }
+                    }
+                    return null;
+                }
+            }));
+    }
+
     private void waitForConversion() throws Fabric8ServiceException {
         try {
             process.waitFor();
+            for (ProcessOutputPump.PumpedStream output : outputs) {
+                if (!output.await(OUTPUT_DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("Output of kompose not read completely within %d seconds", OUTPUT_DRAIN_TIMEOUT_SECONDS);
+                }
+            }
         } catch (InterruptedException e) {
             log.error("kompose process interrupted: %s", e.getMessage());
             throw new Fabric8ServiceException(e);
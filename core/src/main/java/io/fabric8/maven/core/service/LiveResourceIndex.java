@@ -0,0 +1,147 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.maven.core.util.kubernetes.KubernetesHelper;
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Snapshot of the resources currently running in the cluster which is used by the {@link ApplyService}
+ * for looking up the old version of an entity.
+ *
+ * Instead of a GET for every single entity, all resources of a kind within a namespace are fetched with a single
+ * LIST call, filtered by the labels all applied entities have in common. The LIST is issued when an entity of this
+ * kind and namespace is looked up for the first time. An entity which is not contained in the snapshot is considered
+ * to be not running. As the label filter excludes resources which have been created with different labels, the
+ * caller has to look up the entity with {@link #getDirectly} if creating it fails with a conflict.
+ *
+ * Without any common labels nothing is prefetched, and if the LIST fails, every entity of the kind is looked up
+ * with a GET request.
+ *
+ * Every entry is handed out only once, as the entity is going to be changed on the server when being applied.
+ */
+class LiveResourceIndex {
+
+    // The version label changes with every build, so it must not be used for filtering
+    private static final String VERSION_LABEL = "version";
+
+    private final Logger log;
+    private final Map<String, String> selector;
+    private final Map<String, Map<String, HasMetadata>> snapshots = new ConcurrentHashMap<>();
+    // Kinds and namespaces whose LIST failed
+    private final Set<String> unlisted = ConcurrentHashMap.newKeySet();
+
+    LiveResourceIndex(Logger log, Map<String, String> selector) {
+        this.log = log;
+        this.selector = selector;
+    }
+
+    /**
+     * Create an index using the labels which are common to all given entities as selector
+     */
+    static LiveResourceIndex forEntities(Logger log, Collection<HasMetadata> entities) {
+        return new LiveResourceIndex(log, extractCommonLabels(entities));
+    }
+
+    /**
+     * Lookup the running version of the given entity
+     *
+     * @param entity entity to lookup
+     * @param namespace namespace of the entity
+     * @param resources operation for the kind of the given entity
+     * @return the running version or null if the entity is not running or is running with other labels
+     */
+    <T extends HasMetadata, L, D> T get(T entity, String namespace, MixedOperation<T, L, D, ? extends Resource<T, D>> resources) {
+        String key = KubernetesHelper.getKind(entity) + "/" + namespace;
+        if (selector.isEmpty()) {
+            // Would list all resources of the kind in the namespace
+            return getDirectly(entity, namespace, resources);
+        }
+        Map<String, HasMetadata> snapshot = snapshots.computeIfAbsent(key, k -> list(k, namespace, resources));
+        if (unlisted.contains(key)) {
+            return getDirectly(entity, namespace, resources);
+        }
+        return (T) snapshot.remove(KubernetesHelper.getName(entity));
+    }
+
+    /**
+     * Lookup the running version of the given entity with a GET request, bypassing the snapshot
+     */
+    <T extends HasMetadata, L, D> T getDirectly(T entity, String namespace, MixedOperation<T, L, D, ? extends Resource<T, D>> resources) {
+        return resources.inNamespace(namespace).withName(KubernetesHelper.getName(entity)).get();
+    }
+
+    Map<String, String> getSelector() {
+        return selector;
+    }
+
+    private <T extends HasMetadata, L, D> Map<String, HasMetadata> list(String key, String namespace, MixedOperation<T, L, D, ? extends Resource<T, D>> resources) {
+        Map<String, HasMetadata> ret = new ConcurrentHashMap<>();
+        try {
+            KubernetesResourceList list = (KubernetesResourceList) resources.inNamespace(namespace).withLabels(selector).list();
+            if (list != null && list.getItems() != null) {
+                for (Object item : list.getItems()) {
+                    HasMetadata resource = (HasMetadata) item;
+                    ret.put(KubernetesHelper.getName(resource), resource);
+                }
+            }
+            log.debug("Fetched %d resources for %s with labels %s", ret.size(), key, selector);
+        } catch (KubernetesClientException e) {
+            log.debug("Cannot list %s with labels %s, looking up resources one by one: %s", key, selector, e.getMessage());
+            unlisted.add(key);
+        }
+        return ret;
+    }
+
+    private static Map<String, String> extractCommonLabels(Collection<HasMetadata> entities) {
+        Map<String, String> common = null;
+        for (HasMetadata entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+            Map<String, String> labels = KubernetesHelper.getLabels(entity);
+            if (common == null) {
+                common = new HashMap<>(labels);
+            } else {
+                Iterator<Map.Entry<String, String>> it = common.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, String> entry = it.next();
+                    if (!entry.getValue().equals(labels.get(entry.getKey()))) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+        if (common == null) {
+            return Collections.emptyMap();
+        }
+        common.remove(VERSION_LABEL);
+        return common;
+    }
+}
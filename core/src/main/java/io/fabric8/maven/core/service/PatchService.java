@@ -15,6 +15,18 @@
  */
 package io.fabric8.maven.core.service;
 
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.fabric8.kubernetes.api.model.DoneablePersistentVolumeClaim;
 import io.fabric8.kubernetes.api.model.DoneablePod;
 import io.fabric8.kubernetes.api.model.DoneableReplicationController;
@@ -26,7 +38,12 @@ import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.ReplicationController;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.client.HttpClientAware;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.OperationSupport;
+import io.fabric8.kubernetes.client.utils.Serialization;
 import io.fabric8.maven.core.util.kubernetes.OpenshiftHelper;
 import io.fabric8.maven.core.util.kubernetes.UserConfigurationCompare;
 import io.fabric8.maven.docker.util.Logger;
@@ -35,14 +52,23 @@ import io.fabric8.openshift.api.model.DoneableBuildConfig;
 import io.fabric8.openshift.api.model.DoneableImageStream;
 import io.fabric8.openshift.api.model.ImageStream;
 import io.fabric8.openshift.client.OpenShiftClient;
-
-import java.util.HashMap;
-import java.util.Map;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 
 public class PatchService {
     private final KubernetesClient kubernetesClient;
     private final Logger log;
 
+    private static final MediaType MERGE_PATCH = MediaType.parse("application/merge-patch+json");
+
+    // Metadata fields which are maintained by the server and must not be sent with a patch
+    private static final List<String> SERVER_MANAGED_METADATA =
+        Arrays.asList("resourceVersion", "uid", "selfLink", "creationTimestamp", "generation",
+                      "deletionTimestamp", "deletionGracePeriodSeconds");
+
     private static Map<String, EntityPatcher<? extends HasMetadata>> patchers;
 
 
@@ -88,6 +114,128 @@ public class PatchService {
         return dispatcher.patch(kubernetesClient, namespace, newDto, oldDto);
     }
 
+    /**
+     * Patch the given entity with a JSON merge patch (RFC 7386) which transforms the old entity into the new one.
+     * This works for any kind of entity and avoids sending the full object.
+     *
+     * Fields which are only present in the old entity are removed, like a full replace would do, except for the
+     * metadata maintained by the server and the status. Arrays are replaced as a whole. No resource version is sent,
+     * so that the patch is applied to the latest version on the server.
+     *
+     * @param namespace namespace where the entity lives
+     * @param newDto the new, possibly changed entity
+     * @param oldDto the entity as currently running
+     * @param resources operation for the kind of the entity
+     * @return the patched entity, or the old entity if nothing has changed.
+     */
+    public <T extends HasMetadata, L, D> T mergePatchEntity(String namespace, T newDto, T oldDto, MixedOperation<T, L, D, ? extends Resource<T, D>> resources) {
+        ObjectNode patch = createMergePatch(Serialization.jsonMapper().valueToTree(oldDto),
+                                            Serialization.jsonMapper().valueToTree(newDto));
+        patch.remove("status");
+        JsonNode metadata = patch.get("metadata");
+        if (metadata instanceof ObjectNode) {
+            ObjectNode metadataPatch = (ObjectNode) metadata;
+            metadataPatch.remove(SERVER_MANAGED_METADATA);
+            // The patch URL already determines name and namespace
+            for (String field : Arrays.asList("name", "namespace")) {
+                if (metadataPatch.has(field) && metadataPatch.get(field).isNull()) {
+                    metadataPatch.remove(field);
+                }
+            }
+            if (metadataPatch.size() == 0) {
+                patch.remove("metadata");
+            }
+        }
+        if (patch.size() == 0) {
+            return oldDto;
+        }
+        log.debug("Patching %s %s with %s", newDto.getKind(), oldDto.getMetadata().getName(), patch);
+
+        Request request = null;
+        try {
+            URL url = ((OperationSupport) resources.inNamespace(namespace).withName(oldDto.getMetadata().getName())).getResourceUrl();
+            request = new Request.Builder()
+                .patch(RequestBody.create(MERGE_PATCH, Serialization.jsonMapper().writeValueAsString(patch)))
+                .url(url)
+                .build();
+            OkHttpClient httpClient = ((HttpClientAware) kubernetesClient).getHttpClient();
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw OperationSupport.requestFailure(request, OperationSupport.createStatus(response));
+                }
+                return Serialization.unmarshal(response.body().byteStream(), (Class<T>) newDto.getClass());
+            }
+        } catch (IOException e) {
+            throw OperationSupport.requestException(request, e);
+        }
+    }
+
+    /**
+     * Create a JSON merge patch (RFC 7386) which transforms the old node into the new node.
+     * Fields which are missing or null in the new node are set to null in the patch, so that they get removed.
+     *
+     * @param oldNode the old JSON object
+     * @param newNode the new JSON object
+     * @return the patch, which is empty if there are no differences
+     */
+    public static ObjectNode createMergePatch(JsonNode oldNode, JsonNode newNode) {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+        if (oldNode != null) {
+            Iterator<Map.Entry<String, JsonNode>> oldFields = oldNode.fields();
+            while (oldFields.hasNext()) {
+                Map.Entry<String, JsonNode> field = oldFields.next();
+                JsonNode newValue = newNode.get(field.getKey());
+                if (!field.getValue().isNull() && (newValue == null || newValue.isNull())) {
+                    patch.putNull(field.getKey());
+                }
+            }
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = newNode.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                continue;
+            }
+            JsonNode newValue = withoutNullFields(field.getValue());
+            JsonNode oldValue = oldNode != null ? oldNode.get(field.getKey()) : null;
+            if (newValue.equals(oldValue)) {
+                continue;
+            }
+            if (newValue.isObject() && oldValue != null && oldValue.isObject()) {
+                ObjectNode nested = createMergePatch(oldValue, newValue);
+                if (nested.size() > 0) {
+                    patch.set(field.getKey(), nested);
+                }
+            } else {
+                patch.set(field.getKey(), newValue);
+            }
+        }
+        return patch;
+    }
+
+    // Null fields would remove values in a merge patch, but here they just stand for missing values
+    private static JsonNode withoutNullFields(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode ret = JsonNodeFactory.instance.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!field.getValue().isNull()) {
+                    ret.set(field.getKey(), withoutNullFields(field.getValue()));
+                }
+            }
+            return ret;
+        }
+        if (node.isArray()) {
+            ArrayNode ret = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode element : node) {
+                ret.add(withoutNullFields(element));
+            }
+            return ret;
+        }
+        return node;
+    }
+
     private static EntityPatcher<Pod> podPatcher() {
         return (KubernetesClient client, String namespace, Pod newObj, Pod oldObj) -> {
             if (UserConfigurationCompare.configEqual(newObj, oldObj)) {
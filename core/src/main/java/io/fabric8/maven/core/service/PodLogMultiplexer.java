@@ -0,0 +1,206 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Prints the logs of multiple pods and containers interleaved to a single logger.
+ *
+ * Every stream is read by its own pump thread into a bounded queue, from which a single printer
+ * thread takes lines in a round-robin fashion. A pod logging faster than the console can print blocks
+ * on its own full queue only, so it cannot starve the other pods. Each stream gets a prefix with
+ * its own colour.
+ */
+public class PodLogMultiplexer {
+
+    // Number of lines buffered per stream before its pump blocks
+    private static final int QUEUE_CAPACITY = 512;
+
+    // Number of lines printed for a stream before switching to the next one
+    private static final int LINES_PER_TURN = 16;
+
+    private static final String[] COLORS = { "C", "Y", "G", "M", "B", "c", "y", "g", "m", "b" };
+
+    private final Logger log;
+    private final Map<String, LogStream> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger colorIndex = new AtomicInteger();
+    private final Object lock = new Object();
+
+    private Thread printer;
+    private volatile boolean closed;
+
+    public PodLogMultiplexer(Logger log) {
+        this.log = log;
+    }
+
+    /**
+     * Start streaming a log
+     *
+     * @param podName name of the pod
+     * @param containerName name of the container or null if the pod has a single container only
+     * @param logWatch the log to stream
+     */
+    public synchronized void add(String podName, String containerName, LogWatch logWatch) {
+        if (closed) {
+            logWatch.close();
+            return;
+        }
+        String key = containerName != null ? podName + "/" + containerName : podName;
+        String color = COLORS[colorIndex.getAndIncrement() % COLORS.length];
+        LogStream stream = new LogStream(podName, key, color, logWatch);
+        LogStream old = streams.put(key, stream);
+        if (old != null) {
+            old.close();
+        }
+        stream.start();
+        if (printer == null) {
+            printer = new Thread(this::printLoop, "fabric8:log-printer");
+            printer.setDaemon(true);
+            printer.start();
+        }
+    }
+
+    /**
+     * Whether any log of the given pod is being streamed
+     */
+    public boolean isStreaming(String podName) {
+        for (LogStream stream : streams.values()) {
+            if (stream.podName.equals(podName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stop streaming all logs of the given pod. Lines already received are still printed.
+     */
+    public void remove(String podName) {
+        for (LogStream stream : streams.values()) {
+            if (stream.podName.equals(podName)) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * Stop streaming all logs
+     */
+    public synchronized void close() {
+        closed = true;
+        for (LogStream stream : streams.values()) {
+            stream.close();
+        }
+        streams.clear();
+        if (printer != null) {
+            printer.interrupt();
+        }
+    }
+
+    private void printLoop() {
+        List<String> lines = new ArrayList<>(LINES_PER_TURN);
+        while (!closed) {
+            boolean printed = false;
+            for (LogStream stream : streams.values()) {
+                stream.queue.drainTo(lines, LINES_PER_TURN);
+                for (String line : lines) {
+                    log.info("[[" + stream.color + "]]%s[[" + stream.color + "]] [[s]]%s", stream.key, line);
+                }
+                printed |= !lines.isEmpty();
+                lines.clear();
+                if (stream.finished && stream.queue.isEmpty()) {
+                    streams.remove(stream.key, stream);
+                }
+            }
+            if (!printed) {
+                synchronized (lock) {
+                    try {
+                        lock.wait(100);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private class LogStream {
+        private final String podName;
+        private final String key;
+        private final String color;
+        private final LogWatch logWatch;
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Thread pump;
+
+        private volatile boolean finished;
+
+        private LogStream(String podName, String key, String color, LogWatch logWatch) {
+            this.podName = podName;
+            this.key = key;
+            this.color = color;
+            this.logWatch = logWatch;
+            this.pump = new Thread(this::pump, "fabric8:log-" + key);
+            this.pump.setDaemon(true);
+        }
+
+        private void start() {
+            pump.start();
+        }
+
+        private void pump() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(logWatch.getOutput()))) {
+                String line;
+                while (!finished && (line = reader.readLine()) != null) {
+                    boolean wasEmpty = queue.isEmpty();
+                    queue.put(line);
+                    if (wasEmpty) {
+                        synchronized (lock) {
+                            lock.notifyAll();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (!finished) {
+                    log.error("Failed to read log of %s : %s", key, e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finished = true;
+                logWatch.close();
+            }
+        }
+
+        private void close() {
+            finished = true;
+            logWatch.close();
+            pump.interrupt();
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.fabric8.maven.core.service;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +68,7 @@ public class PodLogService {
     private String watchingPodName;
     private String newestPodName;
     private CountDownLatch logWatchTerminateLatch;
+    private PodLogMultiplexer multiplexer;
 
     public PodLogService(PodLogServiceContext context) {
         this.context = context;
@@ -105,6 +107,9 @@ public class PodLogService {
                             podWatcher.close();
                         }
                         closeLogWatcher();
+                        if (multiplexer != null) {
+                            multiplexer.close();
+                        }
                     }
                 });
             }
@@ -123,7 +128,14 @@ public class PodLogService {
         } else {
             log.info("Watching pods with selector %s waiting for a running pod...", selector);
         }
+        if (context.isAllPods() && followLog) {
+            multiplexer = new PodLogMultiplexer(context.getNewPodLog());
+            context.getNewPodLog().info("Tailing logs of all pods");
+            context.getNewPodLog().info("Press Ctrl-C to " + ctrlCMessage);
+            context.getNewPodLog().info("");
+        }
         Pod latestPod = null;
+        List<Pod> runningPods = new ArrayList<>();
         boolean runningPod = false;
         PodList list = pods.list();
         if (list != null) {
@@ -131,13 +143,9 @@ public class PodLogService {
             if (items != null) {
                 for (Pod pod : items) {
                     if (KubernetesHelper.isPodRunning(pod) || KubernetesHelper.isPodWaiting(pod)) {
-                        if (latestPod == null || KubernetesResourceUtil.isNewerResource(pod, latestPod)) {
-                            if (ignorePodsOlderThan != null) {
-                                Date podCreateTime = KubernetesResourceUtil.getCreationTimestamp(pod);
-                                if (podCreateTime != null && podCreateTime.compareTo(ignorePodsOlderThan) > 0) {
-                                    latestPod = pod;
-                                }
-                            } else {
+                        if (isNotOlderThan(pod, ignorePodsOlderThan)) {
+                            runningPods.add(pod);
+                            if (latestPod == null || KubernetesResourceUtil.isNewerResource(pod, latestPod)) {
                                 latestPod = pod;
                             }
                         }
@@ -147,7 +155,11 @@ public class PodLogService {
             }
         }
         // we may have missed the ADDED event so lets simulate one
-        if (latestPod != null) {
+        if (multiplexer != null) {
+            for (Pod pod : runningPods) {
+                onPod(Watcher.Action.ADDED, pod, kubernetes, namespace, ctrlCMessage, followLog);
+            }
+        } else if (latestPod != null) {
             onPod(Watcher.Action.ADDED, latestPod, kubernetes, namespace, ctrlCMessage, followLog);
         }
         if (!watchAddedPodsOnly) {
@@ -199,11 +211,18 @@ public class PodLogService {
         newestPodName = KubernetesHelper.getName(watchPod);
 
         Logger statusLog = Objects.equals(name, newestPodName) ? context.getNewPodLog() : context.getOldPodLog();
-        if (!action.equals(Watcher.Action.MODIFIED) || watchingPodName == null || !watchingPodName.equals(name)) {
+        boolean watching = multiplexer != null ? multiplexer.isStreaming(name) : Objects.equals(watchingPodName, name);
+        if (!action.equals(Watcher.Action.MODIFIED) || !watching) {
             statusLog.info("%s status: %s%s", name, getPodStatusDescription(pod), getPodStatusMessagePostfix(action));
         }
 
-        if (watchPod != null && KubernetesHelper.isPodRunning(watchPod)) {
+        if (multiplexer != null) {
+            if (action.equals(Watcher.Action.DELETED)) {
+                multiplexer.remove(name);
+            } else if (KubernetesHelper.isPodRunning(pod) && !multiplexer.isStreaming(name)) {
+                streamLogsOfPod(kubernetes, namespace, pod, name);
+            }
+        } else if (watchPod != null && KubernetesHelper.isPodRunning(watchPod)) {
             watchLogOfPodName(kubernetes, namespace, ctrlCMessage, followLog, watchPod, KubernetesHelper.getName(watchPod));
         }
     }
@@ -248,6 +267,30 @@ public class PodLogService {
         }
     }
 
+    // Add the logs of all containers (or of the configured container only) to the multiplexer
+    private void streamLogsOfPod(KubernetesClient kubernetes, String namespace, Pod pod, String name) {
+        PodResource<Pod, DoneablePod> podResource = kubernetes.pods().inNamespace(namespace).withName(name);
+        List<Container> containers = KubernetesHelper.getContainers(pod);
+        if (containers.size() < 2) {
+            multiplexer.add(name, null, podResource.watchLog());
+        } else if (StringUtils.isNotBlank(context.getLogContainerName())) {
+            String containerName = getLogContainerName(containers);
+            multiplexer.add(name, containerName, podResource.inContainer(containerName).watchLog());
+        } else {
+            for (Container container : containers) {
+                multiplexer.add(name, container.getName(), podResource.inContainer(container.getName()).watchLog());
+            }
+        }
+    }
+
+    private boolean isNotOlderThan(Pod pod, Date ignorePodsOlderThan) {
+        if (ignorePodsOlderThan == null) {
+            return true;
+        }
+        Date podCreateTime = KubernetesResourceUtil.getCreationTimestamp(pod);
+        return podCreateTime != null && podCreateTime.compareTo(ignorePodsOlderThan) > 0;
+    }
+
     private String getLogContainerName(List<Container> containers) {
         if (StringUtils.isNotBlank(context.getLogContainerName())) {
             for (Container container : containers) {
@@ -295,6 +338,7 @@ public class PodLogService {
 
         private String logContainerName;
         private String podName;
+        private boolean allPods;
 
         private String s2iBuildNameSuffix = "-s2i";
 
@@ -321,6 +365,10 @@ public class PodLogService {
             return podName;
         }
 
+        public boolean isAllPods() {
+            return allPods;
+        }
+
         public String getS2iBuildNameSuffix() {
             return s2iBuildNameSuffix;
         }
@@ -362,6 +410,11 @@ public class PodLogService {
                 return this;
             }
 
+            public Builder allPods(boolean allPods) {
+                context.allPods = allPods;
+                return this;
+            }
+
             public Builder s2iBuildNameSuffix(String s2iBuildNameSuffix) {
                 context.s2iBuildNameSuffix = s2iBuildNameSuffix;
                 return this;
@@ -0,0 +1,426 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.PortForward;
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Forwards local ports to a pod from within the JVM, using the port-forward support of the Kubernetes client.
+ *
+ * The local ports are served by NIO server sockets which stay open as long as the forwarder is open,
+ * while the pod the connections go to can be switched at any time. Each accepted connection gets its own
+ * tunnel to the pod which is currently selected. Connections to a previously selected pod are closed on a switch.
+ */
+public class PodPortForwarder implements Closeable {
+
+    private final KubernetesClient kubernetes;
+    private final Logger log;
+
+    private final Selector selector;
+    private final List<Forward> forwards = new ArrayList<>();
+    // Server sockets are registered with the selector by the acceptor thread only, as registering blocks while it selects
+    private final Queue<Forward> pendingForwards = new ConcurrentLinkedQueue<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private volatile String pod;
+    private Thread acceptor;
+
+    public PodPortForwarder(KubernetesClient kubernetes, Logger log) throws IOException {
+        this.kubernetes = Objects.requireNonNull(kubernetes, "kubernetes");
+        this.log = Objects.requireNonNull(log, "log");
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Start listening on a local port
+     *
+     * @param localPort port to listen on at the loopback address, 0 for any free port
+     * @param remotePort port of the pod to forward the connections to
+     * @return the forward, which also counts the connections and bytes transferred
+     * @throws IOException if the local port cannot be bound
+     */
+    public synchronized Forward addForward(int localPort, int remotePort) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), localPort));
+            server.configureBlocking(false);
+            Forward forward = new Forward(server, remotePort);
+            forwards.add(forward);
+            pendingForwards.add(forward);
+            startAcceptor();
+            selector.wakeup();
+            return forward;
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Select the pod to forward new connections to. Open connections to the previous pod are closed.
+     *
+     * @param podName name of the pod or null if new connections should be refused until a pod is selected
+     */
+    public void switchPod(String podName) {
+        String previous = pod;
+        pod = podName;
+        if (Objects.equals(previous, podName)) {
+            return;
+        }
+        for (Connection connection : connections) {
+            if (!connection.pod.equals(podName)) {
+                connection.close();
+            }
+        }
+        if (podName != null) {
+            log.info("Forwarding %s to pod %s", getPortsDescription(), podName);
+        } else {
+            log.info("Waiting for a pod to become ready before forwarding %s", getPortsDescription());
+        }
+    }
+
+    public String getPod() {
+        return pod;
+    }
+
+    public synchronized List<Forward> getForwards() {
+        return new ArrayList<>(forwards);
+    }
+
+    /**
+     * Wait until the forwarder is closed
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed.getCount() == 0) {
+                return;
+            }
+            closed.countDown();
+        }
+        selector.close();
+        for (Forward forward : getForwards()) {
+            forward.server.close();
+        }
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        if (acceptor != null && acceptor != Thread.currentThread()) {
+            try {
+                acceptor.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Forward forward : getForwards()) {
+            log.info("Port-forward localhost:%d -> %d: %d connections, %d bytes sent, %d bytes received",
+                     forward.getLocalPort(), forward.remotePort, forward.getConnections(),
+                     forward.getBytesSent(), forward.getBytesReceived());
+        }
+    }
+
+    /**
+     * Open the tunnel of a connection to the pod
+     *
+     * @param podName name of the pod
+     * @param remotePort port of the pod
+     * @param in data to send to the pod
+     * @param out data received from the pod. Both channels are closed by the tunnel when it ends.
+     * @return handle for closing the tunnel
+     */
+    protected PortForward openTunnel(String podName, int remotePort, ReadableByteChannel in, WritableByteChannel out) {
+        return kubernetes.pods().withName(podName).portForward(remotePort, in, out);
+    }
+
+    // ========================================================================================
+
+    private void startAcceptor() {
+        if (acceptor != null) {
+            return;
+        }
+        acceptor = new Thread("fabric8 port-forward") {
+            @Override
+            public void run() {
+                accept();
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void accept() {
+        try {
+            while (closed.getCount() > 0) {
+                registerPendingForwards();
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept((Forward) key.attachment());
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (ClosedSelectorException e) {
+            // Forwarder has been closed
+        } catch (IOException e) {
+            if (closed.getCount() > 0) {
+                log.warn("Error while accepting port-forward connections: %s", e.getMessage());
+            }
+        }
+    }
+
+    // A forward added while selecting wakes up the selector, so that it gets registered before selecting again
+    private void registerPendingForwards() {
+        for (Forward forward = pendingForwards.poll(); forward != null; forward = pendingForwards.poll()) {
+            try {
+                forward.server.register(selector, SelectionKey.OP_ACCEPT, forward);
+            } catch (IOException e) {
+                log.warn("Cannot listen on local port %d: %s", forward.getLocalPort(), e.getMessage());
+            }
+        }
+    }
+
+    // Errors of a single connection must not stop accepting further connections
+    private void accept(Forward forward) throws IOException {
+        SocketChannel socket = forward.server.accept();
+        if (socket == null) {
+            return;
+        }
+        try {
+            connect(forward, socket);
+        } catch (IOException e) {
+            log.warn("Cannot forward connection to local port %d: %s", forward.getLocalPort(), e.getMessage());
+            socket.close();
+        }
+    }
+
+    private void connect(Forward forward, SocketChannel socket) throws IOException {
+        String podName = pod;
+        if (podName == null) {
+            log.warn("No pod available for forwarding the connection to local port %d", forward.getLocalPort());
+            socket.close();
+            return;
+        }
+        // Accepted sockets are blocking, which is what the tunnel expects for reading
+        socket.configureBlocking(true);
+        log.debug("Forwarding connection from %s to port %d of pod %s", socket.getRemoteAddress(), forward.remotePort, podName);
+        Connection connection = new Connection(forward, socket, podName);
+        connections.add(connection);
+        forward.connections.incrementAndGet();
+        forward.activeConnections.incrementAndGet();
+        try {
+            connection.setTunnel(openTunnel(podName, forward.remotePort, connection.in, connection.out));
+        } catch (KubernetesClientException e) {
+            log.warn("Cannot forward to port %d of pod %s: %s", forward.remotePort, podName, e.getMessage());
+            connection.close();
+        }
+        if (!podName.equals(pod)) {
+            // Pod has been switched meanwhile
+            connection.close();
+        }
+    }
+
+    private synchronized String getPortsDescription() {
+        StringBuilder ret = new StringBuilder();
+        for (Forward forward : forwards) {
+            if (ret.length() > 0) {
+                ret.append(", ");
+            }
+            ret.append("localhost:").append(forward.getLocalPort()).append(" -> ").append(forward.remotePort);
+        }
+        return ret.length() > 0 ? ret.toString() : "no ports";
+    }
+
+    /**
+     * A local port forwarded to a port of the pod
+     */
+    public static class Forward {
+
+        private final ServerSocketChannel server;
+        private final int localPort;
+        private final int remotePort;
+
+        private final AtomicLong connections = new AtomicLong();
+        private final AtomicInteger activeConnections = new AtomicInteger();
+        private final AtomicLong bytesSent = new AtomicLong();
+        private final AtomicLong bytesReceived = new AtomicLong();
+
+        private Forward(ServerSocketChannel server, int remotePort) {
+            this.server = server;
+            this.localPort = server.socket().getLocalPort();
+            this.remotePort = remotePort;
+        }
+
+        public int getLocalPort() {
+            return localPort;
+        }
+
+        public int getRemotePort() {
+            return remotePort;
+        }
+
+        /**
+         * @return number of connections accepted and forwarded so far
+         */
+        public long getConnections() {
+            return connections.get();
+        }
+
+        public int getActiveConnections() {
+            return activeConnections.get();
+        }
+
+        /**
+         * @return number of bytes sent from the local clients to the pod
+         */
+        public long getBytesSent() {
+            return bytesSent.get();
+        }
+
+        /**
+         * @return number of bytes received from the pod
+         */
+        public long getBytesReceived() {
+            return bytesReceived.get();
+        }
+    }
+
+    // A forwarded client connection, counting the bytes passed through
+    private class Connection {
+
+        private final Forward forward;
+        private final SocketChannel socket;
+        private final String pod;
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private PortForward tunnel;
+
+        private final ReadableByteChannel in = new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                int read = socket.read(dst);
+                if (read > 0) {
+                    forward.bytesSent.addAndGet(read);
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return socket.isOpen();
+            }
+
+            @Override
+            public void close() {
+                Connection.this.close();
+            }
+        };
+
+        private final WritableByteChannel out = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                int written = 0;
+                while (src.hasRemaining()) {
+                    written += socket.write(src);
+                }
+                forward.bytesReceived.addAndGet(written);
+                return written;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return socket.isOpen();
+            }
+
+            @Override
+            public void close() {
+                Connection.this.close();
+            }
+        };
+
+        private Connection(Forward forward, SocketChannel socket, String pod) {
+            this.forward = forward;
+            this.socket = socket;
+            this.pod = pod;
+        }
+
+        private synchronized void setTunnel(PortForward tunnel) {
+            this.tunnel = tunnel;
+            if (!open.get()) {
+                closeTunnel();
+            }
+        }
+
+        private void close() {
+            if (!open.compareAndSet(true, false)) {
+                return;
+            }
+            connections.remove(this);
+            forward.activeConnections.decrementAndGet();
+            synchronized (this) {
+                closeTunnel();
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+
+        private void closeTunnel() {
+            if (tunnel != null) {
+                try {
+                    tunnel.close();
+                } catch (IOException e) {
+                    // Tunnel is gone anyway
+                }
+            }
+        }
+    }
+}
@@ -16,16 +16,11 @@
 package io.fabric8.maven.core.service;
 
 import java.io.Closeable;
-import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import io.fabric8.kubernetes.api.model.LabelSelector;
 import io.fabric8.kubernetes.api.model.Pod;
@@ -35,13 +30,10 @@ import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
-import io.fabric8.maven.core.util.ProcessUtil;
 import io.fabric8.maven.core.util.kubernetes.KubernetesClientUtil;
 import io.fabric8.maven.core.util.kubernetes.KubernetesHelper;
 import io.fabric8.maven.core.util.kubernetes.KubernetesResourceUtil;
-import io.fabric8.maven.core.util.kubernetes.OpenshiftHelper;
 import io.fabric8.maven.docker.util.Logger;
-import org.apache.commons.lang3.StringUtils;
 
 /**
  * A service for forwarding connections to remote pods.
@@ -51,14 +43,11 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class PortForwardService {
 
-    private ClientToolsService clientToolsService;
-
     private Logger log;
 
     private KubernetesClient kubernetes;
 
     public PortForwardService(KubernetesClient kubernetes, Logger log) {
-        this.clientToolsService = new ClientToolsService(log);
         this.log = Objects.requireNonNull(log, "log");
         this.kubernetes = Objects.requireNonNull(kubernetes, "kubernetes");
     }
@@ -67,78 +56,21 @@ public class PortForwardService {
      * Forwards a port to the newest pod matching the given selector.
      * If another pod is created, it forwards connections to the new pod once it's ready.
      */
-    public Closeable forwardPortAsync(final Logger externalProcessLogger, final LabelSelector podSelector, final int remotePort, final int localPort) throws Fabric8ServiceException {
+    public Closeable forwardPortAsync(final Logger forwarderLogger, final LabelSelector podSelector, final int remotePort, final int localPort) throws Fabric8ServiceException {
 
-        final Lock monitor = new ReentrantLock(true);
-        final Condition podChanged = monitor.newCondition();
+        final PodPortForwarder forwarder = createForwarder(forwarderLogger, remotePort, localPort);
         final Pod[] nextForwardedPod = new Pod[1];
 
-        final Thread forwarderThread = new Thread() {
-            @Override
-            public void run() {
-
-                Pod currentPod = null;
-                Closeable currentPortForward = null;
-
-                try {
-                    monitor.lock();
-
-                    while (true) {
-                        if (podEquals(currentPod, nextForwardedPod[0])) {
-                            podChanged.await();
-                        } else {
-                            Pod nextPod = nextForwardedPod[0]; // may be null
-                            try {
-                                monitor.unlock();
-                                // out of critical section
-
-                                if (currentPortForward != null) {
-                                    log.info("Closing port-forward from pod %s", KubernetesHelper.getName(currentPod));
-                                    currentPortForward.close();
-                                    currentPortForward = null;
-                                }
-
-                                if (nextPod != null) {
-                                    log.info("Starting port-forward to pod %s", KubernetesHelper.getName(nextPod));
-                                    currentPortForward = forwardPortAsync(externalProcessLogger, KubernetesHelper.getName(nextPod), remotePort, localPort);
-                                } else {
-                                    log.info("Waiting for a pod to become ready before starting port-forward");
-                                }
-                                currentPod = nextPod;
-                            } finally {
-                                monitor.lock();
-                            }
-                        }
-
-                    }
-
-                } catch (InterruptedException e) {
-                    log.debug("Port-forwarding thread interrupted", e);
-                    Thread.currentThread().interrupt();
-                } catch (Exception e) {
-                    log.warn("Error while port-forwarding to pod", e);
-                } finally {
-                    monitor.unlock();
-
-                    if (currentPortForward != null) {
-                        try {
-                            currentPortForward.close();
-                        } catch (Exception e) {}
-                    }
-                }
-            }
-        };
-
         // Switching forward to the current pod if present
         Pod newPod = getNewestPod(podSelector);
         nextForwardedPod[0] = newPod;
+        forwarder.switchPod(newPod != null ? KubernetesHelper.getName(newPod) : null);
 
         final Watch watch = KubernetesClientUtil.withSelector(kubernetes.pods(), podSelector, log).watch(new Watcher<Pod>() {
 
             @Override
             public void eventReceived(Action action, Pod pod) {
-                monitor.lock();
-                try {
+                synchronized (nextForwardedPod) {
                     List<Pod> candidatePods;
                     if (nextForwardedPod[0] != null) {
                         candidatePods = new LinkedList<>();
@@ -150,10 +82,9 @@ public class PortForwardService {
                     Pod newPod = getNewestPod(candidatePods); // may be null
                     if (!podEquals(nextForwardedPod[0], newPod)) {
                         nextForwardedPod[0] = newPod;
-                        podChanged.signal();
+                        // The local port stays open, only new connections go to the new pod
+                        forwarder.switchPod(newPod != null ? KubernetesHelper.getName(newPod) : null);
                     }
-                } finally {
-                    monitor.unlock();
                 }
             }
 
@@ -163,18 +94,13 @@ public class PortForwardService {
             }
         });
 
-        forwarderThread.start();
-
         final Closeable handle = new Closeable() {
             @Override
             public void close() throws IOException {
                 try {
                     watch.close();
                 } catch (Exception e) {}
-                try {
-                    forwarderThread.interrupt();
-                    forwarderThread.join(15000);
-                } catch (Exception e) {}
+                forwarder.close();
             }
         };
         Runtime.getRuntime().addShutdownHook(new Thread() {
@@ -227,25 +153,49 @@ public class PortForwardService {
         return targetPod;
     }
 
-    public void forwardPort(Logger externalProcessLogger, String pod, int remotePort, int localPort) throws Fabric8ServiceException {
-        forwardPortAsync(externalProcessLogger, pod, remotePort, localPort).await();
+    public void forwardPort(Logger forwarderLogger, String pod, int remotePort, int localPort) throws Fabric8ServiceException {
+        try (final PodPortForwarder forwarder = forwardPortAsync(forwarderLogger, pod, remotePort, localPort)) {
+            // Forwarding usually ends with the JVM, which still closes the forwarder for reporting what has been transferred
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        forwarder.close();
+                    } catch (IOException e) {
+                        // suppress
+                    }
+                }
+            });
+            forwarder.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new Fabric8ServiceException("Error while closing the port-forward to pod " + pod, e);
+        }
     }
 
-    public ProcessUtil.ProcessExecutionContext forwardPortAsync(Logger externalProcessLogger, String pod, int remotePort, int localPort) throws Fabric8ServiceException {
-        File command = clientToolsService.getKubeCtlExecutable(OpenshiftHelper.isOpenShiftClient(kubernetes));
-        log.info("Port forwarding to port " + remotePort + " on pod " + pod + " using command " + command);
-
-        List<String> args = new ArrayList<>();
-        args.add("port-forward");
-        args.add(pod);
-        args.add(localPort + ":" + remotePort);
+    /**
+     * Forwards a local port to a pod. The forwarding runs in the background until the returned forwarder is closed.
+     */
+    public PodPortForwarder forwardPortAsync(Logger forwarderLogger, String pod, int remotePort, int localPort) throws Fabric8ServiceException {
+        PodPortForwarder forwarder = createForwarder(forwarderLogger, remotePort, localPort);
+        forwarder.switchPod(pod);
+        return forwarder;
+    }
 
-        String commandLine = command + " " + StringUtils.join(args, " ");
-        log.verbose("Executing command " + commandLine);
+    protected PodPortForwarder createForwarder(Logger forwarderLogger, int remotePort, int localPort) throws Fabric8ServiceException {
+        PodPortForwarder forwarder = null;
         try {
-            return ProcessUtil.runAsyncCommand(externalProcessLogger, command, args, true, false);
+            forwarder = new PodPortForwarder(kubernetes, forwarderLogger);
+            forwarder.addForward(localPort, remotePort);
+            return forwarder;
         } catch (IOException e) {
-            throw new Fabric8ServiceException("Error while executing the port-forward command", e);
+            if (forwarder != null) {
+                try {
+                    forwarder.close();
+                } catch (IOException ignored) {}
+            }
+            throw new Fabric8ServiceException("Cannot listen on local port " + localPort + " for port-forwarding", e);
         }
     }
 }
@@ -15,6 +15,7 @@
  */
 package io.fabric8.maven.core.service.kubernetes;
 
+import java.util.List;
 import java.util.Objects;
 
 import io.fabric8.maven.core.service.BuildService;
@@ -57,6 +58,14 @@ public class DockerBuildService implements BuildService {
         }
     }
 
+    @Override
+    public void buildImages(List<ImageConfiguration> imageConfigs) throws Fabric8ServiceException {
+        // The Docker daemon builds one image after the other
+        for (ImageConfiguration imageConfig : imageConfigs) {
+            build(imageConfig);
+        }
+    }
+
     @Override
     public void postProcess(BuildServiceConfig config) {
         // No post processing required
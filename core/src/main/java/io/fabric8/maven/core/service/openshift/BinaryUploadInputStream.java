@@ -0,0 +1,138 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Stream for uploading the build archive of a binary build compressed with gzip on the fly.
+ * The progress is logged every ten percent of the archive, and the throughput is logged when the upload is finished.
+ */
+class BinaryUploadInputStream extends InputStream {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final InputStream source;
+    private final long sourceLength;
+    private final Logger log;
+
+    private final ByteArrayOutputStream compressedChunk;
+    private final GZIPOutputStream gzip;
+
+    private byte[] buffer = new byte[0];
+    private int bufferPos;
+    private boolean sourceExhausted;
+
+    private final long startTime = System.nanoTime();
+    private long bytesRead;
+    private long bytesUploaded;
+    private int lastReportedStep;
+    private boolean finishReported;
+
+    BinaryUploadInputStream(InputStream source, long sourceLength, Logger log) throws IOException {
+        this.source = source;
+        this.sourceLength = sourceLength;
+        this.log = log;
+        compressedChunk = new ByteArrayOutputStream(CHUNK_SIZE);
+        gzip = new GZIPOutputStream(compressedChunk, CHUNK_SIZE);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = readCompressed(b, off, len);
+        if (n > 0) {
+            bytesUploaded += n;
+        } else {
+            reportFinished();
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private int readCompressed(byte[] b, int off, int len) throws IOException {
+        while (bufferPos == buffer.length) {
+            if (sourceExhausted) {
+                return -1;
+            }
+            fillCompressed();
+        }
+        int n = Math.min(len, buffer.length - bufferPos);
+        System.arraycopy(buffer, bufferPos, b, off, n);
+        bufferPos += n;
+        return n;
+    }
+
+    private void fillCompressed() throws IOException {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int n = source.read(chunk);
+        if (n == -1) {
+            gzip.finish();
+            sourceExhausted = true;
+        } else if (n > 0) {
+            gzip.write(chunk, 0, n);
+            sourceRead(n);
+        }
+        buffer = compressedChunk.toByteArray();
+        bufferPos = 0;
+        compressedChunk.reset();
+    }
+
+    private void sourceRead(int n) {
+        bytesRead += n;
+        if (sourceLength > 0) {
+            int step = (int) (bytesRead * 10 / sourceLength);
+            if (step > lastReportedStep && step < 10) {
+                lastReportedStep = step;
+                log.info("Uploaded %s of %s (%d%%)", formatSize(bytesRead), formatSize(sourceLength), step * 10);
+            }
+        }
+    }
+
+    private void reportFinished() {
+        if (!finishReported) {
+            finishReported = true;
+            double seconds = Math.max((System.nanoTime() - startTime) / 1e9, 0.001);
+            log.info("Uploaded %s (%s compressed) in %.1f s, %s/s",
+                     formatSize(bytesRead), formatSize(bytesUploaded), seconds, formatSize((long) (bytesUploaded / seconds)));
+        }
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -21,16 +21,21 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesList;
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.kubernetes.api.model.ObjectReference;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.maven.core.util.ResourceUtil;
 import io.fabric8.maven.core.util.kubernetes.KubernetesHelper;
 import io.fabric8.maven.core.util.kubernetes.KubernetesResourceUtil;
@@ -61,10 +66,12 @@ public class ImageStreamService {
     private final Logger log;
 
     /**
-     * Retry parameter
+     * How long to wait for a tag to appear on an image stream
      */
-    private final int IMAGE_STREAM_TAG_RETRIES = 15;
-    private final long IMAGE_STREAM_TAG_RETRY_TIMEOUT_IN_MILLIS = 1000;
+    private final long IMAGE_STREAM_TAG_TIMEOUT_IN_MILLIS = 15000;
+
+    // Image streams to write, by target file. Filled with the already existing content of a file when it is first used.
+    private final Map<File, Map<String, ImageStream>> pendingImageStreams = new LinkedHashMap<>();
 
 
     public ImageStreamService(OpenShiftClient client, Logger log) {
@@ -78,6 +85,18 @@ public class ImageStreamService {
      * @param target file to store the image stream
      */
     public void appendImageStreamResource(ImageName imageName, File target) throws MojoExecutionException {
+        addImageStreamResource(imageName, target);
+        writeImageStreamResources();
+    }
+
+    /**
+     * Add the image stream of an image to the streams to write to a file. The file is written
+     * only by {@link #writeImageStreamResources()}, so that it is written once for multiple images.
+     *
+     * @param imageName name of the image for which the stream should be extracted
+     * @param target file to store the image stream
+     */
+    public void addImageStreamResource(ImageName imageName, File target) throws MojoExecutionException {
         String tag = StringUtils.isBlank(imageName.getTag()) ? "latest" : imageName.getTag();
         try {
             ImageStream is = new ImageStreamBuilder()
@@ -94,29 +113,48 @@ public class ImageStreamService {
 
                     .build();
             createOrUpdateImageStreamTag(client, imageName, is);
-            appendImageStreamToFile(is, target);
-            log.info("ImageStream %s written to %s", imageName.getSimpleName(), target);
+            synchronized (pendingImageStreams) {
+                Map<String, ImageStream> imageStreams = pendingImageStreams.get(target);
+                if (imageStreams == null) {
+                    imageStreams = readAlreadyExtractedImageStreams(target);
+                    pendingImageStreams.put(target, imageStreams);
+                }
+                // Override with given image stream
+                imageStreams.put(is.getMetadata().getName(), is);
+            }
         } catch (KubernetesClientException e) {
             KubernetesResourceUtil.handleKubernetesClientException(e, this.log);
         } catch (IOException e) {
-            throw new MojoExecutionException(String.format("Cannot write ImageStream descriptor for %s to %s : %s",
+            throw new MojoExecutionException(String.format("Cannot read ImageStream descriptor for %s from %s : %s",
                                                            imageName.getFullName(), target.getAbsoluteFile(), e.getMessage()),e);
         }
     }
 
-    private void appendImageStreamToFile(ImageStream is, File target) throws MojoExecutionException, IOException {
-
-        Map<String, ImageStream> imageStreams = readAlreadyExtractedImageStreams(target);
-        // Override with given image stream
-        imageStreams.put(is.getMetadata().getName(),is);
-        KubernetesList isList =
-            new KubernetesListBuilder().withItems(new ArrayList<HasMetadata>(imageStreams.values())).build();
-        ResourceUtil.save(target, isList);
+    /**
+     * Write all image streams added with {@link #addImageStreamResource(ImageName, File)} to their files
+     */
+    public void writeImageStreamResources() throws MojoExecutionException {
+        synchronized (pendingImageStreams) {
+            for (Map.Entry<File, Map<String, ImageStream>> entry : pendingImageStreams.entrySet()) {
+                File target = entry.getKey();
+                Map<String, ImageStream> imageStreams = entry.getValue();
+                KubernetesList isList =
+                    new KubernetesListBuilder().withItems(new ArrayList<HasMetadata>(imageStreams.values())).build();
+                try {
+                    ResourceUtil.save(target, isList);
+                } catch (IOException e) {
+                    throw new MojoExecutionException(String.format("Cannot write ImageStream descriptors %s to %s : %s",
+                                                                   imageStreams.keySet(), target.getAbsoluteFile(), e.getMessage()),e);
+                }
+                log.info("ImageStream %s written to %s", StringUtils.join(imageStreams.keySet(), ", "), target);
+            }
+            pendingImageStreams.clear();
+        }
     }
 
     private Map<String, ImageStream> readAlreadyExtractedImageStreams(File target) throws IOException {
         // If it already exists, read in the file and use it for update
-        Map<String, ImageStream> imageStreams = new HashMap<>();
+        Map<String, ImageStream> imageStreams = new LinkedHashMap<>();
         if (target.length() > 0) {
             for (HasMetadata entity : KubernetesResourceUtil.loadResources(target)) {
                 if ("ImageStream".equals(KubernetesHelper.getKind(entity))) {
@@ -180,54 +218,57 @@ public class ImageStreamService {
         return tag;
     }
 
-    private String findTagSha(OpenShiftClient client, String imageStreamName, String namespace) throws MojoExecutionException {
-        ImageStream currentImageStream = null;
-
-        for (int i = 0; i < IMAGE_STREAM_TAG_RETRIES; i++) {
-            if (i > 0) {
-                log.info("Retrying to find tag on ImageStream %s", imageStreamName);
-                try {
-                    Thread.sleep(IMAGE_STREAM_TAG_RETRY_TIMEOUT_IN_MILLIS);
-                } catch (InterruptedException e) {
-                    log.debug("interrupted", e);
+    private String findTagSha(OpenShiftClient client, final String imageStreamName, String namespace) throws MojoExecutionException {
+        ImageStream currentImageStream = client.imageStreams().withName(imageStreamName).get();
+        String image = getLatestTagImage(currentImageStream);
+        if (image == null) {
+            // Wait for the first update of the image stream which has a tag
+            log.info("Waiting for a tag on ImageStream %s", imageStreamName);
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicReference<String> watchedImage = new AtomicReference<>();
+            final AtomicReference<ImageStream> watchedImageStream = new AtomicReference<>();
+            try (Watch watch = client.imageStreams().withName(imageStreamName).watch(new Watcher<ImageStream>() {
+                @Override
+                public void eventReceived(Action action, ImageStream imageStream) {
+                    if (action == Action.DELETED) {
+                        return;
+                    }
+                    watchedImageStream.set(imageStream);
+                    String latestImage = getLatestTagImage(imageStream);
+                    if (latestImage != null) {
+                        watchedImage.set(latestImage);
+                        latch.countDown();
+                    }
                 }
-            }
-            currentImageStream = client.imageStreams().withName(imageStreamName).get();
-            if (currentImageStream == null) {
-                continue;
-            }
-            ImageStreamStatus status = currentImageStream.getStatus();
-            if (status == null) {
-                continue;
-            }
-            List<NamedTagEventList> tags = status.getTags();
-            if (tags == null || tags.isEmpty()) {
-                continue;
-            }
-
-            // Iterate all imagestream tags and get the latest one by 'created' attribute
-            TagEvent latestTag = null;
 
-            TAG_EVENT_LIST:
-            for (NamedTagEventList list : tags) {
-                List<TagEvent> items = list.getItems();
-                if (items == null || items.isEmpty()) {
-                    continue TAG_EVENT_LIST;
+                @Override
+                public void onClose(KubernetesClientException cause) {
+                    latch.countDown();
                 }
-
-                for (TagEvent tag : items) {
-                    latestTag = latestTag == null ? tag : newerTag(tag, latestTag);
+            })) {
+                // The tag might have been set before the watch was established
+                currentImageStream = client.imageStreams().withName(imageStreamName).get();
+                image = getLatestTagImage(currentImageStream);
+                if (image == null && latch.await(IMAGE_STREAM_TAG_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS)) {
+                    image = watchedImage.get();
+                    if (watchedImageStream.get() != null) {
+                        currentImageStream = watchedImageStream.get();
+                    }
                 }
+            } catch (InterruptedException e) {
+                log.debug("interrupted", e);
+                Thread.currentThread().interrupt();
+            } catch (KubernetesClientException e) {
+                log.debug("Cannot watch ImageStream %s: %s", imageStreamName, e.getMessage());
             }
+        }
 
-            if (latestTag != null && StringUtils.isNotBlank(latestTag.getImage())) {
-                String image = latestTag.getImage();
-                log.info("Found tag on ImageStream " + imageStreamName + " tag: " + image);
-                return image;
-            }
+        if (image != null) {
+            log.info("Found tag on ImageStream " + imageStreamName + " tag: " + image);
+            return image;
         }
 
-        // No image found, even after several retries:
+        // No image found, even after waiting:
         if (currentImageStream == null) {
             throw new MojoExecutionException("Could not find a current ImageStream with name " + imageStreamName + " in namespace " + namespace);
         } else {
@@ -235,6 +276,38 @@ public class ImageStreamService {
         }
     }
 
+    // Get the image of the latest tag by 'created' attribute or null if the image stream has no tag yet
+    private String getLatestTagImage(ImageStream imageStream) {
+        if (imageStream == null) {
+            return null;
+        }
+        ImageStreamStatus status = imageStream.getStatus();
+        if (status == null) {
+            return null;
+        }
+        List<NamedTagEventList> tags = status.getTags();
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+
+        // Iterate all imagestream tags and get the latest one by 'created' attribute
+        TagEvent latestTag = null;
+
+        TAG_EVENT_LIST:
+        for (NamedTagEventList list : tags) {
+            List<TagEvent> items = list.getItems();
+            if (items == null || items.isEmpty()) {
+                continue TAG_EVENT_LIST;
+            }
+
+            for (TagEvent tag : items) {
+                latestTag = latestTag == null ? tag : newerTag(tag, latestTag);
+            }
+        }
+
+        return latestTag != null && StringUtils.isNotBlank(latestTag.getImage()) ? latestTag.getImage() : null;
+    }
+
     public TagEvent newerTag(TagEvent tag1, TagEvent tag2) {
         Date tag1Date = extractDate(tag1);
         Date tag2Date = extractDate(tag2);
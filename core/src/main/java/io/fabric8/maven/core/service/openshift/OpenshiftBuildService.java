@@ -16,15 +16,25 @@
 package io.fabric8.maven.core.service.openshift;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -41,6 +51,7 @@ import io.fabric8.kubernetes.client.dsl.LogWatch;
 import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
 import io.fabric8.maven.core.service.BuildService;
 import io.fabric8.maven.core.service.Fabric8ServiceException;
+import io.fabric8.maven.core.service.PodLogMultiplexer;
 import io.fabric8.maven.core.util.IoUtil;
 import io.fabric8.maven.core.util.ResourceFileType;
 import io.fabric8.maven.core.util.kubernetes.KubernetesClientUtil;
@@ -88,6 +99,9 @@ public class OpenshiftBuildService implements BuildService {
     private RegistryService.RegistryConfig registryConfig;
     private AuthConfigFactory authConfigFactory;
 
+    // Collects the image streams of all builds, which are written in postProcess()
+    private final ImageStreamService imageStreamService;
+
 
     public OpenshiftBuildService(OpenShiftClient client, Logger log, ServiceHub dockerServiceHub, BuildServiceConfig config) {
         Objects.requireNonNull(client, "client");
@@ -99,6 +113,7 @@ public class OpenshiftBuildService implements BuildService {
         this.log = log;
         this.dockerServiceHub = dockerServiceHub;
         this.config = config;
+        this.imageStreamService = new ImageStreamService(client, log);
     }
 
     @Override
@@ -109,39 +124,118 @@ public class OpenshiftBuildService implements BuildService {
 
             File dockerTar = createBuildArchive(imageConfig);
 
-            KubernetesListBuilder builder = new KubernetesListBuilder();
-
-            // Check for buildconfig / imagestream / pullSecret and create them if necessary
-            String openshiftPullSecret = config.getOpenshiftPullSecret();
-            Boolean usePullSecret = checkOrCreatePullSecret(config, client, builder, openshiftPullSecret, imageConfig);
-            if (usePullSecret) {
-                buildName = updateOrCreateBuildConfig(config, client, builder, imageConfig, openshiftPullSecret);
-            } else {
-                buildName = updateOrCreateBuildConfig(config, client, builder, imageConfig, null);
-            }
-
-            checkOrCreateImageStream(config, client, builder, getImageStreamName(imageName));
-            applyResourceObjects(config, client, builder);
+            buildName = prepareBuild(imageConfig);
 
             // Start the actual build
             Build build = startBuild(client, dockerTar, buildName);
 
             // Wait until the build finishes
-            waitForOpenShiftBuildToComplete(client, build);
+            waitForOpenShiftBuildToComplete(client, build, null);
 
-            // Create a file with generated image streams
-            addImageStreamToFile(getImageStreamFile(config), imageName, client);
+            // Remember the generated image stream for the image stream file
+            imageStreamService.addImageStreamResource(imageName, getImageStreamFile(config));
         } catch (Fabric8ServiceException e) {
             throw e;
         } catch (Exception ex) {
-            // Log additional details in case of any IOException
-            if (ex != null && ex.getCause() instanceof IOException) {
-                log.error("Build for %s failed: %s", buildName, ex.getCause().getMessage());
-                logBuildFailure(client, buildName);
-            } else {
+            handleBuildException(buildName, ex);
+        }
+    }
+
+    @Override
+    public void buildImages(List<ImageConfiguration> imageConfigs) throws Fabric8ServiceException {
+        int concurrency = Math.min(config.getBuildConcurrency(), imageConfigs.size());
+        if (concurrency <= 1) {
+            for (ImageConfiguration imageConfig : imageConfigs) {
+                build(imageConfig);
+            }
+            return;
+        }
+
+        // Archives and resource objects are prepared one after the other, as the assembly of the
+        // docker-maven-plugin is not meant to be used concurrently and all images share the pull secret
+        final PodLogMultiplexer buildLogs = new PodLogMultiplexer(log);
+        Map<String, Callable<ImageName>> builds = new LinkedHashMap<>();
+        for (ImageConfiguration imageConfig : imageConfigs) {
+            final ImageName imageName = new ImageName(imageConfig.getName());
+            final File dockerTar = createBuildArchive(imageConfig);
+            final String buildName;
+            try {
+                buildName = prepareBuild(imageConfig);
+            } catch (Exception ex) {
                 throw new Fabric8ServiceException("Unable to build the image using the OpenShift build service", ex);
             }
+            builds.put(buildName, new Callable<ImageName>() {
+                @Override
+                public ImageName call() throws Exception {
+                    Build build = startBuild(client, dockerTar, buildName);
+                    waitForOpenShiftBuildToComplete(client, build, buildLogs);
+                    return imageName;
+                }
+            });
+        }
+
+        log.info("Running %d builds with up to %d builds at the same time", builds.size(), concurrency);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            CompletionService<ImageName> completionService = new ExecutorCompletionService<>(executor);
+            Map<Future<ImageName>, String> buildNames = new HashMap<>();
+            for (Map.Entry<String, Callable<ImageName>> entry : builds.entrySet()) {
+                buildNames.put(completionService.submit(entry.getValue()), entry.getKey());
+            }
+            for (int i = 0; i < builds.size(); i++) {
+                Future<ImageName> finished = completionService.take();
+                try {
+                    imageStreamService.addImageStreamResource(finished.get(), getImageStreamFile(config));
+                } catch (ExecutionException e) {
+                    if (i < builds.size() - 1) {
+                        log.warn("Build %s failed, not waiting for the other builds. They might still be running in OpenShift.",
+                                 buildNames.get(finished));
+                    }
+                    Throwable cause = e.getCause();
+                    handleBuildException(buildNames.get(finished), cause instanceof Exception ? (Exception) cause : e);
+                } catch (MojoExecutionException e) {
+                    throw new Fabric8ServiceException("Unable to build the image using the OpenShift build service", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Fabric8ServiceException("Interrupted while waiting for the OpenShift builds", e);
+        } finally {
+            // Stops waiting for builds which are still running after a failure
+            executor.shutdownNow();
+            buildLogs.close();
+        }
+    }
+
+    // Check for buildconfig / imagestream / pullSecret and create them if necessary
+    private String prepareBuild(ImageConfiguration imageConfig) throws Exception {
+        ImageName imageName = new ImageName(imageConfig.getName());
+        KubernetesListBuilder builder = new KubernetesListBuilder();
+
+        String buildName;
+        String openshiftPullSecret = config.getOpenshiftPullSecret();
+        Boolean usePullSecret = checkOrCreatePullSecret(config, client, builder, openshiftPullSecret, imageConfig);
+        if (usePullSecret) {
+            buildName = updateOrCreateBuildConfig(config, client, builder, imageConfig, openshiftPullSecret);
+        } else {
+            buildName = updateOrCreateBuildConfig(config, client, builder, imageConfig, null);
+        }
+
+        checkOrCreateImageStream(config, client, builder, getImageStreamName(imageName));
+        applyResourceObjects(config, client, builder);
+        return buildName;
+    }
+
+    private void handleBuildException(String buildName, Exception ex) throws Fabric8ServiceException {
+        if (ex instanceof Fabric8ServiceException) {
+            throw (Fabric8ServiceException) ex;
+        }
+        // Log additional details in case of any IOException
+        if (ex.getCause() instanceof IOException) {
+            log.error("Build for %s failed: %s", buildName, ex.getCause().getMessage());
+            logBuildFailure(client, buildName);
         }
+        throw new Fabric8ServiceException("Unable to build the image using the OpenShift build service", ex);
     }
 
     protected File createBuildArchive(ImageConfiguration imageConfig) throws Fabric8ServiceException {
@@ -194,7 +288,12 @@ public class OpenshiftBuildService implements BuildService {
     }
 
     @Override
-    public void postProcess(BuildServiceConfig config) {
+    public void postProcess(BuildServiceConfig config) throws Fabric8ServiceException {
+        try {
+            imageStreamService.writeImageStreamResources();
+        } catch (MojoExecutionException e) {
+            throw new Fabric8ServiceException("Unable to write the ImageStream descriptors", e);
+        }
         config.attachArtifact("is", getImageStreamFile(config));
     }
 
@@ -470,9 +569,19 @@ public class OpenshiftBuildService implements BuildService {
     private Build startBuild(OpenShiftClient client, File dockerTar, String buildName) {
         log.info("Starting Build %s", buildName);
         try {
-            return client.buildConfigs().withName(buildName)
-                    .instantiateBinary()
-                    .fromFile(dockerTar);
+            if (!config.isS2iCompressBinary()) {
+                return client.buildConfigs().withName(buildName)
+                        .instantiateBinary()
+                        .fromFile(dockerTar);
+            }
+            try (InputStream upload = new BinaryUploadInputStream(new FileInputStream(dockerTar), dockerTar.length(), log)) {
+                // The length of the compressed archive is not known in advance, so it is sent with chunked transfer encoding
+                return client.buildConfigs().withName(buildName)
+                        .instantiateBinary()
+                        .fromInputStream(upload);
+            }
+        } catch (IOException exp) {
+            throw new KubernetesClientException("Cannot upload " + dockerTar + " for build " + buildName, exp);
         } catch (KubernetesClientException exp) {
             Status status = exp.getStatus();
             if (status != null) {
@@ -486,7 +595,7 @@ public class OpenshiftBuildService implements BuildService {
         }
     }
 
-    private void waitForOpenShiftBuildToComplete(OpenShiftClient client, Build build) throws MojoExecutionException, InterruptedException {
+    private void waitForOpenShiftBuildToComplete(OpenShiftClient client, Build build, PodLogMultiplexer buildLogs) throws MojoExecutionException, InterruptedException {
         final CountDownLatch latch = new CountDownLatch(1);
         final CountDownLatch logTerminateLatch = new CountDownLatch(1);
         final String buildName = KubernetesHelper.getName(build);
@@ -494,11 +603,17 @@ public class OpenshiftBuildService implements BuildService {
         final AtomicReference<Build> buildHolder = new AtomicReference<>();
 
         // Don't query for logs directly, Watch over the build pod:
-        waitUntilPodIsReady(buildName + "-build", 20, log);
+        String podName = buildName + "-build";
+        waitUntilPodIsReady(podName, 20, log);
         log.info("Waiting for build " + buildName + " to complete...");
-        try (LogWatch logWatch = client.pods().withName(buildName + "-build").watchLog()) {
-            KubernetesClientUtil.printLogsAsync(logWatch,
-                    "Failed to tail build log", logTerminateLatch, log);
+        try (LogWatch logWatch = client.pods().withName(podName).watchLog()) {
+            if (buildLogs != null) {
+                // Concurrent builds share a single log view with a prefix per build
+                buildLogs.add(podName, null, logWatch);
+            } else {
+                KubernetesClientUtil.printLogsAsync(logWatch,
+                        "Failed to tail build log", logTerminateLatch, log);
+            }
             Watcher<Build> buildWatcher = getBuildWatcher(latch, buildName, buildHolder);
             try (Watch watcher = client.builds().withName(buildName).watch(buildWatcher)) {
                 // Check if the build is already finished to avoid waiting indefinitely
@@ -555,19 +670,17 @@ public class OpenshiftBuildService implements BuildService {
             }
         })) {
             readyLatch.await(nAwaitTimeout, TimeUnit.SECONDS);
-        } catch (KubernetesClientException | InterruptedException e) {
+        } catch (KubernetesClientException e) {
             log.error("Could not watch pod", e);
+        } catch (InterruptedException e) {
+            // Let the caller stop waiting for the build, too
+            Thread.currentThread().interrupt();
         }
     }
 
-    private void waitUntilBuildFinished(CountDownLatch latch) {
-        while (latch.getCount() > 0L) {
-            try {
-                latch.await();
-            } catch (InterruptedException e) {
-                // ignore
-            }
-        }
+    private void waitUntilBuildFinished(CountDownLatch latch) throws InterruptedException {
+        // Interrupted when a concurrent build failed
+        latch.await();
     }
 
     private Watcher<Build> getBuildWatcher(final CountDownLatch latch, final String buildName, final AtomicReference<Build> buildHolder) {
@@ -647,11 +760,6 @@ public class OpenshiftBuildService implements BuildService {
         }
     }
 
-    private void addImageStreamToFile(File imageStreamFile, ImageName imageName, OpenShiftClient client) throws MojoExecutionException {
-        ImageStreamService imageStreamHandler = new ImageStreamService(client, log);
-        imageStreamHandler.appendImageStreamResource(imageName, imageStreamFile);
-    }
-
     // == Utility methods ==========================
 
     private String getS2IBuildName(BuildServiceConfig config, ImageName imageName) {
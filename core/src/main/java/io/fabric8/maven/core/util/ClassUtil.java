@@ -16,10 +16,7 @@
 package io.fabric8.maven.core.util;
 
 import java.io.File;
-import java.io.FileFilter;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
@@ -29,11 +26,6 @@ import java.util.List;
 import java.util.Set;
 
 import io.fabric8.maven.docker.util.Logger;
-import javassist.ClassPool;
-import javassist.CtClass;
-import javassist.CtMethod;
-import javassist.Modifier;
-import javassist.NotFoundException;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.maven.project.MavenProject;
 
@@ -117,66 +109,26 @@ public class ClassUtil {
      * @exception IOException if something goes wrong
      */
     public static List<String> findMainClasses(File rootDir) throws IOException {
-        List<String> ret = new ArrayList<>();
+        return findMainClasses(rootDir, null);
+    }
+
+    /**
+     * Find all classes below a certain directory which contain
+     * main() classes. Only class files which changed since the last scan are examined.
+     *
+     * @param rootDir the directory to start from
+     * @param cacheFile file for storing the scan results between builds. Can be null.
+     * @return List of classes with "public void static main(String[] args)" methods. Can be empty, but not null.
+     * @exception IOException if something goes wrong
+     */
+    public static List<String> findMainClasses(File rootDir, File cacheFile) throws IOException {
         if (!rootDir.exists()) {
-            return ret;
+            return new ArrayList<>();
         }
         if (!rootDir.isDirectory()) {
             throw new IllegalArgumentException(String.format("Path %s is not a directory",rootDir.getPath()));
         }
-        findClasses(ret, rootDir, rootDir.getAbsolutePath() + "/");
-        return ret;
-    }
-
-    // ========================================================================
-
-    private static final FileFilter DIR_FILTER = new FileFilter() {
-        @Override
-        public boolean accept(File pathname) {
-            return pathname.isDirectory() && !pathname.getName().startsWith(".");
-        }
-    };
-
-    private static final FileFilter CLASS_FILE_FILTER = new FileFilter() {
-		@Override
-        public boolean accept(File file) {
-            return (file.isFile() && file.getName().endsWith(".class"));
-		}
-	};
-
-
-    private static void findClasses(List<String> classes, File dir, String prefix) throws IOException {
-        for (File subDir : dir.listFiles(DIR_FILTER)) {
-            findClasses(classes, subDir, prefix);
-        }
-
-        for (File classFile : dir.listFiles(CLASS_FILE_FILTER)) {
-            try (InputStream is = new FileInputStream(classFile)) {
-                if (hasMainMethod(is)) {
-                    classes.add(convertToClass(classFile.getAbsolutePath(), prefix));
-                }
-            }
-        }
-    }
-
-    private static boolean hasMainMethod(InputStream is) throws IOException {
-        try {
-            ClassPool pool = ClassPool.getDefault();
-            CtClass ctClass = pool.makeClass(is);
-            CtClass stringClass = pool.get("java.lang.String[]");
-            CtMethod mainMethod = ctClass.getDeclaredMethod("main", new CtClass[] { stringClass });
-            return mainMethod.getReturnType() == CtClass.voidType &&
-                   Modifier.isStatic(mainMethod.getModifiers()) &&
-                   Modifier.isPublic(mainMethod.getModifiers());
-        } catch (NotFoundException e) {
-            return false;
-        }
-    }
-
-    private static String convertToClass(String name, String prefix) {
-        String ret = name.replaceAll("[/\\\\]", ".");
-        ret = ret.substring(0, name.length() - ".class".length());
-        return ret.substring(prefix.length());
+        return new MainClassScanner(rootDir, cacheFile).scan();
     }
 
 
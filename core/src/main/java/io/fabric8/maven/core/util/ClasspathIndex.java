@@ -0,0 +1,227 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Names of the classes and resources on a classpath, for checking their presence without a class loader.
+ *
+ * The entry names of a jar are read from its central directory once and kept as long as the size and
+ * modification time of the jar do not change. If a cache file is given, the names are stored there for
+ * later builds, too. Directories on the classpath (like the project's output directory) are looked up
+ * directly on the file system as their content changes during a build.
+ */
+class ClasspathIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClasspathIndex.class);
+
+    private static final int CACHE_FORMAT_VERSION = 1;
+
+    // Entry names by absolute path of the jar, shared by all projects within a build
+    private static final Map<String, JarNames> JARS = new ConcurrentHashMap<>();
+
+    private final List<File> directories = new ArrayList<>();
+    private final List<JarNames> jars = new ArrayList<>();
+
+    /**
+     * @param classpath classpath elements, directories or jars. Elements which do not exist are ignored.
+     * @param cacheFile file to store the entry names of the jars to. Can be null if they should not be persisted.
+     */
+    ClasspathIndex(List<String> classpath, File cacheFile) {
+        boolean changed = loadCache(cacheFile);
+        List<String> jarPaths = new ArrayList<>();
+        for (String element : classpath) {
+            File file = new File(element);
+            if (file.isDirectory()) {
+                directories.add(file);
+            } else if (file.isFile()) {
+                JarNames cached = JARS.get(file.getAbsolutePath());
+                JarNames names = getEntryNames(file);
+                changed |= cached != names;
+                jars.add(names);
+                jarPaths.add(file.getAbsolutePath());
+            }
+        }
+        if (changed) {
+            storeCache(cacheFile, jarPaths);
+        }
+    }
+
+    /**
+     * Check whether a class is on the classpath
+     *
+     * @param className fully qualified name of the class
+     * @return true if the class file could be found
+     */
+    boolean hasClass(String className) {
+        return hasResource(className.replace('.', '/') + ".class");
+    }
+
+    /**
+     * Check whether a resource is on the classpath
+     *
+     * @param path path of the resource, like for {@link ClassLoader#getResource(String)}
+     * @return true if the resource could be found
+     */
+    boolean hasResource(String path) {
+        for (File directory : directories) {
+            if (new File(directory, path).exists()) {
+                return true;
+            }
+        }
+        for (JarNames jar : jars) {
+            if (jar.names.contains(path)) {
+                return true;
+            }
+        }
+        // Like a class loader, delegate to the system class loader (e.g. for classes of the JDK)
+        return ClassLoader.getSystemResource(path) != null;
+    }
+
+    /**
+     * Check whether a jar contains an entry
+     *
+     * @param jar jar whose central directory is read if it is not cached yet or changed
+     * @param name name of the entry
+     * @return true if the jar contains the entry, false if not or if the jar cannot be read
+     */
+    static boolean hasEntry(File jar, String name) {
+        return getEntryNames(jar).names.contains(name);
+    }
+
+    // ========================================================================
+
+    private static JarNames getEntryNames(File jar) {
+        String key = jar.getAbsolutePath();
+        JarNames names = JARS.get(key);
+        if (names == null || !names.matches(jar)) {
+            names = readJar(jar);
+            JARS.put(key, names);
+        }
+        return names;
+    }
+
+    private static JarNames readJar(File jar) {
+        long length = jar.length();
+        long lastModified = jar.lastModified();
+        Set<String> names = new HashSet<>();
+        try (ZipFile zipFile = new ZipFile(jar)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                names.add(entries.nextElement().getName());
+            }
+        } catch (IOException e) {
+            LOG.debug("Cannot read entries of {}: {}", jar, e.getMessage());
+        }
+        return new JarNames(length, lastModified, Collections.unmodifiableSet(names));
+    }
+
+    // Returns true if the cache file is missing and should be written
+    private static boolean loadCache(File cacheFile) {
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return cacheFile != null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(cacheFile))))) {
+            if (in.readInt() != CACHE_FORMAT_VERSION) {
+                return true;
+            }
+            int jarCount = in.readInt();
+            for (int i = 0; i < jarCount; i++) {
+                String path = in.readUTF();
+                long length = in.readLong();
+                long lastModified = in.readLong();
+                int nameCount = in.readInt();
+                Set<String> names = new HashSet<>();
+                for (int j = 0; j < nameCount; j++) {
+                    names.add(in.readUTF());
+                }
+                if (!JARS.containsKey(path)) {
+                    JARS.put(path, new JarNames(length, lastModified, Collections.unmodifiableSet(names)));
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            // Just read the jars again
+            return true;
+        }
+    }
+
+    private static void storeCache(File cacheFile, List<String> jarPaths) {
+        if (cacheFile == null) {
+            return;
+        }
+        File dir = cacheFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            LOG.debug("Cannot create directory {}", dir);
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(cacheFile))))) {
+            out.writeInt(CACHE_FORMAT_VERSION);
+            out.writeInt(jarPaths.size());
+            for (String path : jarPaths) {
+                JarNames jar = JARS.get(path);
+                out.writeUTF(path);
+                out.writeLong(jar.length);
+                out.writeLong(jar.lastModified);
+                out.writeInt(jar.names.size());
+                for (String name : jar.names) {
+                    out.writeUTF(name);
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug("Cannot write classpath index {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private static class JarNames {
+        private final long length;
+        private final long lastModified;
+        private final Set<String> names;
+
+        private JarNames(long length, long lastModified, Set<String> names) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.names = names;
+        }
+
+        private boolean matches(File jar) {
+            return length == jar.length() && lastModified == jar.lastModified();
+        }
+    }
+}
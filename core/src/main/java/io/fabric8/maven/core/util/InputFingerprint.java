@@ -0,0 +1,237 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Fingerprint of the inputs of a goal, for skipping the goal when none of its inputs changed.
+ *
+ * Inputs are added under a name. Everything added under the same name goes into one SHA-256 digest,
+ * so that a stored fingerprint can tell which of the inputs changed.
+ */
+public class InputFingerprint {
+
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+
+    private final Map<String, MessageDigest> digests = new TreeMap<>();
+
+    /**
+     * Add a value
+     *
+     * @param name name of the input
+     * @param value value to add, can be null
+     * @return this fingerprint
+     */
+    public InputFingerprint add(String name, String value) {
+        MessageDigest digest = getDigest(name);
+        if (value != null) {
+            digest.update((byte) 1);
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        return this;
+    }
+
+    /**
+     * Add the fields of a configuration object, including the fields of nested objects
+     *
+     * @param name name of the input
+     * @param config configuration to add, can be null
+     * @return this fingerprint
+     * @throws IOException if the object cannot be serialized
+     */
+    public InputFingerprint addObject(String name, Object config) throws IOException {
+        return add(name, config != null ? OBJECT_MAPPER.writeValueAsString(config) : null);
+    }
+
+    /**
+     * Add the content of a file or of all files within a directory
+     *
+     * @param name name of the input
+     * @param file file or directory, which does not need to exist
+     * @return this fingerprint
+     * @throws IOException if a file cannot be read
+     */
+    public InputFingerprint addFiles(String name, File file) throws IOException {
+        if (file == null || !file.exists()) {
+            return add(name, null);
+        }
+        add(name, file.getAbsolutePath());
+        List<String> paths = new ArrayList<>();
+        collectFiles(file, "", paths);
+        MessageDigest digest = getDigest(name);
+        byte[] buffer = new byte[8192];
+        for (String path : paths) {
+            add(name, path);
+            try (InputStream is = new FileInputStream(path.isEmpty() ? file : new File(file, path))) {
+                for (int read = is.read(buffer); read > -1; read = is.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add the size and modification time of a file, for files which are too large to read each time (like jars)
+     *
+     * @param name name of the input
+     * @param file the file, which does not need to exist
+     * @return this fingerprint
+     */
+    public InputFingerprint addFileMetadata(String name, File file) {
+        if (file == null || !file.isFile()) {
+            return add(name, null);
+        }
+        return add(name, file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified());
+    }
+
+    /**
+     * Get the hash for each input
+     *
+     * @return hex encoded hashes by input name
+     */
+    public Map<String, String> getHashes() {
+        Map<String, String> ret = new TreeMap<>();
+        for (Map.Entry<String, MessageDigest> entry : digests.entrySet()) {
+            try {
+                // Clone so that more input can be added afterwards
+                ret.put(entry.getKey(), toHex(((MessageDigest) entry.getValue().clone()).digest()));
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("Cannot clone SHA-256 digest", e);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Compare with a fingerprint stored previously
+     *
+     * @param file file written by {@link #store(File)}
+     * @return names of the inputs which were added, removed or changed, or null if there is no stored fingerprint
+     * @throws IOException if the file cannot be read
+     */
+    public List<String> getChangedInputs(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties stored = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            stored.load(reader);
+        }
+        Map<String, String> hashes = getHashes();
+        TreeSet<String> names = new TreeSet<>(hashes.keySet());
+        names.addAll(stored.stringPropertyNames());
+        List<String> changed = new ArrayList<>();
+        for (String name : names) {
+            if (!hashes.containsKey(name) || !hashes.get(name).equals(stored.getProperty(name))) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Store the hashes of the inputs
+     *
+     * @param file file to write to, parent directories are created if missing
+     * @throws IOException if the file cannot be written
+     */
+    public void store(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        try (Writer writer = new FileWriter(file)) {
+            for (Map.Entry<String, String> entry : getHashes().entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    // ========================================================================
+
+    private MessageDigest getDigest(String name) {
+        MessageDigest digest = digests.get(name);
+        if (digest == null) {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("No SHA-256 support", e);
+            }
+            digests.put(name, digest);
+        }
+        return digest;
+    }
+
+    // Relative paths of all files, sorted so that the order does not depend on the file system
+    private static void collectFiles(File file, String path, List<String> paths) {
+        if (file.isFile()) {
+            paths.add(path);
+            return;
+        }
+        String[] children = file.list();
+        if (children != null) {
+            Arrays.sort(children);
+            for (String child : children) {
+                collectFiles(new File(file, child), path.isEmpty() ? child : path + "/" + child, paths);
+            }
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder ret = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            ret.append(String.format("%02x", b));
+        }
+        return ret.toString();
+    }
+
+    // Serializes fields instead of properties, as configuration objects do not have getters for everything
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        mapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+        mapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        return mapper;
+    }
+}
@@ -0,0 +1,350 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the classes with a <code>public static void main(String[])</code> method below a directory.
+ *
+ * Class files are checked by reading only their constant pool and method table. The results are kept
+ * per scanned directory and class file, keyed by its size and modification time, so that only new or changed
+ * class files are checked again. Results of class files which are gone are dropped on each scan.
+ * If a cache file is given, the results are stored there for later builds, too.
+ */
+class MainClassScanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MainClassScanner.class);
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+
+    private static final String MAIN_DESCRIPTOR = "([Ljava/lang/String;)V";
+
+    private static final String SEPARATOR = "|";
+
+    // Results by absolute path of the scanned directory and the path of the class file relative to it,
+    // shared by all scans within a build
+    private static final Map<String, Map<String, Entry>> ENTRIES = new ConcurrentHashMap<>();
+
+    private final File rootDir;
+    private final File cacheFile;
+    private final String prefix;
+    private final Map<String, Entry> entries;
+
+    /**
+     * @param rootDir directory to scan
+     * @param cacheFile file to store the results to. Can be null if the results should not be persisted.
+     */
+    MainClassScanner(File rootDir, File cacheFile) {
+        this.rootDir = rootDir;
+        this.cacheFile = cacheFile;
+        this.prefix = rootDir.getAbsolutePath() + File.separator;
+        this.entries = ENTRIES.computeIfAbsent(rootDir.getAbsolutePath(), dir -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Scan for main classes
+     *
+     * @return names of the classes with a main method, sorted by their path
+     * @throws IOException if a class file cannot be read
+     */
+    List<String> scan() throws IOException {
+        List<File> classFiles = new ArrayList<>();
+        collectClassFiles(classFiles, rootDir);
+        Collections.sort(classFiles);
+
+        boolean changed = loadCache();
+        Set<String> paths = new HashSet<>();
+        List<File> toCheck = new ArrayList<>();
+        for (File classFile : classFiles) {
+            String path = getRelativePath(classFile);
+            paths.add(path);
+            Entry entry = entries.get(path);
+            if (entry == null || !entry.matches(classFile)) {
+                toCheck.add(classFile);
+            }
+        }
+        if (!toCheck.isEmpty()) {
+            check(toCheck);
+            changed = true;
+        }
+        // Class files deleted since the last scan
+        if (entries.keySet().retainAll(paths)) {
+            changed = true;
+        }
+
+        List<String> ret = new ArrayList<>();
+        for (File classFile : classFiles) {
+            if (entries.get(getRelativePath(classFile)).hasMain) {
+                ret.add(convertToClass(classFile.getAbsolutePath(), prefix));
+            }
+        }
+        if (changed) {
+            storeCache(classFiles);
+        }
+        return ret;
+    }
+
+    /**
+     * Check whether a class has a <code>public static void main(String[])</code> method
+     *
+     * @param is stream of the class file
+     * @return true if the class has a main method
+     * @throws IOException if the stream is not a valid class file
+     */
+    static boolean hasMainMethod(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        // minor and major version
+        in.skipBytes(4);
+
+        // Only the UTF8 entries are needed for the method names and descriptors
+        int constantPoolCount = in.readUnsignedShort();
+        String[] utf8 = new String[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.skipBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    in.skipBytes(3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.skipBytes(4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.skipBytes(8);
+                    // takes two entries
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Invalid constant pool tag " + tag);
+            }
+        }
+
+        // access flags, this class, super class
+        in.skipBytes(6);
+        int interfacesCount = in.readUnsignedShort();
+        in.skipBytes(2 * interfacesCount);
+
+        int fieldsCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldsCount; i++) {
+            in.skipBytes(6);
+            skipAttributes(in);
+        }
+
+        int methodsCount = in.readUnsignedShort();
+        for (int i = 0; i < methodsCount; i++) {
+            int accessFlags = in.readUnsignedShort();
+            String name = utf8[in.readUnsignedShort()];
+            String descriptor = utf8[in.readUnsignedShort()];
+            if ("main".equals(name) && MAIN_DESCRIPTOR.equals(descriptor) &&
+                (accessFlags & (ACC_PUBLIC | ACC_STATIC)) == (ACC_PUBLIC | ACC_STATIC)) {
+                return true;
+            }
+            skipAttributes(in);
+        }
+        return false;
+    }
+
+    // ========================================================================
+
+    private void check(List<File> classFiles) throws IOException {
+        int threads = Math.min(classFiles.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (final File classFile : classFiles) {
+                futures.add(executor.submit(() -> {
+                    long length = classFile.length();
+                    long lastModified = classFile.lastModified();
+                    try (InputStream is = new FileInputStream(classFile)) {
+                        entries.put(getRelativePath(classFile), new Entry(length, lastModified, hasMainMethod(is)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning " + rootDir + " for main classes", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean loadCache() {
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return cacheFile != null;
+        }
+        Properties props = new Properties();
+        try (InputStream is = new FileInputStream(cacheFile)) {
+            props.load(is);
+        } catch (IOException e) {
+            // Just scan again
+            return true;
+        }
+        for (String path : props.stringPropertyNames()) {
+            Entry entry = Entry.deserialize(props.getProperty(path));
+            if (entry != null) {
+                entries.putIfAbsent(path, entry);
+            }
+        }
+        return false;
+    }
+
+    private void storeCache(List<File> classFiles) {
+        if (cacheFile == null) {
+            return;
+        }
+        Properties props = new Properties();
+        for (File classFile : classFiles) {
+            String path = getRelativePath(classFile);
+            props.setProperty(path, entries.get(path).serialize());
+        }
+        File dir = cacheFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            LOG.debug("Cannot create directory {}", dir);
+            return;
+        }
+        try (OutputStream os = new FileOutputStream(cacheFile)) {
+            props.store(os, "Main classes below " + rootDir);
+        } catch (IOException e) {
+            LOG.debug("Cannot write main class cache {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    // Path below the scanned directory with '/' as separator, as used in the cache file
+    private String getRelativePath(File classFile) {
+        return classFile.getAbsolutePath().substring(prefix.length()).replace(File.separatorChar, '/');
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributesCount = in.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            in.skipBytes(2);
+            int length = in.readInt();
+            if (in.skipBytes(length) != length) {
+                throw new IOException("Truncated class file");
+            }
+        }
+    }
+
+    private static void collectClassFiles(List<File> classFiles, File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                if (!file.getName().startsWith(".")) {
+                    collectClassFiles(classFiles, file);
+                }
+            } else if (file.getName().endsWith(".class")) {
+                classFiles.add(file);
+            }
+        }
+    }
+
+    private static String convertToClass(String name, String prefix) {
+        String ret = name.replaceAll("[/\\\\]", ".");
+        ret = ret.substring(0, name.length() - ".class".length());
+        return ret.substring(prefix.length());
+    }
+
+    private static class Entry {
+        private final long length;
+        private final long lastModified;
+        private final boolean hasMain;
+
+        private Entry(long length, long lastModified, boolean hasMain) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hasMain = hasMain;
+        }
+
+        private boolean matches(File classFile) {
+            return length == classFile.length() && lastModified == classFile.lastModified();
+        }
+
+        private String serialize() {
+            return length + SEPARATOR + lastModified + SEPARATOR + hasMain;
+        }
+
+        private static Entry deserialize(String value) {
+            String[] parts = value.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Boolean.parseBoolean(parts[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -16,19 +16,19 @@
 package io.fabric8.maven.core.util;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
+import java.util.WeakHashMap;
 
 import com.google.common.base.Objects;
 import org.apache.commons.lang3.StringUtils;
@@ -52,19 +52,18 @@ public class MavenUtil {
 
     private static final String DEFAULT_CONFIG_FILE_NAME = "kubernetes.json";
 
+    // Names of the jar entries on the compile classpath, relative to the build directory
+    private static final String CLASSPATH_INDEX_FILE = "fabric8/classpath.idx";
+
+    // Classpath indexes together with the classpath they were created for, as long as a project instance is alive
+    private static final Map<MavenProject, Map.Entry<List<String>, ClasspathIndex>> CLASSPATH_INDEXES = new WeakHashMap<>();
+
     public static boolean isKubernetesJsonArtifact(String classifier, String type) {
         return "json".equals(type) && "kubernetes".equals(classifier);
     }
 
     public static boolean hasKubernetesJson(File f) throws IOException {
-        try (FileInputStream fis = new FileInputStream(f); JarInputStream jis = new JarInputStream(fis)) {
-            for (JarEntry entry = jis.getNextJarEntry(); entry != null; entry = jis.getNextJarEntry()) {
-                if (entry.getName().equals(DEFAULT_CONFIG_FILE_NAME)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return ClasspathIndex.hasEntry(f, DEFAULT_CONFIG_FILE_NAME);
     }
 
     public static URLClassLoader getCompileClassLoader(MavenProject project) {
@@ -197,54 +196,67 @@ public class MavenUtil {
     }
 
     /**
-     * Returns true if any of the given class names could be found on the given class loader
+     * Returns true if any of the given class names could be found on the compile classpath
      */
     public static boolean hasClass(MavenProject project, String ... classNames) {
-        URLClassLoader compileClassLoader = getCompileClassLoader(project);
+        ClasspathIndex index = getCompileClasspathIndex(project);
         for (String className : classNames) {
-            try {
-                compileClassLoader.loadClass(className);
+            if (index.hasClass(className)) {
                 return true;
-            } catch (Throwable e) {
-                // ignore
             }
         }
         return false;
     }
 
     /**
-     * Returns true if any of the given resources could be found on the given class loader
+     * Returns true if any of the given resources could be found on the compile classpath
      */
     public static boolean hasResource(MavenProject project, String... paths) {
-        URLClassLoader compileClassLoader = getCompileClassLoader(project);
+        ClasspathIndex index = getCompileClasspathIndex(project);
         for (String path : paths) {
-            try {
-                if (compileClassLoader.getResource(path) != null) {
-                    return true;
-                }
-            } catch (Throwable e) {
-                // ignore
+            if (index.hasResource(path)) {
+                return true;
             }
         }
         return false;
     }
 
     /**
-     * Returns true if all the given class names could be found on the given class loader
+     * Returns true if all the given class names could be found on the compile classpath
      */
     public static boolean hasAllClasses(MavenProject project, String ... classNames) {
-        URLClassLoader compileClassLoader = getCompileClassLoader(project);
+        ClasspathIndex index = getCompileClasspathIndex(project);
         for (String className : classNames) {
-            try {
-                compileClassLoader.loadClass(className);
-            } catch (Throwable e) {
-                // ignore message
+            if (!index.hasClass(className)) {
                 return false;
             }
         }
         return true;
     }
 
+    // Index of the compile classpath, which is created again only if the classpath changes
+    private static synchronized ClasspathIndex getCompileClasspathIndex(MavenProject project) {
+        List<String> classpath = new ArrayList<>();
+        classpath.add(project.getBuild().getOutputDirectory());
+        try {
+            List<String> elements = project.getCompileClasspathElements();
+            if (elements != null) {
+                classpath.addAll(elements);
+            }
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalArgumentException("Cannot resolve artifact from compile classpath", e);
+        }
+
+        Map.Entry<List<String>, ClasspathIndex> cached = CLASSPATH_INDEXES.get(project);
+        if (cached == null || !cached.getKey().equals(classpath)) {
+            String buildDir = project.getBuild().getDirectory();
+            File cacheFile = buildDir != null ? new File(buildDir, CLASSPATH_INDEX_FILE) : null;
+            cached = new AbstractMap.SimpleImmutableEntry<>(classpath, new ClasspathIndex(classpath, cacheFile));
+            CLASSPATH_INDEXES.put(project, cached);
+        }
+        return cached.getValue();
+    }
+
     /**
      * Returns the root maven project or null if there is no maven project
      */
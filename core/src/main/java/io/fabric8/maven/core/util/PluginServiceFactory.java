@@ -18,6 +18,7 @@ package io.fabric8.maven.core.util;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Constructor;
 import java.net.URL;
 import java.util.ArrayList;
@@ -26,6 +27,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -42,11 +45,19 @@ import java.util.regex.Pattern;
  * If a line starts with <code>!</code> it is removed if it has been added previously.
  * The optional second numeric value is the order in which the services are returned.
  *
+ * Descriptors are read and service classes are looked up only once per context class loader,
+ * subsequent factories only instantiate the services.
+ *
  * @author roland
  * @since 05.11.10
  */
 public final class PluginServiceFactory<C> {
 
+    // Service descriptors and constructors per context class loader, shared by all factories. The caches are
+    // only softly referenced as the cached constructors refer to the class loader, which would otherwise never
+    // become unreachable as a key of the weak map.
+    private static final Map<ClassLoader, SoftReference<ServiceCache>> serviceCaches = new WeakHashMap<>();
+
     private List<ClassLoader> additionalClassLoaders = new ArrayList<>();
 
     // Parameters for service constructors
@@ -75,9 +86,10 @@ public final class PluginServiceFactory<C> {
     public <T> List<T> createServiceObjects(String... descriptorPaths) {
         try {
             ServiceEntry.initDefaultOrder();
+            ServiceCache cache = getServiceCache();
             TreeMap<ServiceEntry,T> serviceMap = new TreeMap<ServiceEntry,T>();
             for (String descriptor : descriptorPaths) {
-                readServiceDefinitions(serviceMap, descriptor);
+                readServiceDefinitions(serviceMap, descriptor, cache);
             }
             ArrayList<T> ret = new ArrayList<T>();
             for (T service : serviceMap.values()) {
@@ -89,25 +101,58 @@ public final class PluginServiceFactory<C> {
         }
     }
 
-    private <T> void readServiceDefinitions(Map<ServiceEntry, T> extractorMap, String defPath) {
-        try {
-            for (String url : ClassUtil.getResources(defPath, additionalClassLoaders)) {
-                readServiceDefinitionFromUrl(extractorMap, url);
+    // Lookup the cache for the current context class loader. Additional class loaders (like the project's
+    // class loader) are created freshly for each usage, so a cache keyed on them would never be hit again.
+    private ServiceCache getServiceCache() {
+        if (!additionalClassLoaders.isEmpty()) {
+            return new ServiceCache();
+        }
+        synchronized (serviceCaches) {
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            SoftReference<ServiceCache> ref = serviceCaches.get(contextClassLoader);
+            ServiceCache cache = ref != null ? ref.get() : null;
+            if (cache == null) {
+                cache = new ServiceCache();
+                serviceCaches.put(contextClassLoader, new SoftReference<>(cache));
             }
-        } catch (IOException e) {
-            throw new IllegalStateException("Cannot load service from " + defPath + ": " + e, e);
+            return cache;
         }
     }
 
-    private <T> void readServiceDefinitionFromUrl(Map<ServiceEntry, T> extractorMap, String url) {
+    private <T> void readServiceDefinitions(Map<ServiceEntry, T> extractorMap, String defPath, ServiceCache cache) {
+        List<ServiceLine> lines = cache.descriptors.get(defPath);
+        if (lines == null) {
+            lines = new ArrayList<>();
+            try {
+                for (String url : ClassUtil.getResources(defPath, additionalClassLoaders)) {
+                    readServiceDefinitionFromUrl(lines, url);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load service from " + defPath + ": " + e, e);
+            }
+            cache.descriptors.put(defPath, lines);
+        }
+        for (ServiceLine line : lines) {
+            try {
+                createOrRemoveService(extractorMap, line.line, cache);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot load service " + line.line + " defined in " +
+                                                line.url + " : " + e + ". Aborting", e);
+            }
+        }
+    }
+
+    private void readServiceDefinitionFromUrl(List<ServiceLine> lines, String url) {
         String line = null;
         try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new URL(url).openStream(), "UTF8"))) {
             line = reader.readLine();
             while (line != null) {
-                createOrRemoveService(extractorMap, line);
+                if (line.length() > 0 && !COMMENT_LINE_PATTERN.matcher(line).matches()) {
+                    lines.add(new ServiceLine(url, line));
+                }
                 line = reader.readLine();
             }
-        } catch (ReflectiveOperationException|IOException e) {
+        } catch (IOException e) {
             throw new IllegalStateException("Cannot load service " + line + " defined in " +
                                             url + " : " + e + ". Aborting", e);
         }
@@ -116,37 +161,41 @@ public final class PluginServiceFactory<C> {
     // Matches comment lines and empty lines. these are skipped
     private static Pattern COMMENT_LINE_PATTERN = Pattern.compile("^(\\s*#.*|\\s*)$");
 
-    private synchronized  <T> void createOrRemoveService(Map<ServiceEntry, T> serviceMap, String line)
+    private synchronized  <T> void createOrRemoveService(Map<ServiceEntry, T> serviceMap, String line, ServiceCache cache)
         throws ReflectiveOperationException {
-        if (line.length() > 0 && !COMMENT_LINE_PATTERN.matcher(line).matches()) {
-            ServiceEntry entry = new ServiceEntry(line);
-            if (entry.isRemove()) {
-                // Removing is a bit complex since we need to find out
-                // the proper key since the order is part of equals/hash
-                // so we cant fetch/remove it directly
-                Set<ServiceEntry> toRemove = new HashSet<ServiceEntry>();
-                for (ServiceEntry key : serviceMap.keySet()) {
-                    if (key.getClassName().equals(entry.getClassName())) {
-                        toRemove.add(key);
-                    }
-                }
-                for (ServiceEntry key : toRemove) {
-                    serviceMap.remove(key);
+        ServiceEntry entry = new ServiceEntry(line);
+        if (entry.isRemove()) {
+            // Removing is a bit complex since we need to find out
+            // the proper key since the order is part of equals/hash
+            // so we cant fetch/remove it directly
+            Set<ServiceEntry> toRemove = new HashSet<ServiceEntry>();
+            for (ServiceEntry key : serviceMap.keySet()) {
+                if (key.getClassName().equals(entry.getClassName())) {
+                    toRemove.add(key);
                 }
-            } else {
-                Class<T> clazz = ClassUtil.classForName(entry.getClassName(), additionalClassLoaders);
-                if (clazz == null) {
-                    throw new ClassNotFoundException("Class " + entry.getClassName() + " could not be found");
-                }
-                Constructor<T> constructor = clazz.getConstructor(context.getClass());
-                if (constructor == null) {
-                    throw new IllegalArgumentException(
-                        "Internal Error: " + clazz + " does not have constructor (" + context.getClass() + ")");
-                }
-                T service = constructor.newInstance(context);
-                serviceMap.put(entry, service);
             }
+            for (ServiceEntry key : toRemove) {
+                serviceMap.remove(key);
+            }
+        } else {
+            Constructor<T> constructor = lookupConstructor(entry.getClassName(), cache);
+            T service = constructor.newInstance(context);
+            serviceMap.put(entry, service);
+        }
+    }
+
+    private <T> Constructor<T> lookupConstructor(String className, ServiceCache cache) throws ReflectiveOperationException {
+        String key = className + "(" + context.getClass().getName() + ")";
+        Constructor<T> constructor = (Constructor<T>) cache.constructors.get(key);
+        if (constructor == null) {
+            Class<T> clazz = ClassUtil.classForName(className, additionalClassLoaders);
+            if (clazz == null) {
+                throw new ClassNotFoundException("Class " + className + " could not be found");
+            }
+            constructor = clazz.getConstructor(context.getClass());
+            cache.constructors.put(key, constructor);
         }
+        return constructor;
     }
 
     public void addAdditionalClassLoader(ClassLoader classLoader) {
@@ -156,6 +205,22 @@ public final class PluginServiceFactory<C> {
 
     // =============================================================================
 
+    // Non-comment lines of all descriptors found for a path and the constructors of the services already created
+    private static class ServiceCache {
+        private final Map<String, List<ServiceLine>> descriptors = new ConcurrentHashMap<>();
+        private final Map<String, Constructor<?>> constructors = new ConcurrentHashMap<>();
+    }
+
+    private static class ServiceLine {
+        private final String url;
+        private final String line;
+
+        private ServiceLine(String url, String line) {
+            this.url = url;
+            this.line = line;
+        }
+    }
+
      static class ServiceEntry implements Comparable<ServiceEntry> {
         private String className;
         private boolean remove;
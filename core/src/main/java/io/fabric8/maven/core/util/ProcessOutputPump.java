@@ -0,0 +1,218 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Function;
+
+/**
+ * Reads the output of external processes line by line and hands the lines over to a handler.
+ *
+ * All registered streams are served by a single daemon thread which only reads what is available
+ * without blocking, so that the pipes of the child processes never run full. Lines longer than
+ * {@link #MAX_LINE_LENGTH} bytes are handed over in chunks, so the buffer per stream is bounded.
+ * The thread stops when no streams are left and is started again for new ones.
+ */
+public class ProcessOutputPump {
+
+    public static final int MAX_LINE_LENGTH = 8192;
+
+    private static final ProcessOutputPump INSTANCE = new ProcessOutputPump();
+
+    // Poll interval when no stream had any output, doubled up to the maximum while idle
+    private static final long MIN_IDLE_MILLIS = 5;
+    private static final long MAX_IDLE_MILLIS = 100;
+
+    private final List<PumpedStream> streams = new ArrayList<>();
+    private boolean running;
+
+    public static ProcessOutputPump getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start reading a stream of a process
+     *
+     * @param process the process writing to the stream
+     * @param stream stdout or stderr of the process
+     * @param lineHandler called with each line, without the line terminator
+     * @return handle for waiting until the stream has been read completely
+     */
+    public synchronized PumpedStream register(Process process, InputStream stream, Function<String, Void> lineHandler) {
+        PumpedStream pumped = new PumpedStream(process, stream, lineHandler);
+        streams.add(pumped);
+        if (!running) {
+            running = true;
+            Thread thread = new Thread("fabric8 process output") {
+                @Override
+                public void run() {
+                    pump();
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return pumped;
+    }
+
+    // ==========================================================================================
+
+    private void pump() {
+        byte[] buffer = new byte[MAX_LINE_LENGTH];
+        long idleMillis = MIN_IDLE_MILLIS;
+        while (true) {
+            List<PumpedStream> current;
+            synchronized (this) {
+                if (streams.isEmpty()) {
+                    running = false;
+                    return;
+                }
+                current = new ArrayList<>(streams);
+            }
+
+            boolean progress = false;
+            for (PumpedStream stream : current) {
+                progress |= stream.read(buffer);
+                if (stream.isFinished()) {
+                    synchronized (this) {
+                        streams.remove(stream);
+                    }
+                }
+            }
+
+            if (progress) {
+                idleMillis = MIN_IDLE_MILLIS;
+            } else {
+                try {
+                    Thread.sleep(idleMillis);
+                } catch (InterruptedException e) {
+                    // Daemon thread, keep on serving the registered streams
+                }
+                idleMillis = Math.min(idleMillis * 2, MAX_IDLE_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * A stream which is read by the pump
+     */
+    public static class PumpedStream {
+
+        private final Process process;
+        private final InputStream stream;
+        private final Function<String, Void> lineHandler;
+
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        // Set when the process was seen as terminated. All of its output is available to read afterwards.
+        private boolean processExited;
+
+        private PumpedStream(Process process, InputStream stream, Function<String, Void> lineHandler) {
+            this.process = process;
+            this.stream = stream;
+            this.lineHandler = lineHandler;
+        }
+
+        /**
+         * Wait until the stream has been read completely, which is the case shortly after the process terminated
+         *
+         * @param timeout how long to wait at most
+         * @param unit unit of the timeout
+         * @return true if the stream has been read completely, false if the timeout elapsed before
+         * @throws InterruptedException if interrupted while waiting
+         */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return finished.await(timeout, unit);
+        }
+
+        private boolean isFinished() {
+            return finished.getCount() == 0;
+        }
+
+        // Read the available output, returns true if there was some
+        private boolean read(byte[] buffer) {
+            try {
+                int available = stream.available();
+                if (available > 0) {
+                    int read = stream.read(buffer, 0, Math.min(available, buffer.length));
+                    if (read < 0) {
+                        finish();
+                        return false;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        append(buffer[i]);
+                    }
+                    return read > 0;
+                }
+                if (processExited) {
+                    finish();
+                } else if (!process.isAlive()) {
+                    processExited = true;
+                }
+                return false;
+            } catch (IOException e) {
+                // Stream has been closed, e.g. when the process got destroyed
+                finish();
+                return false;
+            }
+        }
+
+        private void append(byte b) {
+            if (b == '\n') {
+                emitLine();
+            } else {
+                line.write(b);
+                if (line.size() >= MAX_LINE_LENGTH) {
+                    emitLine();
+                }
+            }
+        }
+
+        private void emitLine() {
+            String text = new String(line.toByteArray(), Charset.defaultCharset());
+            line.reset();
+            if (text.endsWith("\r")) {
+                text = text.substring(0, text.length() - 1);
+            }
+            try {
+                lineHandler.apply(text);
+            } catch (RuntimeException e) {
+                // A failing handler must not stop the output of other processes
+            }
+        }
+
+        private void finish() {
+            if (line.size() > 0) {
+                emitLine();
+            }
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+            finished.countDown();
+        }
+    }
+}
@@ -15,15 +15,13 @@
  */
 package io.fabric8.maven.core.util;
 
-import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Function;
 import io.fabric8.maven.docker.util.Logger;
@@ -36,6 +34,9 @@ import static io.fabric8.maven.docker.util.EnvUtil.isWindows;
  */
 public class ProcessUtil {
 
+    // How long to wait for the remaining output after a process terminated
+    private static final long OUTPUT_DRAIN_TIMEOUT_SECONDS = 10;
+
     public static int runCommand(final Logger log, File command, List<String> args) throws IOException {
         return runCommand(log, command, args, false);
     }
@@ -50,16 +51,20 @@ public class ProcessUtil {
         if (withShutdownHook) {
             addShutdownHook(log, process, command);
         }
-        List<Thread> threads = startLoggingThreads(process, log, command.getName() + " " + StringUtils.join(args, " "), useStandardLoggingLevel);
-        return new ProcessExecutionContext(process, threads, log);
+        List<ProcessOutputPump.PumpedStream> outputs = startLogging(process, log, useStandardLoggingLevel);
+        return new ProcessExecutionContext(process, outputs, log);
     }
 
-    private static void joinThreads(List<Thread> threads, Logger log) {
-        for (Thread thread : threads) {
+    private static void awaitOutputs(List<ProcessOutputPump.PumpedStream> outputs, Logger log) {
+        for (ProcessOutputPump.PumpedStream output : outputs) {
             try {
-                thread.join();
+                if (!output.await(OUTPUT_DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("Output of process not read completely within %d seconds", OUTPUT_DRAIN_TIMEOUT_SECONDS);
+                }
             } catch (InterruptedException e) {
                 log.warn("Caught %s", e);
+                Thread.currentThread().interrupt();
+                return;
             }
         }
     }
@@ -147,15 +152,6 @@ public class ProcessUtil {
         return commandWithArgs;
     }
 
-    private static void processOutput(InputStream inputStream, Function<String, Void> function) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line = null;
-            while ((line = reader.readLine()) != null) {
-                function.apply(line);
-            }
-        }
-    }
-
     private static String canonicalPath(File file) {
         try {
             return file.getCanonicalPath();
@@ -189,43 +185,12 @@ public class ProcessUtil {
         return pathDirectories;
     }
 
-    private static List<Thread> startLoggingThreads(final Process process, final Logger log, final String commandDesc, boolean useStandardLoggingLevel) {
-        List<Thread> threads = new ArrayList<>();
-        threads.add(startOutputLoggingThread(process, log, commandDesc, useStandardLoggingLevel));
-        threads.add(startErrorLoggingThread(process, log, commandDesc, useStandardLoggingLevel));
-        return threads;
-    }
-
-    private static Thread startErrorLoggingThread(final Process process, final Logger log, final String commandDesc, final boolean useStandardLoggingLevel) {
-        Thread logThread = new Thread("[ERR] " + commandDesc) {
-            @Override
-            public void run() {
-                try {
-                    processOutput(process.getErrorStream(), createErrorHandler(log, useStandardLoggingLevel));
-                } catch (IOException e) {
-                    log.error("Failed to read error stream from %s : %s", commandDesc, e.getMessage());
-                }
-            }
-        };
-        logThread.setDaemon(true);
-        logThread.start();
-        return logThread;
-    }
-
-    private static Thread startOutputLoggingThread(final Process process, final Logger log, final String commandDesc, final boolean useStandardLoggingLevel) {
-        Thread logThread = new Thread("[OUT] " + commandDesc) {
-            @Override
-            public void run() {
-                try {
-                    processOutput(process.getInputStream(), createOutputHandler(log, useStandardLoggingLevel));
-                } catch (IOException e) {
-                    log.error("Failed to read output stream from %s : %s", commandDesc, e.getMessage());
-                }
-            }
-        };
-        logThread.setDaemon(true);
-        logThread.start();
-        return logThread;
+    private static List<ProcessOutputPump.PumpedStream> startLogging(Process process, Logger log, boolean useStandardLoggingLevel) {
+        ProcessOutputPump pump = ProcessOutputPump.getInstance();
+        List<ProcessOutputPump.PumpedStream> outputs = new ArrayList<>();
+        outputs.add(pump.register(process, process.getInputStream(), createOutputHandler(log, useStandardLoggingLevel)));
+        outputs.add(pump.register(process, process.getErrorStream(), createErrorHandler(log, useStandardLoggingLevel)));
+        return outputs;
     }
 
     private static Function<String, Void> createOutputHandler(final Logger log, final boolean useStandardLoggingLevel) {
@@ -265,20 +230,20 @@ public class ProcessUtil {
 
         private Process process;
 
-        private List<Thread> loggingThreads;
+        private List<ProcessOutputPump.PumpedStream> outputs;
 
         private Logger log;
 
-        public ProcessExecutionContext(Process process, List<Thread> loggingThreads, Logger log) {
+        public ProcessExecutionContext(Process process, List<ProcessOutputPump.PumpedStream> outputs, Logger log) {
             this.process = process;
-            this.loggingThreads = loggingThreads;
+            this.outputs = outputs;
             this.log = log;
         }
 
         public int await() {
             try {
                 int answer = process.waitFor();
-                joinThreads(loggingThreads, log);
+                awaitOutputs(outputs, log);
                 return answer;
             } catch (InterruptedException e) {
                 return process.exitValue();
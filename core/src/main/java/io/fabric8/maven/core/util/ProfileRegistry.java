@@ -0,0 +1,224 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.fabric8.maven.core.config.ProcessorConfig;
+import io.fabric8.maven.core.config.Profile;
+
+/**
+ * Registry holding all profiles which have been read from the classpath and from
+ * project directories. Every profile file is parsed only once: Classpath profiles are
+ * cached by their URL, project profiles by their path and modification time so that
+ * a changed file is picked up again (e.g. during <code>fabric8:watch</code>).
+ *
+ * The registry is shared by all mojos (and so by the generator, enricher and watcher managers)
+ * running within the same plugin realm. All profiles handed out are copies, so callers are free to
+ * modify them.
+ */
+public class ProfileRegistry {
+
+    private static final ProfileRegistry INSTANCE = new ProfileRegistry();
+
+    // Resource URLs of profile files per class loader and location
+    private final Map<ClassLoader, Map<String, Set<String>>> classpathIndex = new WeakHashMap<>();
+
+    // Parsed profiles per resource URL
+    private final Map<String, List<Profile>> classpathProfiles = new ConcurrentHashMap<>();
+
+    // Parsed profiles per project profile file
+    private final Map<File, ProfileFile> fileProfiles = new ConcurrentHashMap<>();
+
+    ProfileRegistry() { }
+
+    public static ProfileRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Find a profile by name and resolve the profiles it inherits from.
+     *
+     * @param name name of the profile
+     * @param directory directory to lookup a profile file (can be null)
+     * @return the profile found or null if no such profile exists
+     * @throws IOException if reading of a profile fails
+     * @throws IllegalArgumentException if a parent profile could not be found or the inheritance chain contains a cycle
+     */
+    public Profile find(String name, File directory) throws IOException {
+        Profile profile = lookup(name, directory);
+        if (profile != null) {
+            inheritFromParentProfiles(profile, directory, new LinkedHashSet<>(Collections.singleton(name)));
+        }
+        return profile;
+    }
+
+    /**
+     * Lookup a profile from a given directory and merge it with a profile of the
+     * same name found in the classpath. Inheritance is not resolved.
+     *
+     * @param name name of the profile to lookup
+     * @param directory directory to lookup (can be null)
+     * @return Profile found or null
+     * @throws IOException if reading of a profile fails
+     */
+    public Profile lookup(String name, File directory) throws IOException {
+        // Read all default profiles first, then merge in custom profiles found on the classpath
+        List<Profile> profiles = new ArrayList<>();
+        profiles.addAll(readAllFromClasspath(name, "default"));
+        profiles.addAll(readAllFromClasspath(name, ""));
+
+        File profileFile = ProfileUtil.findProfileYaml(directory);
+        if (profileFile != null) {
+            for (Profile profile : readFile(profileFile)) {
+                if (profile.getName().equals(name)) {
+                    profiles.add(new Profile(profile));
+                    break;
+                }
+            }
+        }
+        // "larger" orders are "earlier" in the list
+        Collections.sort(profiles, Collections.<Profile>reverseOrder());
+        return mergeProfiles(profiles);
+    }
+
+    /**
+     * Get all profiles of the given name found in the classpath.
+     *
+     * @param name name of the profile to lookup
+     * @param ext to use (e.g. 'default' for checking 'profile-default.yml'. Can also be null or empty.
+     * @return copies of all profiles with this name stored in files with this extension
+     * @throws IOException if reading of a profile fails
+     */
+    public List<Profile> readAllFromClasspath(String name, String ext) throws IOException {
+        List<Profile> ret = new ArrayList<>();
+        for (String location : ProfileUtil.getMetaInfProfilePaths(ext)) {
+            for (String url : getResources(location)) {
+                for (Profile profile : readUrl(url)) {
+                    if (name.equals(profile.getName())) {
+                        ret.add(new Profile(profile));
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Forget about all profiles read so far
+     */
+    public void clear() {
+        synchronized (classpathIndex) {
+            classpathIndex.clear();
+        }
+        classpathProfiles.clear();
+        fileProfiles.clear();
+    }
+
+    // ================================================================================
+
+    private void inheritFromParentProfiles(Profile profile, File directory, Set<String> seen) throws IOException {
+        String parentName = profile.getParentProfile();
+        if (parentName == null) {
+            return;
+        }
+        if (!seen.add(parentName)) {
+            throw new IllegalArgumentException("Cyclic profile inheritance: " + String.join(" -> ", seen) + " -> " + parentName);
+        }
+        Profile parent = lookup(parentName, directory);
+        if (parent == null) {
+            throw new IllegalArgumentException("No parent profile '" + parentName + "' defined");
+        }
+        inheritFromParentProfiles(parent, directory, seen);
+        profile.setEnricherConfig(ProcessorConfig.mergeProcessorConfigs(profile.getEnricherConfig(), parent.getEnricherConfig()));
+        profile.setGeneratorConfig(ProcessorConfig.mergeProcessorConfigs(profile.getGeneratorConfig(), parent.getGeneratorConfig()));
+        profile.setWatcherConfig(ProcessorConfig.mergeProcessorConfigs(profile.getWatcherConfig(), parent.getWatcherConfig()));
+    }
+
+    private Profile mergeProfiles(List<Profile> profiles) {
+        Profile ret = null;
+        for (Profile profile : profiles) {
+            if (profile != null) {
+                if (ret == null) {
+                    ret = new Profile(profile);
+                } else {
+                    ret = new Profile(ret, profile);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private Set<String> getResources(String location) throws IOException {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Map<String, Set<String>> index;
+        synchronized (classpathIndex) {
+            index = classpathIndex.computeIfAbsent(contextClassLoader, cl -> new ConcurrentHashMap<>());
+        }
+        Set<String> ret = index.get(location);
+        if (ret == null) {
+            ret = ClassUtil.getResources(location);
+            index.put(location, ret);
+        }
+        return ret;
+    }
+
+    private List<Profile> readUrl(String url) throws IOException {
+        List<Profile> ret = classpathProfiles.get(url);
+        if (ret == null) {
+            try (InputStream is = new URL(url).openStream()) {
+                ret = ProfileUtil.fromYaml(is);
+            }
+            classpathProfiles.put(url, ret);
+        }
+        return ret;
+    }
+
+    private List<Profile> readFile(File file) throws IOException {
+        File key = file.getAbsoluteFile();
+        long lastModified = key.lastModified();
+        ProfileFile cached = fileProfiles.get(key);
+        if (cached == null || cached.lastModified != lastModified) {
+            try (InputStream is = new FileInputStream(key)) {
+                cached = new ProfileFile(lastModified, ProfileUtil.fromYaml(is));
+            }
+            fileProfiles.put(key, cached);
+        }
+        return cached.profiles;
+    }
+
+    private static class ProfileFile {
+        private final long lastModified;
+        private final List<Profile> profiles;
+
+        private ProfileFile(long lastModified, List<Profile> profiles) {
+            this.lastModified = lastModified;
+            this.profiles = profiles;
+        }
+    }
+}
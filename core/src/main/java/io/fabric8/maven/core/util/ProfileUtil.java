@@ -16,12 +16,9 @@
 package io.fabric8.maven.core.util;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -55,7 +52,8 @@ public class ProfileUtil {
     public static final String DEFAULT_PROFILE = "default";
 
     /**
-     * Find a profile. Profiles are looked up at various locations:
+     * Find a profile and resolve the profiles it inherits from. Profiles are read only once
+     * and kept in the {@link ProfileRegistry}. Profiles are looked up at various locations:
      *
      * <ul>
      *     <li>A given directory with the name profiles.yml (and variations, {@link #findProfile(String, File)}</li>
@@ -68,10 +66,9 @@ public class ProfileUtil {
     public static Profile findProfile(String profileArg, File resourceDir) throws IOException {
         try {
             String profile = profileArg == null ? DEFAULT_PROFILE : profileArg;
-            Profile profileFound = lookup(profile, resourceDir);
+            Profile profileFound = ProfileRegistry.getInstance().find(profile, resourceDir);
             if (profileFound != null) {
                 if(profileFound.getParentProfile() != null) {
-                    profileFound = inheritFromParentProfile(profileFound, resourceDir);
                     log.info(profileFound + " inheriting resources from " + profileFound.getParentProfile());
                 }
                 return profileFound;
@@ -83,18 +80,6 @@ public class ProfileUtil {
         }
     }
 
-    private static Profile inheritFromParentProfile(Profile aProfile, File resourceDir) throws IOException {
-        Profile aParentProfile = lookup(aProfile.getParentProfile(), resourceDir);
-        if(aParentProfile != null) {
-            aProfile.setEnricherConfig(ProcessorConfig.mergeProcessorConfigs(aProfile.getEnricherConfig(), aParentProfile.getEnricherConfig()));
-            aProfile.setGeneratorConfig(ProcessorConfig.mergeProcessorConfigs(aProfile.getGeneratorConfig(), aParentProfile.getGeneratorConfig()));
-            aProfile.setWatcherConfig(ProcessorConfig.mergeProcessorConfigs(aProfile.getWatcherConfig(), aParentProfile.getWatcherConfig()));
-        } else {
-            throw new IllegalArgumentException("No parent profile '" + aProfile.getParentProfile() + "' defined");
-        }
-        return aProfile;
-    }
-
     /**
      * Find an enricher or generator config, possibly via a profile and merge it with a given configuration.
      *
@@ -126,22 +111,7 @@ public class ProfileUtil {
      * @throws IOException if somethings fails during lookup
      */
     public static Profile lookup(String name, File directory) throws IOException {
-        // First check from the classpath, these profiles are used as a basis
-        List<Profile> profiles = readProfileFromClasspath(name);
-
-        File profileFile = findProfileYaml(directory);
-        if (profileFile != null) {
-            List<Profile> fileProfiles = fromYaml(new FileInputStream(profileFile));
-            for (Profile profile : fileProfiles) {
-                if (profile.getName().equals(name)) {
-                    profiles.add(profile);
-                    break;
-                }
-            }
-        }
-        // "larger" orders are "earlier" in the list
-        Collections.sort(profiles, Collections.<Profile>reverseOrder());
-        return mergeProfiles(profiles);
+        return ProfileRegistry.getInstance().lookup(name, directory);
     }
 
     private static ProcessorConfig extractProcesssorConfiguration(ProcessorConfigurationExtractor extractor,
@@ -152,28 +122,6 @@ public class ProfileUtil {
     }
 
 
-    private static Profile mergeProfiles(List<Profile> profiles) {
-        Profile ret = null;
-        for (Profile profile : profiles) {
-            if (profile != null) {
-                if (ret == null) {
-                    ret = new Profile(profile);
-                } else {
-                    ret = new Profile(ret, profile);
-                }
-            }
-        }
-        return ret;
-    }
-
-    // Read all default profiles first, then merge in custom profiles found on the classpath
-    private static List<Profile> readProfileFromClasspath(String name) throws IOException {
-        List<Profile> ret = new ArrayList<>();
-        ret.addAll(readAllFromClasspath(name, "default"));
-        ret.addAll(readAllFromClasspath(name, ""));
-        return ret;
-    }
-
     /**
      * Read all profiles found in the classpath.
      *
@@ -184,23 +132,16 @@ public class ProfileUtil {
      * @throws IOException if reading of a profile fails
      */
     public static List<Profile> readAllFromClasspath(String name, String ext) throws IOException {
-        List<Profile > ret = new ArrayList<>();
-        for (String location : getMetaInfProfilePaths(ext)) {
-            for (String url : ClassUtil.getResources(location)) {
-                for (Profile profile : fromYaml(new URL(url).openStream())) {
-                    if (name.equals(profile.getName())) {
-                        ret.add(profile);
-                    }
-                }
-            }
-        }
-        return ret;
+        return ProfileRegistry.getInstance().readAllFromClasspath(name, ext);
     }
 
     // ================================================================================
 
     // check for various variations of profile files
-    private static File findProfileYaml(File directory) {
+    static File findProfileYaml(File directory) {
+        if (directory == null) {
+            return null;
+        }
         for (String profileFile : PROFILE_FILENAMES) {
             File ret = new File(directory, String.format(profileFile, ""));
             if (ret.exists()) {
@@ -211,7 +152,7 @@ public class ProfileUtil {
     }
 
     // prepend meta-inf location
-    private static List<String> getMetaInfProfilePaths(String ext) {
+    static List<String> getMetaInfProfilePaths(String ext) {
         List<String> ret = new ArrayList<>(PROFILE_FILENAMES.length);
         for (String p : PROFILE_FILENAMES) {
             ret.add("META-INF/fabric8/" + getProfileFileName(p,ext));
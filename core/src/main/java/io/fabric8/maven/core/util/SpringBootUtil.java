@@ -15,17 +15,25 @@
  */
 package io.fabric8.maven.core.util;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.SortedMap;
+import java.util.WeakHashMap;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,17 +46,17 @@ public class SpringBootUtil {
 
     private static final transient Logger LOG = LoggerFactory.getLogger(SpringBootUtil.class);
 
+    // Compile class loaders and parsed configuration files, as long as a project instance is alive
+    private static final Map<MavenProject, ProjectResources> PROJECT_RESOURCES = new WeakHashMap<>();
+
     /**
      * Returns the spring boot configuration (supports `application.properties` and `application.yml`)
      * or an empty properties object if not found
      */
     public static Properties getSpringBootApplicationProperties(MavenProject project) {
-        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
-        URL ymlResource = compileClassLoader.findResource("application.yml");
-        URL propertiesResource = compileClassLoader.findResource("application.properties");
-
-        Properties props = getPropertiesFromYamlResource(ymlResource);
-        props.putAll(getPropertiesResource(propertiesResource));
+        ProjectResources resources = getProjectResources(project);
+        Properties props = resources.getProperties("application.yml", true);
+        props.putAll(resources.getProperties("application.properties", false));
         return props;
     }
 
@@ -56,9 +64,7 @@ public class SpringBootUtil {
      * Returns the given properties file on the project classpath if found or an empty properties object if not
      */
     public static Properties getPropertiesFile(MavenProject project, String propertiesFileName) {
-        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
-        URL resource = compileClassLoader.findResource(propertiesFileName);
-        return getPropertiesResource(resource);
+        return getProjectResources(project).getProperties(propertiesFileName, false);
     }
 
     /**
@@ -80,9 +86,7 @@ public class SpringBootUtil {
      * Returns a {@code Properties} representation of the given Yaml file on the project classpath if found or an empty properties object if not
      */
     public static Properties getPropertiesFromYamlFile(MavenProject project, String yamlFileName) {
-        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
-        URL resource = compileClassLoader.findResource(yamlFileName);
-        return getPropertiesFromYamlResource(resource);
+        return getProjectResources(project).getProperties(yamlFileName, true);
     }
 
     /**
@@ -125,6 +129,31 @@ public class SpringBootUtil {
         return MavenUtil.getDependencyVersion(mavenProject, SpringBootConfigurationHelper.SPRING_BOOT_GROUP_ID, SpringBootConfigurationHelper.SPRING_BOOT_ARTIFACT_ID);
     }
 
+    // Get the cached class loader and configuration files of a project, creating a new class loader
+    // if the compile classpath changed
+    private static synchronized ProjectResources getProjectResources(MavenProject project) {
+        List<String> classpath = new ArrayList<>();
+        try {
+            List<String> elements = project.getCompileClasspathElements();
+            if (elements != null) {
+                classpath.addAll(elements);
+            }
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalArgumentException("Cannot resolve artifact from compile classpath", e);
+        }
+        classpath.add(project.getBuild().getOutputDirectory());
+
+        ProjectResources resources = PROJECT_RESOURCES.get(project);
+        if (resources == null || !resources.classpath.equals(classpath)) {
+            if (resources != null) {
+                resources.close();
+            }
+            resources = new ProjectResources(classpath, MavenUtil.getCompileClassLoader(project));
+            PROJECT_RESOURCES.put(project, resources);
+        }
+        return resources;
+    }
+
     /**
      * Build a flattened representation of the Yaml tree. The conversion is compliant with the spring-boot rules.
      */
@@ -175,4 +204,61 @@ public class SpringBootUtil {
         }
     }
 
+    private static class ProjectResources {
+
+        private final List<String> classpath;
+        private final URLClassLoader classLoader;
+
+        // Parsed resources by name, together with the URL, modification time and size they were read from
+        private final Map<String, CachedProperties> cache = new HashMap<>();
+
+        private ProjectResources(List<String> classpath, URLClassLoader classLoader) {
+            this.classpath = classpath;
+            this.classLoader = classLoader;
+        }
+
+        private synchronized Properties getProperties(String name, boolean yaml) {
+            // Looked up each time so that files created or removed in the meantime are noticed
+            URL resource = classLoader.findResource(name);
+            String url = resource != null ? resource.toExternalForm() : null;
+            // Resources within jars are considered to be unchanged during a build
+            File file = resource != null && "file".equals(resource.getProtocol()) ? FileUtils.toFile(resource) : null;
+            long lastModified = file != null ? file.lastModified() : 0;
+            long length = file != null ? file.length() : 0;
+
+            CachedProperties cached = cache.get(name);
+            if (cached == null || !Objects.equals(cached.url, url) ||
+                cached.lastModified != lastModified || cached.length != length) {
+                Properties properties = yaml ? getPropertiesFromYamlResource(resource) : getPropertiesResource(resource);
+                cached = new CachedProperties(url, lastModified, length, properties);
+                cache.put(name, cached);
+            }
+            // Callers are free to modify the returned properties
+            Properties ret = new Properties();
+            ret.putAll(cached.properties);
+            return ret;
+        }
+
+        private void close() {
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                LOG.debug("Cannot close class loader", e);
+            }
+        }
+    }
+
+    private static class CachedProperties {
+        private final String url;
+        private final long lastModified;
+        private final long length;
+        private final Properties properties;
+
+        private CachedProperties(String url, long lastModified, long length, Properties properties) {
+            this.url = url;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.properties = properties;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util.kubernetes;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Resolves the URLs under which services are exposed, as set by the expose controller in the
+ * annotation <code>fabric8.io/exposeUrl</code>.
+ *
+ * A single watch is opened on the services of the namespace, so that the resolution completes
+ * as soon as any of the given services gets its URL instead of polling service by service.
+ *
+ * Subclasses can override {@link #isExposed(Service)} and {@link #getUrl(Service)} to change
+ * which services are exposed and where their URLs come from.
+ */
+public class ServiceExposeUrlResolver {
+
+    private final KubernetesClient kubernetes;
+    private final String namespace;
+    private final Logger log;
+
+    public ServiceExposeUrlResolver(KubernetesClient kubernetes, String namespace, Logger log) {
+        this.kubernetes = kubernetes;
+        this.namespace = namespace;
+        this.log = log;
+    }
+
+    /**
+     * Get the expose URLs of the services contained in the given entities. If none of the services has an URL yet,
+     * wait until the first one of them gets one, but only if any service is labeled to be exposed at all.
+     *
+     * @param entities entities containing the services to look up. Other entities are ignored.
+     * @param waitSeconds how many seconds to wait at most for the first URL
+     * @return map from service name to URL, in the order of the given entities. Empty if no service is exposed.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Map<String, String> resolve(Collection<HasMetadata> entities, long waitSeconds) throws InterruptedException {
+        Map<String, Service> services = new LinkedHashMap<>();
+        boolean waitForExpose = false;
+        for (HasMetadata entity : entities) {
+            if (entity instanceof Service) {
+                Service service = (Service) entity;
+                services.put(KubernetesHelper.getName(service), service);
+                waitForExpose |= isExposed(service);
+            }
+        }
+        if (services.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        final Map<String, String> urls = new ConcurrentHashMap<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Watch watch = null;
+        if (waitForExpose && waitSeconds > 0) {
+            watch = watchServices(urls, services.keySet(), latch);
+        }
+        try {
+            // Services which already got their URL before the watch has been opened
+            for (String name : services.keySet()) {
+                addUrl(urls, services.keySet(), kubernetes.services().inNamespace(namespace).withName(name).get());
+            }
+            if (watch != null && urls.isEmpty()) {
+                latch.await(waitSeconds, TimeUnit.SECONDS);
+            }
+        } finally {
+            if (watch != null) {
+                watch.close();
+            }
+        }
+
+        Map<String, String> ret = new LinkedHashMap<>();
+        for (String name : services.keySet()) {
+            String url = urls.get(name);
+            if (url != null) {
+                ret.put(name, url);
+            }
+        }
+        return ret;
+    }
+
+    // Watch for services getting their URL. If the watch cannot be opened, only the URLs which are already
+    // known are looked up.
+    private Watch watchServices(final Map<String, String> urls, final Collection<String> names, final CountDownLatch latch) {
+        try {
+            return kubernetes.services().inNamespace(namespace).watch(new Watcher<Service>() {
+                @Override
+                public void eventReceived(Action action, Service service) {
+                    if (action != Action.DELETED && addUrl(urls, names, service)) {
+                        latch.countDown();
+                    }
+                }
+
+                @Override
+                public void onClose(KubernetesClientException cause) {
+                    if (cause != null) {
+                        log.debug("Watch for service URLs closed: %s", cause.getMessage());
+                    }
+                    latch.countDown();
+                }
+            });
+        } catch (KubernetesClientException e) {
+            log.warn("Cannot watch the services for their exposed URLs: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Whether to wait for a service to get its URL, which is the case for services labeled to be exposed
+     *
+     * @param service service to check
+     * @return true if the service is going to be exposed
+     */
+    protected boolean isExposed(Service service) {
+        return isExposeService(service);
+    }
+
+    /**
+     * Get the URL a service is exposed under, which is taken from the annotation set by the expose controller
+     *
+     * @param service service to check
+     * @return the URL or null if the service has not been exposed (yet)
+     */
+    protected String getUrl(Service service) {
+        return getExposeUrl(service);
+    }
+
+    /**
+     * Get the URL a service is exposed under
+     *
+     * @param service service to check
+     * @return the URL or null if the service has not been exposed
+     */
+    public static String getExposeUrl(Service service) {
+        String url = KubernetesHelper.getOrCreateAnnotations(service).get(Fabric8Annotations.SERVICE_EXPOSE_URL.value());
+        return StringUtils.isNotBlank(url) ? url : null;
+    }
+
+    /**
+     * Whether a service is labeled to be exposed by the expose controller
+     *
+     * @param service service to check
+     * @return true if the service has a label <code>expose=true</code>
+     */
+    public static boolean isExposeService(Service service) {
+        String expose = KubernetesHelper.getLabels(service).get("expose");
+        return expose != null && expose.toLowerCase().equals("true");
+    }
+
+    private boolean addUrl(Map<String, String> urls, Collection<String> names, Service service) {
+        if (service == null) {
+            return false;
+        }
+        String name = KubernetesHelper.getName(service);
+        String url = getUrl(service);
+        if (url != null && names.contains(name)) {
+            urls.put(name, url);
+            return true;
+        }
+        return false;
+    }
+}
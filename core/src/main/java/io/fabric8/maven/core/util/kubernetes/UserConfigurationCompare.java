@@ -19,8 +19,12 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -42,6 +46,16 @@ public class UserConfigurationCompare {
 
     protected static final Set<String> ignoredProperties = new HashSet<>(Collections.singletonList("status"));
 
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    // Read accessors of all compared properties, looked up only once per class
+    private static final ClassValue<List<PropertyAccessor>> propertyAccessors = new ClassValue<List<PropertyAccessor>>() {
+        @Override
+        protected List<PropertyAccessor> computeValue(Class<?> clazz) {
+            return lookupPropertyAccessors(clazz);
+        }
+    };
+
 
     /**
      * This method detects if the user has changed the configuration of an entity.
@@ -120,28 +134,16 @@ public class UserConfigurationCompare {
      * This method will ignore properties {@link #ignoredProperties} such as status or timestamp properties
      */
     protected static boolean configEqualKubernetesDTO(@NotNull Object entity1, @NotNull Object entity2, @NotNull Class<?> clazz) {
-        // lets iterate through the objects making sure we've not
-        BeanInfo beanInfo = null;
-        try {
-            beanInfo = Introspector.getBeanInfo(clazz);
-        } catch (IntrospectionException e) {
-            LOG.warn("Failed to get beanInfo for " + clazz.getName() + ". " + e, e);
+        List<PropertyAccessor> accessors = propertyAccessors.get(clazz);
+        if (accessors == null) {
             return false;
         }
         try {
-            PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                String name = propertyDescriptor.getName();
-                if (ignoredProperties.contains(name)) {
-                    continue;
-                }
-                Method readMethod = propertyDescriptor.getReadMethod();
-                if (readMethod != null) {
-                    Object value1 = invokeMethod(entity1, readMethod);
-                    Object value2 = invokeMethod(entity2, readMethod);
-                    if (value1 != null && value2 != null && !configEqual(value1, value2)) {
-                        return false;
-                    }
+            for (PropertyAccessor accessor : accessors) {
+                Object value1 = accessor.get(entity1);
+                Object value2 = accessor.get(entity2);
+                if (value1 != null && value2 != null && !configEqual(value1, value2)) {
+                    return false;
                 }
             }
             return true;
@@ -150,6 +152,10 @@ public class UserConfigurationCompare {
         }
     }
 
+    /**
+     * Invoke a read method reflectively. Comparisons use the cached property accessors instead, this is kept
+     * for subclasses.
+     */
     protected static Object invokeMethod(@NotNull Object entity, Method readMethod) throws InvocationTargetException, IllegalAccessException {
         try {
             return readMethod.invoke(entity);
@@ -159,6 +165,42 @@ public class UserConfigurationCompare {
         }
     }
 
+    private static List<PropertyAccessor> lookupPropertyAccessors(Class<?> clazz) {
+        BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(clazz);
+        } catch (IntrospectionException e) {
+            LOG.warn("Failed to get beanInfo for " + clazz.getName() + ". " + e, e);
+            return null;
+        }
+        List<PropertyAccessor> ret = new ArrayList<>();
+        for (PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
+            String name = propertyDescriptor.getName();
+            Method readMethod = propertyDescriptor.getReadMethod();
+            if (readMethod != null && !ignoredProperties.contains(name)) {
+                try {
+                    ret.add(new PropertyAccessor(readMethod, unreflect(readMethod)));
+                } catch (IllegalAccessException e) {
+                    LOG.warn("Cannot access method " + readMethod + ". " + e, e);
+                    return null;
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            // e.g. public methods declared in a non-public class
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+        }
+        return handle.asType(ACCESSOR_TYPE);
+    }
+
     protected static boolean configEqualObjectMeta(ObjectMeta entity1, ObjectMeta entity2) {
         if (entity1 == entity2) {
             return true;
@@ -223,6 +265,27 @@ public class UserConfigurationCompare {
     }
 
 
+    private static class PropertyAccessor {
+        private final Method readMethod;
+        private final MethodHandle handle;
+
+        private PropertyAccessor(Method readMethod, MethodHandle handle) {
+            this.readMethod = readMethod;
+            this.handle = handle;
+        }
+
+        Object get(Object entity) throws Exception {
+            try {
+                return (Object) handle.invokeExact(entity);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                LOG.warn("Failed to invoke method " + readMethod + " on " + entity + ". " + e, e);
+                throw e instanceof Exception ? (Exception) e : new IllegalStateException(e);
+            }
+        }
+    }
+
     protected static int size(Map map) {
         return (map == null) ? 0 : map.size();
     }
@@ -24,7 +24,14 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
@@ -50,6 +57,15 @@ import org.json.JSONObject;
 public class ResourceValidator {
 
     public static final String SCHEMA_JSON = "/schema/kube-validation-schema.json";
+
+    // Bundled schema (as string) per schema URL
+    private static final Map<URI, String> SCHEMA_SOURCES = new ConcurrentHashMap<>();
+
+    // Compiled schemas per schema URL and resource kind
+    private static final Map<String, JsonSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
     private Logger log;
     private File resources[];
     private ResourceClassifier target = ResourceClassifier.KUBERNETES;
@@ -98,24 +114,74 @@ public class ResourceValidator {
      * @throws IOException
      */
     public int validate() throws ConstraintViolationException, IOException {
+        final List<File> files = new ArrayList<>();
         for(File resource: resources) {
             if (resource.isFile() && resource.exists()) {
+                files.add(resource);
+            }
+        }
+
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            for (File file : files) {
+                validate(file);
+            }
+        } else {
+            validateInParallel(files, threads);
+        }
+
+        return resources.length;
+    }
+
+    // Validate all files concurrently. If files are invalid, the error of the first one (in directory order) is thrown
+    private void validateInParallel(List<File> files, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (final File file : files) {
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        validate(file);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
                 try {
-                    log.info("validating %s resource", resource.toString());
-                    JsonNode inputSpecNode = geFileContent(resource);
-                    String kind = inputSpecNode.get("kind").toString();
-                    JsonSchema schema = getJsonSchema(prepareSchemaUrl(SCHEMA_JSON), kind);
-                    Set<ValidationMessage> errors = schema.validate(inputSpecNode);
-                    processErrors(errors, resource);
-                } catch (JSONException e) {
-                    throw new ConstraintViolationException(e.getMessage(), new HashSet<ConstraintViolationImpl>());
-                } catch (URISyntaxException e) {
-                    throw new IOException(e);
+                    result.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while validating resources", e);
                 }
             }
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        return resources.length;
+    private void validate(File resource) throws IOException {
+        try {
+            log.info("validating %s resource", resource.toString());
+            JsonNode inputSpecNode = geFileContent(resource);
+            String kind = inputSpecNode.get("kind").toString();
+            JsonSchema schema = getJsonSchema(prepareSchemaUrl(SCHEMA_JSON), kind);
+            Set<ValidationMessage> errors = schema.validate(inputSpecNode);
+            processErrors(errors, resource);
+        } catch (JSONException e) {
+            throw new ConstraintViolationException(e.getMessage(), new HashSet<ConstraintViolationImpl>());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
     }
 
     private void processErrors(Set<ValidationMessage> errors, File resource) {
@@ -153,13 +219,28 @@ public class ResourceValidator {
         return  validationError.toString();
     }
 
+    // Schemas are compiled only once per kind, as parsing the whole bundled schema is expensive
     private JsonSchema getJsonSchema(URI schemaUrl, String kind) throws IOException {
         checkIfKindPropertyExists(kind);
-        JsonSchemaFactory factory = new JsonSchemaFactory();
-        JSONObject jsonSchema = getSchemaJson(schemaUrl);
-        getResourceProperties(kind, jsonSchema);
+        String key = schemaUrl + "#" + kind;
+        JsonSchema schema = SCHEMAS.get(key);
+        if (schema == null) {
+            JsonSchemaFactory factory = new JsonSchemaFactory();
+            JSONObject jsonSchema = new JSONObject(getSchemaJsonString(schemaUrl));
+            getResourceProperties(kind, jsonSchema);
+            schema = factory.getSchema(jsonSchema.toString());
+            SCHEMAS.put(key, schema);
+        }
+        return schema;
+    }
 
-        return factory.getSchema(jsonSchema.toString());
+    private static String getSchemaJsonString(URI schemaUrl) throws IOException {
+        String ret = SCHEMA_SOURCES.get(schemaUrl);
+        if (ret == null) {
+            ret = readSchemaJson(schemaUrl).toString();
+            SCHEMA_SOURCES.put(schemaUrl, ret);
+        }
+        return ret;
     }
 
     private void getResourceProperties(String kind, JSONObject jsonSchema) {
@@ -180,12 +261,15 @@ public class ResourceValidator {
 
     private JsonNode geFileContent(File file) throws IOException {
         try (InputStream resourceStream = new FileInputStream(file)) {
-            ObjectMapper jsonMapper = new ObjectMapper(new YAMLFactory());
-            return jsonMapper.readTree(resourceStream);
+            return YAML_MAPPER.readTree(resourceStream);
         }
     }
 
     public JSONObject getSchemaJson(URI schemaUrl) throws IOException {
+        return readSchemaJson(schemaUrl);
+    }
+
+    private static JSONObject readSchemaJson(URI schemaUrl) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
         String rootNode = objectMapper.readValue(schemaUrl.toURL(), JsonNode.class).toString();
         JSONObject jsonObject = new JSONObject(rootNode);
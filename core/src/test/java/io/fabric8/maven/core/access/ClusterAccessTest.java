@@ -20,6 +20,7 @@ import java.util.List;
 
 import io.fabric8.kubernetes.api.model.RootPaths;
 import io.fabric8.kubernetes.client.Client;
+import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.docker.util.Logger;
@@ -32,6 +33,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(JMockit.class)
@@ -92,6 +95,37 @@ public class ClusterAccessTest {
         assertEquals(PlatformMode.kubernetes, mode);
     }
 
+    @Test
+    public void sharedClientAndCachedDiscovery() throws Exception {
+        paths.add("/oapi");
+        paths.add("/oapi/v1");
+
+        RootPaths rootpaths = new RootPaths();
+
+        rootpaths.setPaths(paths);
+
+        mockServer.expect().get().withPath("/" ).andReturn(200, rootpaths).once();
+
+        System.setProperty(Config.KUBERNETES_MASTER_SYSTEM_PROPERTY, mockServer.url("/"));
+        System.setProperty(Config.KUBERNETES_AUTH_TRYKUBECONFIG_SYSTEM_PROPERTY, "false");
+        System.setProperty(Config.KUBERNETES_AUTH_TRYSERVICEACCOUNT_SYSTEM_PROPERTY, "false");
+        try {
+            ClusterAccess first = new ClusterAccess("shared");
+            ClusterAccess second = new ClusterAccess("shared");
+
+            assertSame(first.createKubernetesClient(), second.createKubernetesClient());
+            assertNotSame(first.createKubernetesClient(), new ClusterAccess("other").createKubernetesClient());
+
+            assertTrue(first.isOpenShift(logger));
+            assertTrue(second.isOpenShift(logger));
+            assertEquals(1, mockServer.getRequestCount());
+        } finally {
+            System.clearProperty(Config.KUBERNETES_MASTER_SYSTEM_PROPERTY);
+            System.clearProperty(Config.KUBERNETES_AUTH_TRYKUBECONFIG_SYSTEM_PROPERTY);
+            System.clearProperty(Config.KUBERNETES_AUTH_TRYSERVICEACCOUNT_SYSTEM_PROPERTY);
+        }
+    }
+
     @Test
     @Ignore("Ignored as long as the kubernetes client not update with the fix https://github.com/fabric8io/kubernetes-client/pull/1209")
     public void createClientTestOpenshift() throws Exception {
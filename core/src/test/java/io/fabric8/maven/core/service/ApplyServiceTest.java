@@ -0,0 +1,228 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.ServiceListBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.maven.docker.util.Logger;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static io.fabric8.maven.core.service.ApplyService.ApplyTier.CONFIGURATION;
+import static io.fabric8.maven.core.service.ApplyService.ApplyTier.CONTROLLERS;
+import static io.fabric8.maven.core.service.ApplyService.ApplyTier.NAMESPACES;
+import static io.fabric8.maven.core.service.ApplyService.ApplyTier.SERVICES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JMockit.class)
+public class ApplyServiceTest {
+
+    @Mocked
+    Logger log;
+
+    KubernetesMockServer mockServer = new KubernetesMockServer(false);
+
+    @Test
+    public void groupByApplyTier() {
+        List<HasMetadata> entities = createEntities();
+
+        Map<ApplyService.ApplyTier, List<HasMetadata>> tiers = ApplyService.groupByApplyTier(entities);
+
+        assertEquals(Arrays.asList(NAMESPACES, CONFIGURATION, SERVICES, CONTROLLERS), new ArrayList<>(tiers.keySet()));
+        assertEquals(1, tiers.get(NAMESPACES).size());
+        assertEquals(2, tiers.get(CONFIGURATION).size());
+        assertEquals(1, tiers.get(SERVICES).size());
+        assertEquals(1, tiers.get(CONTROLLERS).size());
+    }
+
+    @Test
+    public void applyEntitiesInParallel() throws Exception {
+        List<HasMetadata> entities = createEntities();
+        mockServer.expect().post().withPath("/api/v1/namespaces").andReturn(201, entities.get(4)).always();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/configmaps").andReturn(201, entities.get(2)).once();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/secrets").andReturn(201, entities.get(3)).once();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/services").andReturn(201, entities.get(1)).once();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/pods").andReturn(201, entities.get(0)).once();
+
+        KubernetesClient client = mockServer.createClient();
+        ApplyService applyService = new ApplyService(client, log);
+        applyService.setNamespace("test");
+        applyService.setApplyThreads(4);
+
+        applyService.applyEntities(entities, "test.yml");
+
+        List<String> creations = new ArrayList<>();
+        int requestCount = mockServer.getRequestCount();
+        for (int i = 0; i < requestCount; i++) {
+            RecordedRequest request = mockServer.takeRequest();
+            if ("POST".equals(request.getMethod())) {
+                creations.add(request.getPath());
+            }
+        }
+        assertEquals("/api/v1/namespaces", creations.get(0));
+        assertTrue(creations.indexOf("/api/v1/namespaces/test/configmaps") < creations.indexOf("/api/v1/namespaces/test/services"));
+        assertTrue(creations.indexOf("/api/v1/namespaces/test/secrets") < creations.indexOf("/api/v1/namespaces/test/services"));
+        assertTrue(creations.indexOf("/api/v1/namespaces/test/services") < creations.indexOf("/api/v1/namespaces/test/pods"));
+    }
+
+    @Test(expected = Fabric8ServiceException.class)
+    public void applyEntitiesInParallelFailsAfterTier() throws Exception {
+        List<HasMetadata> entities = createEntities();
+        mockServer.expect().post().withPath("/api/v1/namespaces").andReturn(201, entities.get(4)).always();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/configmaps").andReturn(500, "failure").once();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/secrets").andReturn(201, entities.get(3)).once();
+
+        ApplyService applyService = new ApplyService(mockServer.createClient(), log);
+        applyService.setNamespace("test");
+        applyService.setApplyThreads(4);
+
+        applyService.applyEntities(entities, "test.yml");
+    }
+
+    @Test
+    public void applyNamespaceCreatedConcurrently() throws Exception {
+        mockServer.expect().post().withPath("/api/v1/namespaces").andReturn(409, "AlreadyExists").once();
+
+        ApplyService applyService = new ApplyService(mockServer.createClient(), log);
+        applyService.setNamespace("test");
+
+        assertFalse(applyService.applyNamespace(new NamespaceBuilder().withNewMetadata().withName("test").endMetadata().build()));
+    }
+
+    @Test
+    public void applyEntitiesWithPrefetchedLiveResources() throws Exception {
+        Service service = new ServiceBuilder().withNewMetadata().withName("service").addToLabels("project", "app").endMetadata()
+                                              .withNewSpec().addNewPort().withPort(8080).endPort().endSpec()
+                                              .build();
+        Service other = new ServiceBuilder().withNewMetadata().withName("other").addToLabels("project", "app").endMetadata()
+                                            .withNewSpec().addNewPort().withPort(9090).endPort().endSpec()
+                                            .build();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services?labelSelector=project%3Dapp")
+                  .andReturn(200, new ServiceListBuilder().withItems(service, other).build()).once();
+
+        ApplyService applyService = new ApplyService(mockServer.createClient(), log);
+        applyService.setNamespace("test");
+        applyService.setPrefetchLiveResources(true);
+
+        applyService.applyEntities(Arrays.asList(service, other), "test.yml");
+
+        // Both services are unchanged, so a single LIST call is all that is needed
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    public void createEntitiesMissingFromPrefetchedLiveResources() throws Exception {
+        Service service = createService("service", 8080, "project", "app");
+        Service other = createService("other", 9090, "project", "app");
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services?labelSelector=project%3Dapp")
+                  .andReturn(200, new ServiceListBuilder().build()).once();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/services").andReturn(201, service).times(2);
+
+        ApplyService applyService = new ApplyService(mockServer.createClient(), log);
+        applyService.setNamespace("test");
+        applyService.setPrefetchLiveResources(true);
+
+        applyService.applyEntities(Arrays.asList(service, other), "test.yml");
+
+        // No GET per service, as a service which is not listed is not running
+        assertEquals(Arrays.asList("GET", "POST", "POST"), getRequestMethods());
+    }
+
+    @Test
+    public void applyEntityRunningWithOtherLabels() throws Exception {
+        Service service = createService("service", 8080, "project", "app");
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services?labelSelector=project%3Dapp")
+                  .andReturn(200, new ServiceListBuilder().build()).once();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/services").andReturn(409, "AlreadyExists").once();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services/service").andReturn(200, service).once();
+
+        ApplyService applyService = new ApplyService(mockServer.createClient(), log);
+        applyService.setNamespace("test");
+        applyService.setPrefetchLiveResources(true);
+
+        applyService.applyEntities(Collections.<HasMetadata>singletonList(service), "test.yml");
+
+        // The conflict is resolved by looking up the service, which has not changed
+        assertEquals(Arrays.asList("GET", "POST", "GET"), getRequestMethods());
+    }
+
+    @Test
+    public void noPrefetchWithoutCommonLabels() throws Exception {
+        Service service = createService("service", 8080, "project", "app");
+        Service other = createService("other", 9090, "project", "other");
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/services").andReturn(201, service).times(2);
+
+        ApplyService applyService = new ApplyService(mockServer.createClient(), log);
+        applyService.setNamespace("test");
+        applyService.setPrefetchLiveResources(true);
+
+        applyService.applyEntities(Arrays.asList(service, other), "test.yml");
+
+        // Services are looked up one by one instead of listing all services of the namespace
+        assertEquals(Arrays.asList("GET", "POST", "GET", "POST"), getRequestMethods());
+    }
+
+    private Service createService(String name, int port, String label, String value) {
+        return new ServiceBuilder().withNewMetadata().withName(name).addToLabels(label, value).endMetadata()
+                                   .withNewSpec().addNewPort().withPort(port).endPort().endSpec()
+                                   .build();
+    }
+
+    private List<String> getRequestMethods() throws InterruptedException {
+        List<String> methods = new ArrayList<>();
+        int requestCount = mockServer.getRequestCount();
+        for (int i = 0; i < requestCount; i++) {
+            methods.add(mockServer.takeRequest().getMethod());
+        }
+        return methods;
+    }
+
+    private List<HasMetadata> createEntities() {
+        return Arrays.asList(
+            new PodBuilder().withNewMetadata().withName("pod").endMetadata()
+                            .withNewSpec().addNewContainer().withName("app").withImage("app:1.0").endContainer().endSpec()
+                            .build(),
+            new ServiceBuilder().withNewMetadata().withName("service").endMetadata()
+                                .withNewSpec().addNewPort().withPort(8080).endPort().endSpec()
+                                .build(),
+            new ConfigMapBuilder().withNewMetadata().withName("config").endMetadata()
+                                  .addToData("key", "value")
+                                  .build(),
+            new SecretBuilder().withNewMetadata().withName("secret").withNamespace("test").endMetadata()
+                               .addToData("key", "dmFsdWU=")
+                               .build(),
+            new NamespaceBuilder().withNewMetadata().withName("test").endMetadata().build());
+    }
+}
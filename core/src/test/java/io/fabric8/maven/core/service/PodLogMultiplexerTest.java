@@ -0,0 +1,161 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.maven.docker.util.Logger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PodLogMultiplexerTest {
+
+    @Test
+    public void streamAllPods() throws Exception {
+        RecordingLogger log = new RecordingLogger();
+        PodLogMultiplexer multiplexer = new PodLogMultiplexer(log);
+        TestLogWatch one = new TestLogWatch("pod-1", 2000);
+        TestLogWatch two = new TestLogWatch("pod-2", 10);
+        multiplexer.add("pod-1", null, one);
+        multiplexer.add("pod-2", "app", two);
+
+        waitUntilFinished(multiplexer, "pod-1", "pod-2");
+        multiplexer.close();
+
+        List<String> pod1 = log.linesOf("pod-1");
+        List<String> pod2 = log.linesOf("pod-2/app");
+        assertEquals(2000, pod1.size());
+        assertEquals(10, pod2.size());
+        for (int i = 0; i < pod1.size(); i++) {
+            assertEquals("pod-1 line " + i, pod1.get(i));
+        }
+        assertTrue(one.closed);
+        assertTrue(two.closed);
+    }
+
+    @Test
+    public void removePod() throws Exception {
+        PodLogMultiplexer multiplexer = new PodLogMultiplexer(new RecordingLogger());
+        TestLogWatch watch = new TestLogWatch("pod-1", 0);
+        multiplexer.add("pod-1", null, watch);
+        multiplexer.remove("pod-1");
+        assertTrue(watch.closed);
+        waitUntilFinished(multiplexer, "pod-1");
+        multiplexer.close();
+    }
+
+    private void waitUntilFinished(PodLogMultiplexer multiplexer, String ... pods) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            boolean streaming = false;
+            for (String pod : pods) {
+                streaming |= multiplexer.isStreaming(pod);
+            }
+            if (!streaming) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        for (String pod : pods) {
+            assertFalse(multiplexer.isStreaming(pod));
+        }
+    }
+
+    private static class TestLogWatch implements LogWatch {
+        private final InputStream output;
+        private volatile boolean closed;
+
+        private TestLogWatch(String pod, int lines) {
+            StringBuilder log = new StringBuilder();
+            for (int i = 0; i < lines; i++) {
+                log.append(pod).append(" line ").append(i).append("\n");
+            }
+            output = new ByteArrayInputStream(log.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public InputStream getOutput() {
+            return output;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static class RecordingLogger implements Logger {
+        private final List<Object[]> infos = new ArrayList<>();
+
+        synchronized List<String> linesOf(String key) {
+            List<String> ret = new ArrayList<>();
+            for (Object[] params : infos) {
+                if (params.length == 2 && key.equals(params[0])) {
+                    ret.add((String) params[1]);
+                }
+            }
+            return ret;
+        }
+
+        @Override
+        public synchronized void info(String format, Object... params) {
+            infos.add(params);
+        }
+
+        @Override
+        public void debug(String format, Object... params) { }
+
+        @Override
+        public void verbose(String format, Object... params) { }
+
+        @Override
+        public void warn(String format, Object... params) { }
+
+        @Override
+        public void error(String format, Object... params) { }
+
+        @Override
+        public String errorMessage(String message) {
+            return message;
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isVerboseEnabled() {
+            return false;
+        }
+
+        @Override
+        public void progressStart() { }
+
+        @Override
+        public void progressUpdate(String layerId, String status, String progressMessage) { }
+
+        @Override
+        public void progressFinished() { }
+    }
+}
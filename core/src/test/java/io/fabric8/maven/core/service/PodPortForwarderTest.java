@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.PortForward;
+import io.fabric8.maven.docker.util.Logger;
+import mockit.Mocked;
+import mockit.Verifications;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PodPortForwarderTest {
+
+    @Mocked
+    private KubernetesClient kubernetes;
+
+    @Mocked
+    private Logger logger;
+
+    @Test
+    public void forwardAndSwitchPod() throws Exception {
+        try (PodPortForwarder forwarder = new EchoForwarder(kubernetes, logger)) {
+            PodPortForwarder.Forward first = forwarder.addForward(0, 8080);
+            PodPortForwarder.Forward second = forwarder.addForward(0, 9090);
+
+            forwarder.switchPod("pod1");
+            assertEquals("pod1:8080:hello", request(first, "hello"));
+            assertEquals("pod1:9090:hi", request(second, "hi"));
+
+            // Same local port, new pod
+            forwarder.switchPod("pod2");
+            assertEquals("pod2:8080:hello", request(first, "hello"));
+
+            assertEquals(2, first.getConnections());
+            assertEquals(10, first.getBytesSent());
+            assertEquals(30, first.getBytesReceived());
+            assertEquals(1, second.getConnections());
+            waitForNoActiveConnections(first);
+            waitForNoActiveConnections(second);
+        }
+    }
+
+    @Test
+    public void refusedWithoutPod() throws Exception {
+        try (PodPortForwarder forwarder = new EchoForwarder(kubernetes, logger)) {
+            PodPortForwarder.Forward forward = forwarder.addForward(0, 8080);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), forward.getLocalPort())) {
+                assertEquals(-1, socket.getInputStream().read());
+            }
+            assertEquals(0, forward.getConnections());
+        }
+    }
+
+    @Test
+    public void switchClosesOpenConnections() throws Exception {
+        try (PodPortForwarder forwarder = new EchoForwarder(kubernetes, logger)) {
+            PodPortForwarder.Forward forward = forwarder.addForward(0, 8080);
+            forwarder.switchPod("pod1");
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), forward.getLocalPort())) {
+                socket.getOutputStream().write("a".getBytes(StandardCharsets.UTF_8));
+                socket.getOutputStream().flush();
+                waitForActiveConnection(forward);
+                forwarder.switchPod("pod2");
+                waitForNoActiveConnections(forward);
+            }
+        }
+    }
+
+    @Test
+    public void closeReportsTransfers() throws Exception {
+        final PodPortForwarder.Forward forward;
+        try (PodPortForwarder forwarder = new EchoForwarder(kubernetes, logger)) {
+            forward = forwarder.addForward(0, 8080);
+            forwarder.switchPod("pod1");
+            assertEquals("pod1:8080:hello", request(forward, "hello"));
+            waitForNoActiveConnections(forward);
+        }
+        new Verifications() {{
+            logger.info("Port-forward localhost:%d -> %d: %d connections, %d bytes sent, %d bytes received",
+                        forward.getLocalPort(), 8080, 1L, 5L, 15L); times = 1;
+        }};
+    }
+
+    private String request(PodPortForwarder.Forward forward, String data) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), forward.getLocalPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(data.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            socket.shutdownOutput();
+            InputStream in = socket.getInputStream();
+            StringBuilder ret = new StringBuilder();
+            for (int c = in.read(); c != -1; c = in.read()) {
+                ret.append((char) c);
+            }
+            return ret.toString();
+        }
+    }
+
+    private void waitForActiveConnection(PodPortForwarder.Forward forward) throws InterruptedException {
+        for (int i = 0; i < 100 && forward.getActiveConnections() == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, forward.getActiveConnections());
+    }
+
+    private void waitForNoActiveConnections(PodPortForwarder.Forward forward) throws InterruptedException {
+        for (int i = 0; i < 100 && forward.getActiveConnections() > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, forward.getActiveConnections());
+    }
+
+    // Answers with the pod name, the port and the data received, like a tunnel to an echo server would
+    private static class EchoForwarder extends PodPortForwarder {
+
+        EchoForwarder(KubernetesClient kubernetes, Logger log) throws IOException {
+            super(kubernetes, log);
+        }
+
+        @Override
+        protected PortForward openTunnel(final String podName, final int remotePort, final ReadableByteChannel in, final WritableByteChannel out) {
+            final AtomicBoolean alive = new AtomicBoolean(true);
+            Thread echo = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        out.write(ByteBuffer.wrap((podName + ":" + remotePort + ":").getBytes(StandardCharsets.UTF_8)));
+                        ByteBuffer buffer = ByteBuffer.allocate(1024);
+                        while (in.read(buffer) > 0) {
+                            buffer.flip();
+                            out.write(buffer);
+                            buffer.clear();
+                        }
+                    } catch (IOException e) {
+                        // Connection closed
+                    } finally {
+                        alive.set(false);
+                        try {
+                            in.close();
+                            out.close();
+                        } catch (IOException e) {
+                            // Ignore
+                        }
+                    }
+                }
+            };
+            echo.setDaemon(true);
+            echo.start();
+            return new PortForward() {
+                @Override
+                public boolean isAlive() {
+                    return alive.get();
+                }
+
+                @Override
+                public void close() {
+                    alive.set(false);
+                }
+            };
+        }
+    }
+}
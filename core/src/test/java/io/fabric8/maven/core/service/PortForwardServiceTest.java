@@ -24,36 +24,22 @@ import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.api.model.PodListBuilder;
 import io.fabric8.kubernetes.api.model.WatchEvent;
-import io.fabric8.maven.core.util.ProcessUtil;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
-import mockit.Expectations;
 import mockit.Mocked;
 import mockit.integration.junit4.JMockit;
-import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import static org.junit.Assert.assertEquals;
+
 @RunWith(JMockit.class)
 public class PortForwardServiceTest {
 
     @Mocked
     private io.fabric8.maven.docker.util.Logger logger;
 
-    @Mocked
-    private Process process;
-
-    @Mocked
-    private ClientToolsService clientToolsService;
-
-    @Before
-    public void init() throws Exception {
-        new Expectations() {{
-            process.destroy();
-        }};
-    }
-
     @Test
     public void testSimpleScenario() throws Exception {
         // Cannot test more complex scenarios due to errors in mockwebserver
@@ -92,15 +78,19 @@ public class PortForwardServiceTest {
                 .done().always();
 
         OpenShiftClient client = mockServer.createOpenShiftClient();
+        final PodPortForwarder[] forwarder = new PodPortForwarder[1];
         PortForwardService service = new PortForwardService(client, logger) {
             @Override
-            public ProcessUtil.ProcessExecutionContext forwardPortAsync(Logger externalProcessLogger, String pod, int remotePort, int localPort) throws Fabric8ServiceException {
-                return new ProcessUtil.ProcessExecutionContext(process, Collections.<Thread>emptyList(), logger);
+            protected PodPortForwarder createForwarder(Logger forwarderLogger, int remotePort, int localPort) throws Fabric8ServiceException {
+                forwarder[0] = super.createForwarder(forwarderLogger, remotePort, localPort);
+                return forwarder[0];
             }
         };
 
-        try (Closeable c = service.forwardPortAsync(logger, new LabelSelectorBuilder().withMatchLabels(Collections.singletonMap("mykey", "myvalue")).build(), 8080, 9000)) {
+        try (Closeable c = service.forwardPortAsync(logger, new LabelSelectorBuilder().withMatchLabels(Collections.singletonMap("mykey", "myvalue")).build(), 8080, 0)) {
             Thread.sleep(3000);
+            assertEquals("mypod", forwarder[0].getPod());
+            assertEquals(8080, forwarder[0].getForwards().get(0).getRemotePort());
         }
     }
 
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import io.fabric8.maven.docker.util.Logger;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertArrayEquals;
+
+@RunWith(JMockit.class)
+public class BinaryUploadInputStreamTest {
+
+    @Mocked
+    Logger log;
+
+    @Test
+    public void uploadCompressed() throws Exception {
+        byte[] archive = createArchive();
+        try (InputStream upload = new BinaryUploadInputStream(new ByteArrayInputStream(archive), archive.length, log)) {
+            assertArrayEquals(archive, IOUtils.toByteArray(new GZIPInputStream(upload)));
+        }
+        new Verifications() {{
+            log.info("Uploaded %s of %s (%d%%)", (Object[]) any); times = 9;
+        }};
+    }
+
+    private byte[] createArchive() {
+        // Half random, half compressible data
+        byte[] archive = new byte[1024 * 1024];
+        Random random = new Random(42);
+        for (int i = 0; i < archive.length / 2; i++) {
+            archive[i] = (byte) random.nextInt();
+        }
+        return archive;
+    }
+}
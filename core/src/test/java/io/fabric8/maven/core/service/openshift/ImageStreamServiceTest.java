@@ -117,6 +117,26 @@ public class ImageStreamServiceTest {
         assertTrue(names.isEmpty());
     }
 
+    @Test
+    public void writtenOnce() throws IOException, MojoExecutionException {
+        ImageStreamService service = new ImageStreamService(client, log);
+        File target = File.createTempFile("ImageStreamServiceTest",".yml");
+
+        setupClientMock(lookupImageStream("ab12cd"), "test");
+        service.addImageStreamResource(new ImageName("test:1.0"), target);
+        setupClientMock(lookupImageStream("secondIS"), "second-test");
+        service.addImageStreamResource(new ImageName("second-test:1.0"), target);
+        assertEquals(0, target.length());
+
+        service.writeImageStreamResources();
+        List<Map> items = getItemsList(readImageStreamDescriptor(target));
+        assertEquals(2, items.size());
+        Set<String> names = new HashSet<>(Arrays.asList("second-test", "test"));
+        for (Map item : items) {
+            assertTrue(names.remove(((Map) item.get("metadata")).get("name")));
+        }
+    }
+
     private List<Map> getItemsList(Map result) {
         List items = (List) result.get("items");
         assertNotNull(items);
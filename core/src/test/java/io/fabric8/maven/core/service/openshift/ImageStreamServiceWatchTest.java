@@ -0,0 +1,80 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.WatchEvent;
+import io.fabric8.maven.docker.util.ImageName;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.api.model.ImageStream;
+import io.fabric8.openshift.api.model.ImageStreamBuilder;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yaml.snakeyaml.Yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JMockit.class)
+public class ImageStreamServiceWatchTest {
+
+    @Mocked
+    private Logger log;
+
+    @Test
+    public void tagFromWatch() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        ImageStream untagged = new ImageStreamBuilder()
+            .withNewMetadata().withName("test").withResourceVersion("1").endMetadata()
+            .build();
+        ImageStream tagged = new ImageStreamBuilder(untagged)
+            .editMetadata().withResourceVersion("2").endMetadata()
+            .withNewStatus()
+              .addNewTag().withTag("1.0").addNewItem().withImage("ab12cd").withCreated("2018-03-09T03:27:05Z").endItem().endTag()
+            .endStatus()
+            .build();
+        mockServer.expect().get().withPath("/oapi/v1/namespaces/test/imagestreams/test").andReturn(200, untagged).always();
+        mockServer.expect().get().withPath("/oapi/v1/namespaces/test/imagestreams?fieldSelector=metadata.name%3Dtest&watch=true")
+                  .andUpgradeToWebSocket().open()
+                  .waitFor(200)
+                  .andEmit(new WatchEvent(untagged, "MODIFIED"))
+                  .waitFor(200)
+                  .andEmit(new WatchEvent(tagged, "MODIFIED"))
+                  .done().always();
+
+        ImageStreamService service = new ImageStreamService(mockServer.createOpenShiftClient(), log);
+        File target = File.createTempFile("ImageStreamServiceWatchTest", ".yml");
+        long start = System.currentTimeMillis();
+        service.appendImageStreamResource(new ImageName("test:1.0"), target);
+        assertTrue(System.currentTimeMillis() - start < 10000);
+
+        try (InputStream is = new FileInputStream(target)) {
+            Map result = (Map) new Yaml().load(is);
+            List<Map> items = (List<Map>) result.get("items");
+            Map tag = (Map) ((List) ((Map) items.get(0).get("spec")).get("tags")).get(0);
+            assertEquals("test@ab12cd", ((Map) tag.get("from")).get("name"));
+        }
+    }
+}
@@ -18,6 +18,7 @@ package io.fabric8.maven.core.service.openshift;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -96,6 +97,9 @@ public class OpenshiftBuildServiceTest {
     @Mocked
     private MavenProject project;
 
+    @Mocked
+    private io.fabric8.maven.docker.service.BuildService.BuildContext dockerBuildContext;
+
     private ImageConfiguration image;
 
     private BuildService.BuildServiceConfig.Builder defaultConfig;
@@ -385,6 +389,78 @@ public class OpenshiftBuildServiceTest {
         } while (nTries < MAX_TIMEOUT_RETRIES && !bTestComplete);
     }
 
+    @Test
+    public void testConcurrentBuilds() throws Exception {
+        BuildService.BuildServiceConfig config = defaultConfig.dockerBuildContext(dockerBuildContext).buildConcurrency(2).build();
+        WebServerEventCollector<OpenShiftMockServer> collector = createConcurrentMockServer(config, "Complete", "Complete");
+
+        OpenshiftBuildService service = new OpenshiftBuildService(collector.getMockServer().createOpenShiftClient(), logger, dockerServiceHub, config);
+        service.buildImages(Arrays.asList(createImage("first"), createImage("second")));
+
+        collector.assertEventsRecorded("pushed-first", "pushed-second");
+    }
+
+    @Test(expected = Fabric8ServiceException.class)
+    public void testConcurrentBuildsFailure() throws Exception {
+        BuildService.BuildServiceConfig config = defaultConfig.dockerBuildContext(dockerBuildContext).buildConcurrency(2).build();
+        WebServerEventCollector<OpenShiftMockServer> collector = createConcurrentMockServer(config, "Complete", "Failed");
+
+        OpenshiftBuildService service = new OpenshiftBuildService(collector.getMockServer().createOpenShiftClient(), logger, dockerServiceHub, config);
+        service.buildImages(Arrays.asList(createImage("first"), createImage("second")));
+    }
+
+    private ImageConfiguration createImage(String name) {
+        return new ImageConfiguration.Builder()
+                .name(name)
+                .buildConfig(new BuildImageConfiguration.Builder()
+                        .from(name)
+                        .build()
+                ).build();
+    }
+
+    // Images "first" and "second", whose builds end with the given phases
+    private WebServerEventCollector<OpenShiftMockServer> createConcurrentMockServer(BuildService.BuildServiceConfig config, String... phases) {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        WebServerEventCollector<OpenShiftMockServer> collector = new WebServerEventCollector<>(mockServer);
+
+        String[] names = { "first", "second" };
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            String buildConfigName = name + config.getS2iBuildNameSuffix();
+            BuildConfig bc = new BuildConfigBuilder()
+                    .withNewMetadata().withName(buildConfigName).endMetadata()
+                    .withNewSpec().endSpec()
+                    .build();
+            ImageStream imageStream = new ImageStreamBuilder()
+                    .withNewMetadata().withName(name).endMetadata()
+                    .withStatus(new ImageStreamStatusBuilder()
+                            .addNewTagLike(new NamedTagEventListBuilder()
+                                    .addNewItem().withImage("abcdef0123456789").endItem()
+                                    .build())
+                            .endTag()
+                            .build())
+                    .build();
+            Build build = new BuildBuilder()
+                    .withNewMetadata().withName(name).withResourceVersion("2").endMetadata()
+                    .withNewStatus().withPhase(phases[i]).endStatus()
+                    .build();
+
+            mockServer.expect().get().withPath("/oapi/v1/namespaces/test/buildconfigs/" + buildConfigName).andReturn(404, "").once();
+            mockServer.expect().get().withPath("/oapi/v1/namespaces/test/imagestreams/" + name).andReturn(200, imageStream).always();
+            mockServer.expect().post().withPath("/oapi/v1/namespaces/test/buildconfigs").andReturn(201, bc).once();
+            mockServer.expect().post().withPath("/oapi/v1/namespaces/test/buildconfigs/" + buildConfigName + "/instantiatebinary?commit=")
+                    .andReply(collector.record("pushed-" + name).andReturn(201, build))
+                    .once();
+            mockServer.expect().get().withPath("/oapi/v1/namespaces/test/builds/" + name).andReturn(200, build).always();
+            mockServer.expect().get().withPath("/oapi/v1/namespaces/test/builds?fieldSelector=metadata.name%3D" + name + "&watch=true")
+                    .andUpgradeToWebSocket().open()
+                    .waitFor(50)
+                    .andEmit(new WatchEvent(build, "MODIFIED"))
+                    .done().always();
+        }
+        return collector;
+    }
+
     protected WebServerEventCollector<OpenShiftMockServer> createMockServer(BuildService.BuildServiceConfig config, boolean success, long buildDelay, boolean buildConfigExists, boolean
             imageStreamExists) {
         OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
@@ -30,8 +30,16 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import io.fabric8.maven.docker.util.Logger;
 
+import java.io.IOException;
 import java.util.Collections;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
 import static junit.framework.TestCase.assertTrue;
 
 @RunWith(JMockit.class)
@@ -72,6 +80,87 @@ public class PatchServiceTest {
         assertTrue(UserConfigurationCompare.configEqual(patchedService.getMetadata(), newService.getMetadata()));
     }
 
+    @Test
+    public void testMergePatching() throws InterruptedException {
+        ConfigMap oldResource = new ConfigMapBuilder()
+                .withNewMetadata().withName("configmap1").withResourceVersion("42").addToLabels("app", "test").endMetadata()
+                .addToData("foo", "bar")
+                .addToData("unchanged", "value")
+                .build();
+        ConfigMap newResource = new ConfigMapBuilder()
+                .withNewMetadata().withName("configmap1").addToLabels("app", "test").endMetadata()
+                .addToData("foo", "baz")
+                .addToData("unchanged", "value")
+                .build();
+
+        mockServer.expect().patch().withPath("/api/v1/namespaces/test/configmaps/configmap1").andReturn(200, newResource).once();
+
+        OpenShiftClient client = mockServer.createOpenShiftClient();
+        PatchService patchService = new PatchService(client, log);
+
+        ConfigMap patchedResource = patchService.mergePatchEntity("test", newResource, oldResource, client.configMaps());
+
+        assertEquals("baz", patchedResource.getData().get("foo"));
+        RecordedRequest request = mockServer.takeRequest();
+        assertEquals("application/merge-patch+json; charset=utf-8", request.getHeader("Content-Type"));
+        assertEquals("{\"data\":{\"foo\":\"baz\"}}", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testMergePatchingUnchanged() {
+        ConfigMap oldResource = new ConfigMapBuilder()
+                .withNewMetadata().withName("configmap1").withResourceVersion("42").endMetadata()
+                .addToData("foo", "bar")
+                .build();
+        ConfigMap newResource = new ConfigMapBuilder()
+                .withNewMetadata().withName("configmap1").endMetadata()
+                .addToData("foo", "bar")
+                .build();
+
+        OpenShiftClient client = mockServer.createOpenShiftClient();
+        PatchService patchService = new PatchService(client, log);
+
+        assertSame(oldResource, patchService.mergePatchEntity("test", newResource, oldResource, client.configMaps()));
+        assertEquals(0, mockServer.getRequestCount());
+    }
+
+    @Test
+    public void testCreateMergePatch() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode oldNode = mapper.readTree("{\"a\":1,\"b\":{\"c\":[1,2],\"d\":\"x\",\"e\":true},\"f\":\"server\"}");
+        JsonNode newNode = mapper.readTree("{\"a\":1,\"b\":{\"c\":[1,3],\"d\":\"x\"},\"g\":{\"h\":null,\"i\":[{\"j\":null,\"k\":2}]}}");
+
+        ObjectNode patch = PatchService.createMergePatch(oldNode, newNode);
+
+        assertEquals(mapper.readTree("{\"b\":{\"c\":[1,3],\"e\":null},\"f\":null,\"g\":{\"i\":[{\"k\":2}]}}"), patch);
+    }
+
+    @Test
+    public void testMergePatchingRemovesDataKeyAndLabel() throws InterruptedException, IOException {
+        ConfigMap oldResource = new ConfigMapBuilder()
+                .withNewMetadata().withName("configmap1").withNamespace("test").withResourceVersion("42").withUid("1234")
+                .addToLabels("app", "test").addToLabels("obsolete", "true").endMetadata()
+                .addToData("foo", "bar")
+                .addToData("removed", "value")
+                .build();
+        ConfigMap newResource = new ConfigMapBuilder()
+                .withNewMetadata().withName("configmap1").addToLabels("app", "test").endMetadata()
+                .addToData("foo", "bar")
+                .build();
+
+        mockServer.expect().patch().withPath("/api/v1/namespaces/test/configmaps/configmap1").andReturn(200, newResource).once();
+
+        OpenShiftClient client = mockServer.createOpenShiftClient();
+        PatchService patchService = new PatchService(client, log);
+
+        patchService.mergePatchEntity("test", newResource, oldResource, client.configMaps());
+
+        RecordedRequest request = mockServer.takeRequest();
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree("{\"data\":{\"removed\":null},\"metadata\":{\"labels\":{\"obsolete\":null}}}"),
+                     mapper.readTree(request.getBody().readUtf8()));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testInvalidPatcherKind() {
         ConfigMap oldResource = new ConfigMapBuilder()
@@ -16,15 +16,22 @@
 package io.fabric8.maven.core.util;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static io.fabric8.maven.core.util.FileUtil.getAbsolutePath;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -34,6 +41,9 @@ import static org.junit.Assert.assertTrue;
 
 public class ClassUtilTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void findOne() throws IOException {
         File root = getRelativePackagePath("mainclass/one");
@@ -58,6 +68,69 @@ public class ClassUtilTest {
         assertEquals(0,ret.size());
     }
 
+    @Test
+    public void findWithCache() throws IOException {
+        File root = temporaryFolder.newFolder("classes");
+        FileUtils.copyDirectory(getRelativePackagePath("mainclass/two"), root);
+        File cacheFile = new File(temporaryFolder.getRoot(), "fabric8/main-classes.idx");
+
+        Set<String> ret = new HashSet<>(ClassUtil.findMainClasses(root, cacheFile));
+        assertEquals(2, ret.size());
+        assertTrue(cacheFile.exists());
+        Properties cache = new Properties();
+        try (InputStream is = new FileInputStream(cacheFile)) {
+            cache.load(is);
+        }
+        assertEquals(2, cache.size());
+        assertTrue(cache.getProperty("OneMain.class").endsWith("|true"));
+
+        // Replace a main class with a class without main method
+        File oneMain = new File(root, "OneMain.class");
+        FileUtils.copyFile(new File(getRelativePackagePath("mainclass/one"), "sub/Bogus1.class"), oneMain);
+        assertTrue(oneMain.setLastModified(oneMain.lastModified() + 2000));
+        ret = new HashSet<>(ClassUtil.findMainClasses(root, cacheFile));
+        assertEquals(1, ret.size());
+        assertTrue(ret.contains("another.sub.a.bit.deeper.TwoMain"));
+    }
+
+    @Test
+    public void deletedClassesDroppedFromCache() throws IOException {
+        File root = temporaryFolder.newFolder("classes");
+        FileUtils.copyDirectory(getRelativePackagePath("mainclass/two"), root);
+        File cacheFile = new File(temporaryFolder.getRoot(), "fabric8/main-classes.idx");
+        assertEquals(2, ClassUtil.findMainClasses(root, cacheFile).size());
+
+        FileUtils.deleteDirectory(new File(root, "another"));
+        List<String> ret = ClassUtil.findMainClasses(root, cacheFile);
+        assertEquals(1, ret.size());
+        assertEquals("OneMain", ret.get(0));
+        Properties cache = new Properties();
+        try (InputStream is = new FileInputStream(cacheFile)) {
+            cache.load(is);
+        }
+        assertEquals(1, cache.size());
+        assertTrue(cache.containsKey("OneMain.class"));
+    }
+
+    @Test
+    public void findWithUnwritableCache() throws IOException {
+        File root = temporaryFolder.newFolder("classes");
+        FileUtils.copyDirectory(getRelativePackagePath("mainclass/two"), root);
+        // The directory of the cache file cannot be created, as a file is in the way
+        File cacheFile = new File(temporaryFolder.newFile("fabric8"), "main-classes.idx");
+
+        Set<String> ret = new HashSet<>(ClassUtil.findMainClasses(root, cacheFile));
+        assertEquals(2, ret.size());
+        assertFalse(cacheFile.exists());
+    }
+
+    @Test
+    public void noMainInJdkClass() throws IOException {
+        try (InputStream is = ClassLoader.getSystemResourceAsStream("java/lang/Long.class")) {
+            assertFalse(MainClassScanner.hasMainMethod(is));
+        }
+    }
+
     private File getRelativePackagePath(String subpath) {
     	File parent =        		
             new File(getAbsolutePath(this.getClass().getProtectionDomain().getCodeSource().getLocation()));
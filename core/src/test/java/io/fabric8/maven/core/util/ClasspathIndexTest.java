@@ -0,0 +1,79 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClasspathIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void classesAndResources() throws IOException {
+        File classes = temporaryFolder.newFolder("classes");
+        File jar = createJar("lib.jar", "org/example/Lib.class", "META-INF/services/org.example.Spi");
+        File cacheFile = new File(temporaryFolder.getRoot(), "target/classpath.idx");
+
+        ClasspathIndex index = new ClasspathIndex(Arrays.asList(classes.getAbsolutePath(), jar.getAbsolutePath(),
+                                                                new File(temporaryFolder.getRoot(), "missing.jar").getAbsolutePath()),
+                                                  cacheFile);
+        assertTrue(index.hasClass("org.example.Lib"));
+        assertTrue(index.hasResource("META-INF/services/org.example.Spi"));
+        assertTrue(index.hasClass("java.lang.String"));
+        assertFalse(index.hasClass("org.example.Other"));
+        assertTrue(cacheFile.isFile());
+
+        // The output directory is checked on each lookup
+        new File(classes, "org/example").mkdirs();
+        Files.write(new File(classes, "org/example/Other.class").toPath(), new byte[0]);
+        assertTrue(index.hasClass("org.example.Other"));
+    }
+
+    @Test
+    public void changedJar() throws IOException {
+        File jar = createJar("kube.jar", "other.json");
+        assertFalse(ClasspathIndex.hasEntry(jar, "kubernetes.json"));
+
+        createJar("kube.jar", "other.json", "kubernetes.json");
+        jar.setLastModified(jar.lastModified() + 2000);
+        assertTrue(ClasspathIndex.hasEntry(jar, "kubernetes.json"));
+    }
+
+    private File createJar(String name, String... entries) throws IOException {
+        File jar = new File(temporaryFolder.getRoot(), name);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
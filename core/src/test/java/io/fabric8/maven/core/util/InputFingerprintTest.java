@@ -0,0 +1,100 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeMap;
+
+import io.fabric8.maven.core.config.ProcessorConfig;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class InputFingerprintTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void unchangedInputs() throws IOException {
+        File dir = createFragments();
+        File stored = new File(temporaryFolder.getRoot(), "fingerprint/resource.fingerprint");
+
+        InputFingerprint fingerprint = createFingerprint(dir, "1.0");
+        assertNull(fingerprint.getChangedInputs(stored));
+        fingerprint.store(stored);
+
+        assertEquals(Collections.emptyList(), createFingerprint(dir, "1.0").getChangedInputs(stored));
+    }
+
+    @Test
+    public void changedInputs() throws IOException {
+        File dir = createFragments();
+        File stored = temporaryFolder.newFile();
+        createFingerprint(dir, "1.0").store(stored);
+
+        write(new File(dir, "sub/service.yml"), "kind: Service\nmetadata:\n  name: other\n");
+        assertEquals(Arrays.asList("fragments", "version"), createFingerprint(dir, "1.1").getChangedInputs(stored));
+
+        InputFingerprint added = createFingerprint(dir, "1.0").add("dependencies", "a:b:1.0");
+        assertEquals(Arrays.asList("dependencies", "fragments"), added.getChangedInputs(stored));
+    }
+
+    @Test
+    public void objectFields() throws IOException {
+        ProcessorConfig first = createConfig("test");
+        ProcessorConfig second = createConfig("other");
+
+        String firstHash = new InputFingerprint().addObject("enricher", first).getHashes().get("enricher");
+        assertEquals(firstHash, new InputFingerprint().addObject("enricher", first).getHashes().get("enricher"));
+        assertNotEquals(firstHash, new InputFingerprint().addObject("enricher", second).getHashes().get("enricher"));
+    }
+
+    private ProcessorConfig createConfig(String name) {
+        TreeMap<String, String> spec = new TreeMap<>();
+        spec.put("name", name);
+        return new ProcessorConfig(Arrays.asList("fmp-name"), Collections.<String>emptySet(),
+                                   Collections.<String, TreeMap>singletonMap("fmp-name", spec));
+    }
+
+    private InputFingerprint createFingerprint(File dir, String version) throws IOException {
+        return new InputFingerprint()
+            .add("version", version)
+            .addFiles("fragments", dir)
+            .addFiles("fragments", new File(dir, "missing"));
+    }
+
+    private File createFragments() throws IOException {
+        File dir = temporaryFolder.newFolder();
+        write(new File(dir, "deployment.yml"), "spec:\n  replicas: 1\n");
+        write(new File(dir, "sub/service.yml"), "kind: Service\n");
+        return dir;
+    }
+
+    private void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -22,6 +22,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -51,6 +52,19 @@ public class PluginServiceFactoryTest {
         }
     }
 
+    @Test
+    public void cachedDescriptorsCreateNewServices() {
+        List<TestService> first =
+                pluginServiceFactory.createServiceObjects("service/test-services-default", "service/test-services");
+        List<TestService> second =
+                new PluginServiceFactory<>(new TestContext()).createServiceObjects("service/test-services-default", "service/test-services");
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getName(), second.get(i).getName());
+            assertNotSame(first.get(i), second.get(i));
+        }
+    }
+
     @Test
     public void errorHandling() {
         try {
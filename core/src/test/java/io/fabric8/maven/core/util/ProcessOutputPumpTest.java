@@ -0,0 +1,89 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Function;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ProcessOutputPumpTest {
+
+    @Before
+    public void checkShell() {
+        assumeTrue(new File("/bin/sh").canExecute());
+    }
+
+    @Test
+    public void linesOfBothStreams() throws Exception {
+        Process process = start("echo out1; echo err1 >&2; printf 'out2\\r\\nlast'");
+        List<String> out = new CopyOnWriteArrayList<>();
+        List<String> err = new CopyOnWriteArrayList<>();
+        ProcessOutputPump.PumpedStream outStream = ProcessOutputPump.getInstance().register(process, process.getInputStream(), collect(out));
+        ProcessOutputPump.PumpedStream errStream = ProcessOutputPump.getInstance().register(process, process.getErrorStream(), collect(err));
+
+        assertEquals(0, process.waitFor());
+        assertTrue(outStream.await(10, TimeUnit.SECONDS));
+        assertTrue(errStream.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("out1", "out2", "last"), out);
+        assertEquals(Collections.singletonList("err1"), err);
+    }
+
+    @Test
+    public void largeOutputDoesNotBlock() throws Exception {
+        // Much more than a pipe can buffer, on both streams, and a line longer than the maximum length
+        Process process = start("i=0; while [ $i -lt 20000 ]; do echo \"line $i\"; echo \"error $i\" >&2; i=$((i+1)); done; " +
+                                "head -c 20000 /dev/zero | tr '\\0' 'x'");
+        List<String> out = new CopyOnWriteArrayList<>();
+        List<String> err = new CopyOnWriteArrayList<>();
+        ProcessOutputPump.PumpedStream outStream = ProcessOutputPump.getInstance().register(process, process.getInputStream(), collect(out));
+        ProcessOutputPump.PumpedStream errStream = ProcessOutputPump.getInstance().register(process, process.getErrorStream(), collect(err));
+
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        assertTrue(outStream.await(10, TimeUnit.SECONDS));
+        assertTrue(errStream.await(10, TimeUnit.SECONDS));
+        assertEquals(20000, err.size());
+        assertEquals("error 19999", err.get(19999));
+        assertEquals(20003, out.size());
+        assertEquals(ProcessOutputPump.MAX_LINE_LENGTH, out.get(20000).length());
+        assertEquals(20000 - 2 * ProcessOutputPump.MAX_LINE_LENGTH, out.get(20002).length());
+    }
+
+    private Process start(String script) throws IOException {
+        return new ProcessBuilder("/bin/sh", "-c", script).start();
+    }
+
+    private Function<String, Void> collect(final List<String> lines) {
+        return new Function<String, Void>() {
+            @Override
+            public Void apply(String line) {
+                lines.add(line);
+                return null;
+            }
+        };
+    }
+}
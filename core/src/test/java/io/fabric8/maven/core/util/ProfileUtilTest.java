@@ -25,7 +25,10 @@ import java.util.List;
 
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.Profile;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -40,6 +43,9 @@ import static org.junit.Assert.fail;
  */
 public class ProfileUtilTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void simple() throws IOException {
         InputStream is = getClass().getResourceAsStream("/fabric8/config/profiles-lookup-dir/profiles.yaml");
@@ -142,4 +148,31 @@ public class ProfileUtilTest {
         assertTrue(aProfile.getGeneratorConfig().use("spring.swarm"));
         assertFalse(aProfile.getGeneratorConfig().use("java.app"));
     }
+
+    @Test
+    public void lookupReturnsCopies() throws Exception {
+        Profile one = ProfileUtil.lookup("simple", getProfileDir());
+        one.setEnricherConfig(ProcessorConfig.EMPTY);
+
+        Profile two = ProfileUtil.lookup("simple", getProfileDir());
+        assertTrue(two.getEnricherConfig().use("base"));
+    }
+
+    @Test
+    public void profileFileIsReadAgainWhenModified() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        File profileFile = new File(dir, "profiles.yml");
+        writeProfile(profileFile, "base");
+        assertTrue(ProfileUtil.findProfile("changing", dir).getEnricherConfig().use("base"));
+
+        writeProfile(profileFile, "fmp-name");
+        profileFile.setLastModified(profileFile.lastModified() + 2000);
+        Profile profile = ProfileUtil.findProfile("changing", dir);
+        assertTrue(profile.getEnricherConfig().use("fmp-name"));
+        assertFalse(profile.getEnricherConfig().use("base"));
+    }
+
+    private void writeProfile(File file, String enricher) throws IOException {
+        FileUtils.write(file, "- name: changing\n  enricher:\n    includes:\n    - " + enricher + "\n", "UTF-8");
+    }
 }
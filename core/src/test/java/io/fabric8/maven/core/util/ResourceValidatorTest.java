@@ -82,6 +82,22 @@ public class ResourceValidatorTest {
         Assert.assertEquals(2, resources);
     }
 
+    @Test
+    public void testInvalidKubernetesResourcesDirectory() throws IOException, URISyntaxException {
+        // Given
+        URL fileUrl = ResourceValidatorTest.class.getResource("/validations/kubernetes-invalid");
+
+        // When
+        ResourceValidator resourceValidator = new ResourceValidator(Paths.get(fileUrl.toURI()).toFile(), ResourceClassifier.KUBERNETES, logger);
+
+        // Then
+        thrown.expect(ConstraintViolationException.class);
+        thrown.expectMessage("deployment.yml");
+
+        // On
+        resourceValidator.validate();
+    }
+
     @Test
     public void testValidOpenShiftResources() throws IOException, URISyntaxException {
         // Given
@@ -15,9 +15,16 @@
  */
 package io.fabric8.maven.core.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Properties;
 
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -28,6 +35,8 @@ import static org.junit.Assert.assertNotNull;
  */
 public class SpringBootUtilTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
     @Test
     public void testYamlToPropertiesParsing() {
@@ -80,4 +89,27 @@ public class SpringBootUtilTest {
 
     }
 
+    @Test
+    public void testProjectConfigurationChanges() throws IOException {
+        File outputDir = temporaryFolder.newFolder("classes");
+        MavenProject project = new MavenProject();
+        project.getBuild().setOutputDirectory(outputDir.getAbsolutePath());
+
+        assertEquals(0, SpringBootUtil.getSpringBootApplicationProperties(project).size());
+
+        File propertiesFile = new File(outputDir, "application.properties");
+        Files.write(propertiesFile.toPath(), "server.port=8080\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(outputDir, "application.yml").toPath(), "server:\n  port: 9090\nmanagement:\n  port: 9091\n".getBytes(StandardCharsets.UTF_8));
+        Properties props = SpringBootUtil.getSpringBootApplicationProperties(project);
+        assertEquals("8080", props.getProperty("server.port"));
+        assertEquals("9091", props.getProperty("management.port"));
+
+        // Returned properties are copies
+        props.setProperty("server.port", "1");
+        assertEquals("8080", SpringBootUtil.getPropertiesFile(project, "application.properties").getProperty("server.port"));
+
+        Files.write(propertiesFile.toPath(), "server.port=18080\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals("18080", SpringBootUtil.getSpringBootApplicationProperties(project).getProperty("server.port"));
+        assertEquals("9090", SpringBootUtil.getPropertiesFromYamlFile(project, "application.yml").getProperty("server.port"));
+    }
 }
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util.kubernetes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.WatchEvent;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+import io.fabric8.maven.docker.util.Logger;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JMockit.class)
+public class ServiceExposeUrlResolverTest {
+
+    @Mocked
+    private Logger log;
+
+    @Test
+    public void urlFromWatch() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services/svc1").andReturn(200, createService("svc1", null)).always();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services/svc2").andReturn(200, createService("svc2", null)).always();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services?watch=true")
+                  .andUpgradeToWebSocket().open()
+                  .waitFor(200)
+                  .andEmit(new WatchEvent(createService("other", "http://other.example.com"), "MODIFIED"))
+                  .waitFor(200)
+                  .andEmit(new WatchEvent(createService("svc2", "http://svc2.example.com"), "MODIFIED"))
+                  .done().always();
+
+        KubernetesClient client = mockServer.createOpenShiftClient();
+        long start = System.currentTimeMillis();
+        Map<String, String> urls = new ServiceExposeUrlResolver(client, "test", log)
+            .resolve(Arrays.<HasMetadata>asList(createService("svc1", null), createService("svc2", null)), 30);
+        assertEquals(Collections.singletonMap("svc2", "http://svc2.example.com"), urls);
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    @Test
+    public void alreadyExposed() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services/svc1").andReturn(200, createService("svc1", "http://svc1.example.com")).always();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services?watch=true")
+                  .andUpgradeToWebSocket().open().done().always();
+
+        Map<String, String> urls = new ServiceExposeUrlResolver(mockServer.createOpenShiftClient(), "test", log)
+            .resolve(Collections.<HasMetadata>singletonList(createService("svc1", null)), 30);
+        assertEquals(Collections.singletonMap("svc1", "http://svc1.example.com"), urls);
+    }
+
+    @Test
+    public void notExposed() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        Service service = new ServiceBuilder().withNewMetadata().withName("svc1").endMetadata().build();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services/svc1").andReturn(200, service).always();
+
+        Map<String, String> urls = new ServiceExposeUrlResolver(mockServer.createOpenShiftClient(), "test", log)
+            .resolve(Collections.<HasMetadata>singletonList(service), 30);
+        assertTrue(urls.isEmpty());
+    }
+
+    @Test
+    public void failingWatch() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services/svc1").andReturn(200, createService("svc1", "http://svc1.example.com")).always();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services/svc2").andReturn(200, createService("svc2", null)).always();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services?watch=true").andReturn(403, "").always();
+
+        long start = System.currentTimeMillis();
+        Map<String, String> urls = new ServiceExposeUrlResolver(mockServer.createOpenShiftClient(), "test", log)
+            .resolve(Arrays.<HasMetadata>asList(createService("svc1", null), createService("svc2", null)), 30);
+        assertEquals(Collections.singletonMap("svc1", "http://svc1.example.com"), urls);
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    @Test
+    public void customUrls() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        Service service = new ServiceBuilder().withNewMetadata().withName("svc1").endMetadata().build();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services/svc1").andReturn(200, service).always();
+
+        ServiceExposeUrlResolver resolver = new ServiceExposeUrlResolver(mockServer.createOpenShiftClient(), "test", log) {
+            @Override
+            protected boolean isExposed(Service service) {
+                return true;
+            }
+
+            @Override
+            protected String getUrl(Service service) {
+                return "http://" + KubernetesHelper.getName(service) + ".custom.example.com";
+            }
+        };
+        Map<String, String> urls = resolver.resolve(Collections.<HasMetadata>singletonList(service), 0);
+        assertEquals(Collections.singletonMap("svc1", "http://svc1.custom.example.com"), urls);
+    }
+
+    private Service createService(String name, String url) {
+        ServiceBuilder builder = new ServiceBuilder()
+            .withNewMetadata()
+              .withName(name)
+              .withResourceVersion("1")
+              .addToLabels("expose", "true")
+            .endMetadata();
+        if (url != null) {
+            builder.editMetadata().addToAnnotations(Fabric8Annotations.SERVICE_EXPOSE_URL.value(), url).endMetadata();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util.kubernetes;
+
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.api.model.DeploymentConfigBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UserConfigurationCompareTest {
+
+    @Test
+    public void deploymentEqual() {
+        Deployment running = new DeploymentBuilder(createDeployment("app:1.0"))
+            .editMetadata().withResourceVersion("4711").endMetadata()
+            .withNewStatus().withReplicas(1).withAvailableReplicas(1).endStatus()
+            .build();
+
+        assertTrue(UserConfigurationCompare.configEqual(createDeployment("app:1.0"), running));
+    }
+
+    @Test
+    public void deploymentChanged() {
+        assertFalse(UserConfigurationCompare.configEqual(createDeployment("app:1.0"), createDeployment("app:1.1")));
+        assertFalse(UserConfigurationCompare.configEqual(
+            createDeployment("app:1.0"),
+            new DeploymentBuilder(createDeployment("app:1.0")).editMetadata().addToLabels("group", "other").endMetadata().build()));
+    }
+
+    @Test
+    public void deploymentConfigEqual() {
+        DeploymentConfig running = new DeploymentConfigBuilder(createDeploymentConfig("app:1.0"))
+            .withNewStatus().withLatestVersion(3L).endStatus()
+            .build();
+
+        assertTrue(UserConfigurationCompare.configEqual(createDeploymentConfig("app:1.0"), running));
+        assertFalse(UserConfigurationCompare.configEqual(createDeploymentConfig("app:1.0"), createDeploymentConfig("app:2.0")));
+    }
+
+    private Deployment createDeployment(String image) {
+        return new DeploymentBuilder()
+            .withNewMetadata()
+              .withName("app")
+              .addToLabels("project", "app")
+              .addToLabels("provider", "fabric8")
+              .addToAnnotations("fabric8.io/git-commit", "cafebabe")
+            .endMetadata()
+            .withNewSpec()
+              .withReplicas(1)
+              .withNewSelector().addToMatchLabels("project", "app").endSelector()
+              .withNewTemplate()
+                .withNewMetadata().addToLabels("project", "app").endMetadata()
+                .withNewSpec()
+                  .addNewContainer()
+                    .withName("app")
+                    .withImage(image)
+                    .addNewEnv().withName("JAVA_OPTIONS").withValue("-Xmx256m").endEnv()
+                    .addNewPort().withContainerPort(8080).withProtocol("TCP").endPort()
+                  .endContainer()
+                .endSpec()
+              .endTemplate()
+            .endSpec()
+            .build();
+    }
+
+    private DeploymentConfig createDeploymentConfig(String image) {
+        return new DeploymentConfigBuilder()
+            .withNewMetadata().withName("app").addToLabels("project", "app").endMetadata()
+            .withNewSpec()
+              .withReplicas(1)
+              .addToSelector("project", "app")
+              .withNewTemplate()
+                .withNewMetadata().addToLabels("project", "app").endMetadata()
+                .withNewSpec()
+                  .addNewContainer().withName("app").withImage(image).endContainer()
+                .endSpec()
+              .endTemplate()
+            .endSpec()
+            .build();
+    }
+}
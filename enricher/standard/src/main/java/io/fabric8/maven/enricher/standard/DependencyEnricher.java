@@ -20,11 +20,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -33,6 +36,7 @@ import java.util.Set;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.common.base.Function;
+import com.google.common.io.ByteStreams;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesList;
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
@@ -45,6 +49,7 @@ import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.openshift.api.model.Template;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
 
 /**
  * Enricher for embedding dependency descriptors to single package.
@@ -57,9 +62,16 @@ public class DependencyEnricher extends BaseEnricher {
     private static String DEPENDENCY_KUBERNETES_TEMPLATE_YAML = "META-INF/fabric8/k8s-template.yml";
     private static String DEPENDENCY_OPENSHIFT_YAML = "META-INF/fabric8/openshift.yml";
 
-    private Set<URL> kubernetesDependencyArtifacts = new HashSet<>();
-    private Set<URL> kubernetesTemplateDependencyArtifacts = new HashSet<>();
-    private Set<URL> openshiftDependencyArtifacts = new HashSet<>();
+    // Index file, relative to the build directory
+    private static String DEPENDENCY_MANIFEST_INDEX = "fabric8/dependency-manifests.idx";
+
+    // Mapper shared for all descriptors
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    private Set<URL> kubernetesDependencyArtifacts = new LinkedHashSet<>();
+    private Set<URL> kubernetesTemplateDependencyArtifacts = new LinkedHashSet<>();
+    private Set<URL> openshiftDependencyArtifacts = new LinkedHashSet<>();
+    private boolean dependencyArtifactsFound;
 
     // Available configuration keys
     private enum Config implements Configs.Key {
@@ -80,20 +92,36 @@ public class DependencyEnricher extends BaseEnricher {
 
     public DependencyEnricher(EnricherContext buildContext) {
         super(buildContext, "fmp-dependency");
+    }
 
-        addArtifactsWithYaml(buildContext, kubernetesDependencyArtifacts, DEPENDENCY_KUBERNETES_YAML);
-        addArtifactsWithYaml(buildContext, kubernetesTemplateDependencyArtifacts, DEPENDENCY_KUBERNETES_TEMPLATE_YAML);
-        addArtifactsWithYaml(buildContext, openshiftDependencyArtifacts, DEPENDENCY_OPENSHIFT_YAML);
+    // Look up the dependencies containing descriptors only when the enricher is actually used
+    private void findDependencyArtifacts() {
+        EnricherContext buildContext = getContext();
+        DependencyManifestIndex index = new DependencyManifestIndex(getIndexFile(buildContext), getLog());
+        addArtifactsWithYaml(buildContext, index, kubernetesDependencyArtifacts, DEPENDENCY_KUBERNETES_YAML);
+        addArtifactsWithYaml(buildContext, index, kubernetesTemplateDependencyArtifacts, DEPENDENCY_KUBERNETES_TEMPLATE_YAML);
+        addArtifactsWithYaml(buildContext, index, openshiftDependencyArtifacts, DEPENDENCY_OPENSHIFT_YAML);
+        index.save();
+    }
 
+    private File getIndexFile(EnricherContext buildContext) {
+        MavenProject project = buildContext.getProject();
+        if (project == null || project.getBuild() == null || project.getBuild().getDirectory() == null) {
+            return null;
+        }
+        return new File(project.getBuild().getDirectory(), DEPENDENCY_MANIFEST_INDEX);
     }
 
-    private void addArtifactsWithYaml(EnricherContext buildContext, Set<URL> artifactSet, String dependencyYaml) {
+    private void addArtifactsWithYaml(EnricherContext buildContext, DependencyManifestIndex index, Set<URL> artifactSet, String dependencyYaml) {
         Set<Artifact> artifacts = isIncludeTransitive() ?
                 buildContext.getProject().getArtifacts() : buildContext.getProject().getDependencyArtifacts();
 
         for (Artifact artifact : artifacts) {
             if (Artifact.SCOPE_COMPILE.equals(artifact.getScope()) && "jar".equals(artifact.getType())) {
                 File file = artifact.getFile();
+                if (file == null || !index.contains(file, dependencyYaml)) {
+                    continue;
+                }
                 try {
                     URL url = new URL("jar:" + file.toURI().toURL() + "!/" + dependencyYaml);
                     artifactSet.add(url);
@@ -121,6 +149,10 @@ public class DependencyEnricher extends BaseEnricher {
 
     @Override
     public void adapt(final KubernetesListBuilder builder) {
+        if (!dependencyArtifactsFound) {
+            findDependencyArtifacts();
+            dependencyArtifactsFound = true;
+        }
         final List<HasMetadata> kubernetesItems = new ArrayList<>();
         processArtifactSetResources(this.kubernetesDependencyArtifacts, new Function<List<HasMetadata>, Void>() {
             @Override
@@ -169,16 +201,17 @@ public class DependencyEnricher extends BaseEnricher {
     }
 
     private void removeTemplateObjects(List<HasMetadata> list, List<HasMetadata> objects) {
+        Set<List<String>> keys = new HashSet<>();
         for (HasMetadata object : objects) {
-            List<HasMetadata> copy = new ArrayList<>(list);
-            for (HasMetadata resource : copy) {
-                if (Objects.equals(resource.getKind(), object.getKind()) &&
-                        Objects.equals(KubernetesHelper.getName(object), KubernetesHelper.getName(resource))) {
-                    list.remove(resource);
-                }
+            keys.add(Arrays.asList(object.getKind(), KubernetesHelper.getName(object)));
+        }
+        Iterator<HasMetadata> it = list.iterator();
+        while (it.hasNext()) {
+            HasMetadata resource = it.next();
+            if (keys.contains(Arrays.asList(resource.getKind(), KubernetesHelper.getName(resource)))) {
+                it.remove();
             }
         }
-
     }
 
     public void filterAndAddItemsToBuilder(KubernetesListBuilder builder, List<HasMetadata> items) {
@@ -210,31 +243,37 @@ public class DependencyEnricher extends BaseEnricher {
     private void processArtifactSetResources(Set<URL> artifactSet, Function<List<HasMetadata>, Void> function) {
         for (URL url : artifactSet) {
             try {
-                InputStream is = url.openStream();
-                if (is != null) {
-                    log.debug("Processing Kubernetes YAML in at: %s", url);
-
-                    KubernetesList resources = new ObjectMapper(new YAMLFactory()).readValue(is, KubernetesList.class);
-                    List<HasMetadata> items = resources.getItems();
-                    if (items.size() == 0 && Objects.equals("Template", resources.getKind())) {
-                        is = url.openStream();
-                        Template template = new ObjectMapper(new YAMLFactory()).readValue(is, Template.class);
-                        if (template != null) {
-                            items.add(template);
-                        }
-                    }
-                    for (HasMetadata item : items) {
-                        KubernetesResourceUtil.setSourceUrlAnnotationIfNotSet(item, url.toString());
-                        log.debug("  found %s  %s", KubernetesHelper.getKind(item), KubernetesHelper.getName(item));
+                byte[] content = readContent(url);
+                log.debug("Processing Kubernetes YAML in at: %s", url);
+
+                KubernetesList resources = YAML_MAPPER.readValue(content, KubernetesList.class);
+                List<HasMetadata> items = resources.getItems();
+                if (items.size() == 0 && Objects.equals("Template", resources.getKind())) {
+                    Template template = YAML_MAPPER.readValue(content, Template.class);
+                    if (template != null) {
+                        items.add(template);
                     }
-                    function.apply(items);
                 }
+                for (HasMetadata item : items) {
+                    KubernetesResourceUtil.setSourceUrlAnnotationIfNotSet(item, url.toString());
+                    log.debug("  found %s  %s", KubernetesHelper.getKind(item), KubernetesHelper.getName(item));
+                }
+                function.apply(items);
             } catch (IOException e) {
                 getLog().debug("Skipping %s: %s", url, e);
             }
         }
     }
 
+    // Read without the JVM wide jar cache so that the jar file gets closed afterwards
+    private byte[] readContent(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        try (InputStream is = connection.getInputStream()) {
+            return ByteStreams.toByteArray(is);
+        }
+    }
+
     protected boolean isIncludePlugin() {
         return Configs.asBoolean(getConfig(Config.includePlugin));
     }
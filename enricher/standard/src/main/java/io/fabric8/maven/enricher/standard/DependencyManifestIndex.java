@@ -0,0 +1,206 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.standard;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Index of the fabric8 resource descriptors (<code>META-INF/fabric8/*.yml</code>) contained in dependency jars,
+ * so that only jars which actually contain descriptors are opened for reading them.
+ *
+ * Jars are keyed by their path, modification time and size. The index is shared by all projects within
+ * a build. The jars looked up for a project are stored in its build directory, so that later builds only need
+ * to scan new or changed jars.
+ */
+class DependencyManifestIndex {
+
+    private static final String MANIFEST_DIR = "META-INF/fabric8/";
+
+    private static final String SEPARATOR = "|";
+
+    // Shared by all enrichers of a build
+    private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private final File indexFile;
+    private final Logger log;
+
+    // Entries as stored in the index file and the entries looked up since
+    private final Properties stored = new Properties();
+    private final Map<String, Entry> used = new TreeMap<>();
+
+    /**
+     * @param indexFile file to load the index from and to store it to. Can be null if the index should not be persisted.
+     * @param log logger
+     */
+    DependencyManifestIndex(File indexFile, Logger log) {
+        this.indexFile = indexFile;
+        this.log = log;
+        load();
+    }
+
+    /**
+     * Check whether the given jar contains a descriptor
+     *
+     * @param jar the jar to check
+     * @param manifest path of the descriptor within the jar
+     * @return true if the jar contains the descriptor
+     */
+    boolean contains(File jar, String manifest) {
+        return getEntry(jar).manifests.contains(manifest);
+    }
+
+    /**
+     * Store the entries of the jars looked up, if they differ from the stored ones
+     */
+    void save() {
+        if (indexFile == null) {
+            return;
+        }
+        Properties props = new Properties();
+        for (Map.Entry<String, Entry> entry : used.entrySet()) {
+            props.setProperty(entry.getKey(), entry.getValue().serialize());
+        }
+        if (props.equals(stored)) {
+            return;
+        }
+        File dir = indexFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            log.debug("Cannot create directory %s for the dependency manifest index", dir);
+            return;
+        }
+        try (OutputStream os = new FileOutputStream(indexFile)) {
+            props.store(os, "fabric8 resource descriptors contained in dependency jars");
+            stored.clear();
+            stored.putAll(props);
+        } catch (IOException e) {
+            log.debug("Cannot store dependency manifest index %s: %s", indexFile, e);
+        }
+    }
+
+    // ==========================================================================================
+
+    private Entry getEntry(File jar) {
+        String key = jar.getAbsolutePath();
+        long lastModified = jar.lastModified();
+        long length = jar.length();
+        Entry entry = ENTRIES.get(key);
+        if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+            entry = new Entry(lastModified, length, scan(jar));
+            ENTRIES.put(key, entry);
+        }
+        used.put(key, entry);
+        return entry;
+    }
+
+    private Set<String> scan(File jar) {
+        if (!jar.isFile()) {
+            return Collections.emptySet();
+        }
+        Set<String> ret = new LinkedHashSet<>();
+        try (ZipFile zip = new ZipFile(jar)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(MANIFEST_DIR) && name.endsWith(".yml") && name.indexOf('/', MANIFEST_DIR.length()) < 0) {
+                    ret.add(name);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Cannot scan %s for resource descriptors: %s", jar, e);
+        }
+        return ret;
+    }
+
+    private void load() {
+        if (indexFile == null) {
+            return;
+        }
+        if (!indexFile.isFile()) {
+            return;
+        }
+        try (InputStream is = new FileInputStream(indexFile)) {
+            stored.load(is);
+        } catch (IOException e) {
+            log.debug("Cannot read dependency manifest index %s: %s", indexFile, e);
+            stored.clear();
+            return;
+        }
+        for (String key : stored.stringPropertyNames()) {
+            Entry entry = Entry.deserialize(stored.getProperty(key));
+            if (entry != null && !ENTRIES.containsKey(key)) {
+                ENTRIES.put(key, entry);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final long lastModified;
+        private final long length;
+        private final Set<String> manifests;
+
+        private Entry(long lastModified, long length, Set<String> manifests) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.manifests = manifests;
+        }
+
+        private String serialize() {
+            StringBuilder ret = new StringBuilder();
+            ret.append(lastModified).append(SEPARATOR).append(length);
+            for (String manifest : manifests) {
+                ret.append(SEPARATOR).append(manifest);
+            }
+            return ret.toString();
+        }
+
+        private static Entry deserialize(String value) {
+            String[] parts = value.split(Pattern.quote(SEPARATOR));
+            if (parts.length < 2) {
+                return null;
+            }
+            try {
+                Set<String> manifests = new LinkedHashSet<>();
+                for (int i = 2; i < parts.length; i++) {
+                    if (StringUtils.isNotBlank(parts[i])) {
+                        manifests.add(parts[i]);
+                    }
+                }
+                return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), manifests);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
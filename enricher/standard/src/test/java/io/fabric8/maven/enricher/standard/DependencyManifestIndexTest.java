@@ -0,0 +1,99 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.standard;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Properties;
+
+import io.fabric8.maven.docker.util.Logger;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JMockit.class)
+public class DependencyManifestIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mocked
+    private Logger log;
+
+    @Test
+    public void indexAndStore() throws Exception {
+        File jar = new File(getClass().getResource("/jenkins-4.0.41.jar").toURI());
+        File indexFile = new File(temporaryFolder.getRoot(), "fabric8/dependency-manifests.idx");
+
+        DependencyManifestIndex index = new DependencyManifestIndex(indexFile, log);
+        assertTrue(index.contains(jar, "META-INF/fabric8/kubernetes.yml"));
+        assertTrue(index.contains(jar, "META-INF/fabric8/openshift.yml"));
+        assertFalse(index.contains(jar, "META-INF/fabric8/openshift.json"));
+        assertFalse(index.contains(jar, "META-INF/fabric8/kubernetes/jenkins-svc.yml"));
+        index.save();
+
+        Properties props = new Properties();
+        try (InputStream is = new FileInputStream(indexFile)) {
+            props.load(is);
+        }
+        String entry = props.getProperty(jar.getAbsolutePath());
+        assertEquals(jar.lastModified() + "|" + jar.length() +
+                     "|META-INF/fabric8/k8s-template.yml|META-INF/fabric8/kubernetes.yml|META-INF/fabric8/openshift.yml",
+                     entry);
+    }
+
+    @Test
+    public void storeOnlyJarsLookedUp() throws Exception {
+        File jar = new File(getClass().getResource("/jenkins-4.0.41.jar").toURI());
+        File otherJar = new File(temporaryFolder.getRoot(), "other.jar");
+
+        // Entry of another project of the same build
+        new DependencyManifestIndex(null, log).contains(otherJar, "META-INF/fabric8/kubernetes.yml");
+
+        File indexFile = new File(temporaryFolder.getRoot(), "project/dependency-manifests.idx");
+        DependencyManifestIndex index = new DependencyManifestIndex(indexFile, log);
+        assertTrue(index.contains(jar, "META-INF/fabric8/kubernetes.yml"));
+        index.save();
+
+        Properties props = new Properties();
+        try (InputStream is = new FileInputStream(indexFile)) {
+            props.load(is);
+        }
+        assertEquals(Collections.singleton(jar.getAbsolutePath()), props.stringPropertyNames());
+
+        // Not rewritten if nothing changed
+        assertTrue(indexFile.setLastModified(1000L));
+        index = new DependencyManifestIndex(indexFile, log);
+        assertTrue(index.contains(jar, "META-INF/fabric8/kubernetes.yml"));
+        index.save();
+        assertEquals(1000L, indexFile.lastModified());
+    }
+
+    @Test
+    public void missingJar() throws Exception {
+        DependencyManifestIndex index = new DependencyManifestIndex(null, log);
+        assertFalse(index.contains(new File(temporaryFolder.getRoot(), "missing.jar"), "META-INF/fabric8/kubernetes.yml"));
+    }
+}
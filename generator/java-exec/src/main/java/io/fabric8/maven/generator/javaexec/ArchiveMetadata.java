@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.generator.javaexec;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Manifest and central directory of a jar or war archive. The archive is read only once as long
+ * as its size and modification time do not change, and is closed right after reading.
+ */
+public class ArchiveMetadata {
+
+    // Metadata by absolute path of the archive, shared by all generators within a build
+    private static final Map<String, ArchiveMetadata> CACHE = new ConcurrentHashMap<>();
+
+    private final File archiveFile;
+    private final long length;
+    private final long lastModified;
+    private final Attributes mainAttributes;
+    private final Map<String, long[]> entries;
+
+    private ArchiveMetadata(File archiveFile, long length, long lastModified, Attributes mainAttributes, Map<String, long[]> entries) {
+        this.archiveFile = archiveFile;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.mainAttributes = mainAttributes;
+        this.entries = entries;
+    }
+
+    /**
+     * Get the metadata of an archive
+     *
+     * @param archiveFile the archive to read
+     * @return the metadata of the archive
+     * @throws IOException if the archive cannot be read
+     */
+    public static ArchiveMetadata read(File archiveFile) throws IOException {
+        String key = archiveFile.getAbsolutePath();
+        ArchiveMetadata metadata = CACHE.get(key);
+        if (metadata == null || metadata.length != archiveFile.length() || metadata.lastModified != archiveFile.lastModified()) {
+            metadata = readArchive(archiveFile);
+            CACHE.put(key, metadata);
+        }
+        return metadata;
+    }
+
+    public File getArchiveFile() {
+        return archiveFile;
+    }
+
+    /**
+     * Get the main attributes of the manifest
+     *
+     * @return the main attributes or null if the archive has no manifest
+     */
+    public Attributes getMainAttributes() {
+        return mainAttributes;
+    }
+
+    /**
+     * Check whether the archive contains an entry with the given content
+     *
+     * @param name name of the entry
+     * @param size uncompressed size of the content
+     * @param crc CRC-32 checksum of the content
+     * @return true if the archive has such an entry
+     */
+    public boolean hasEntry(String name, long size, long crc) {
+        long[] sizeAndCrc = entries.get(name);
+        return sizeAndCrc != null && sizeAndCrc[0] == size && sizeAndCrc[1] == crc;
+    }
+
+    private static ArchiveMetadata readArchive(File archiveFile) throws IOException {
+        long length = archiveFile.length();
+        long lastModified = archiveFile.lastModified();
+        try (JarFile archive = new JarFile(archiveFile)) {
+            Manifest manifest = archive.getManifest();
+            Map<String, long[]> entries = new HashMap<>();
+            Enumeration<JarEntry> jarEntries = archive.entries();
+            while (jarEntries.hasMoreElements()) {
+                JarEntry entry = jarEntries.nextElement();
+                entries.put(entry.getName(), new long[] { entry.getSize(), entry.getCrc() });
+            }
+            return new ArchiveMetadata(archiveFile, length, lastModified,
+                                       manifest != null ? manifest.getMainAttributes() : null,
+                                       Collections.unmodifiableMap(entries));
+        }
+    }
+}
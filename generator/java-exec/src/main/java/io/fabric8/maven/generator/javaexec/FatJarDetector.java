@@ -19,8 +19,6 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.jar.Attributes;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
 
 import org.apache.maven.plugin.MojoExecutionException;
 
@@ -59,9 +57,7 @@ public class FatJarDetector {
             for (String jarOrWar : jarOrWars) {
                 File archiveFile = new File(directory, jarOrWar);
                 try {
-                    JarFile archive = new JarFile(archiveFile);
-                    Manifest mf = archive.getManifest();
-                    Attributes mainAttributes = mf.getMainAttributes();
+                    Attributes mainAttributes = ArchiveMetadata.read(archiveFile).getMainAttributes();
                     if (mainAttributes != null) {
                         String mainClass = mainAttributes.getValue("Main-Class");
                         if (mainClass != null) {
@@ -74,7 +70,7 @@ public class FatJarDetector {
                         }
                     }
                 } catch (IOException e) {
-                    throw new MojoExecutionException("Cannot examine file " + archiveFile + " for the manifest");
+                    throw new MojoExecutionException("Cannot examine file " + archiveFile + " for the manifest", e);
                 }
             }
         }
@@ -53,6 +53,9 @@ public class JavaExecGenerator extends BaseGenerator {
         "org.apache.maven.plugins:maven-shade-plugin"
     };
 
+    // Results of the main class detection, relative to the build directory
+    private static final String MAIN_CLASS_CACHE = "fabric8/main-classes.idx";
+
     private final FatJarDetector fatJarDetector;
     private final MainClassDetector mainClassDetector;
 
@@ -65,6 +68,7 @@ public class JavaExecGenerator extends BaseGenerator {
         fatJarDetector = new FatJarDetector(getProject().getBuild().getDirectory());
         mainClassDetector = new MainClassDetector(getConfig(Config.mainClass),
                                                   new File(getProject().getBuild().getOutputDirectory()),
+                                                  new File(getProject().getBuild().getDirectory(), MAIN_CLASS_CACHE),
                                                   context.getLogger());
     }
 
@@ -31,11 +31,13 @@ class MainClassDetector {
 
     private String mainClass = null;
     private final File classesDir;
+    private final File cacheFile;
     private final Logger log;
 
-    MainClassDetector(String mainClass, File classesDir, Logger log) {
+    MainClassDetector(String mainClass, File classesDir, File cacheFile, Logger log) {
         this.mainClass = mainClass;
         this.classesDir = classesDir;
+        this.cacheFile = cacheFile;
         this.log = log;
     }
 
@@ -46,7 +48,7 @@ class MainClassDetector {
 
         // Try to detect a single main class from target/classes
         try {
-            List<String> foundMainClasses = ClassUtil.findMainClasses(classesDir);
+            List<String> foundMainClasses = ClassUtil.findMainClasses(classesDir, cacheFile);
             if (foundMainClasses.size() == 0) {
                 return mainClass = null;
             } else if (foundMainClasses.size() == 1) {
@@ -0,0 +1,313 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.generator.springboot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import io.fabric8.maven.generator.javaexec.ArchiveMetadata;
+
+/**
+ * Adds files to a zip archive in place. The new entries are written over the central directory,
+ * followed by a new central directory which references the untouched existing entries and the new ones.
+ * Entries which are replaced stay in the archive as unreferenced data, so the existing content of the
+ * archive is neither read nor copied. If adding the entries fails, the old central directory is written back
+ * so that the archive stays usable.
+ *
+ * Only plain zip archives (no Zip64, not spanned) are supported.
+ */
+class FatJarAppender {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int END_LENGTH = 22;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+    private static final int MAX_COMMENT_LENGTH = 0xffff;
+
+    // Entry names are UTF-8 encoded
+    private static final int FLAG_UTF8 = 0x800;
+
+    private final File archive;
+
+    FatJarAppender(File archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Add files to the archive, replacing existing entries with the same name. Files which are already
+     * contained with the same content are skipped.
+     *
+     * @param files the files to add by their entry name
+     * @return false if the archive cannot be updated in place, in which case it is left untouched
+     * @throws IOException if reading or writing fails
+     */
+    boolean append(Map<String, File> files) throws IOException {
+        ArchiveMetadata metadata = ArchiveMetadata.read(archive);
+        Map<String, NewEntry> newEntries = new LinkedHashMap<>();
+        for (Map.Entry<String, File> file : files.entrySet()) {
+            NewEntry entry = new NewEntry(file.getKey(), file.getValue());
+            if (!metadata.hasEntry(entry.name, entry.size, entry.crc)) {
+                newEntries.put(entry.name, entry);
+            }
+        }
+        if (newEntries.isEmpty()) {
+            return true;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(archive, "rw")) {
+            long endPosition = findEndOfCentralDirectory(raf);
+            if (endPosition < 0 || isZip64(raf, endPosition)) {
+                return false;
+            }
+            ByteBuffer end = read(raf, endPosition, END_LENGTH);
+            int disk = end.getShort(4) & 0xffff;
+            int centralDirectoryDisk = end.getShort(6) & 0xffff;
+            long centralDirectorySize = end.getInt(12) & 0xffffffffL;
+            long centralDirectoryOffset = end.getInt(16) & 0xffffffffL;
+            int commentLength = end.getShort(20) & 0xffff;
+            if (disk != 0 || centralDirectoryDisk != 0) {
+                return false;
+            }
+            // Offsets are relative to the start of the zip data, which might be preceded by e.g. a launch script
+            long centralDirectoryPosition = endPosition - centralDirectorySize;
+            long zipStart = centralDirectoryPosition - centralDirectoryOffset;
+            if (zipStart < 0) {
+                return false;
+            }
+
+            ByteBuffer centralDirectory = read(raf, centralDirectoryPosition, (int) centralDirectorySize);
+            List<byte[]> centralHeaders = readCentralHeaders(centralDirectory, newEntries);
+            if (centralHeaders == null) {
+                return false;
+            }
+            byte[] comment = read(raf, endPosition + END_LENGTH, commentLength).array();
+            long oldLength = raf.length();
+
+            // Check the size limits before modifying the archive
+            long newLength = centralDirectoryPosition + centralDirectorySize + END_LENGTH + commentLength;
+            for (NewEntry entry : newEntries.values()) {
+                newLength += 2 * (entry.nameBytes.length + CENTRAL_HEADER_LENGTH) + entry.size;
+            }
+            if (newLength - zipStart >= 0xffffffffL || centralHeaders.size() + newEntries.size() >= 0xffff) {
+                return false;
+            }
+
+            raf.seek(centralDirectoryPosition);
+            try {
+                for (NewEntry entry : newEntries.values()) {
+                    long localHeaderOffset = raf.getFilePointer() - zipStart;
+                    raf.write(entry.createLocalHeader());
+                    entry.copyContent(raf);
+                    centralHeaders.add(entry.createCentralHeader(localHeaderOffset));
+                }
+            } catch (IOException | RuntimeException e) {
+                // Put back the old central directory over the partially written entries
+                try {
+                    raf.seek(centralDirectoryPosition);
+                    raf.write(centralDirectory.array());
+                    raf.write(end.array());
+                    raf.write(comment);
+                    raf.setLength(oldLength);
+                } catch (IOException restoreException) {
+                    e.addSuppressed(restoreException);
+                }
+                throw e;
+            }
+
+            long newCentralDirectoryPosition = raf.getFilePointer();
+            for (byte[] header : centralHeaders) {
+                raf.write(header);
+            }
+            long newCentralDirectorySize = raf.getFilePointer() - newCentralDirectoryPosition;
+
+            ByteBuffer newEnd = ByteBuffer.allocate(END_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            newEnd.putInt(END_SIGNATURE)
+                  .putShort((short) 0)
+                  .putShort((short) 0)
+                  .putShort((short) centralHeaders.size())
+                  .putShort((short) centralHeaders.size())
+                  .putInt((int) newCentralDirectorySize)
+                  .putInt((int) (newCentralDirectoryPosition - zipStart))
+                  .putShort((short) comment.length);
+            raf.write(newEnd.array());
+            raf.write(comment);
+            raf.setLength(raf.getFilePointer());
+        }
+        return true;
+    }
+
+    // ========================================================================
+
+    // Headers of the existing entries which are not replaced, or null if the central directory cannot be parsed
+    private List<byte[]> readCentralHeaders(ByteBuffer centralDirectory, Map<String, NewEntry> newEntries) {
+        List<byte[]> headers = new ArrayList<>();
+        int position = 0;
+        while (position < centralDirectory.limit()) {
+            if (position + CENTRAL_HEADER_LENGTH > centralDirectory.limit() ||
+                centralDirectory.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                return null;
+            }
+            int nameLength = centralDirectory.getShort(position + 28) & 0xffff;
+            int extraLength = centralDirectory.getShort(position + 30) & 0xffff;
+            int commentLength = centralDirectory.getShort(position + 32) & 0xffff;
+            int length = CENTRAL_HEADER_LENGTH + nameLength + extraLength + commentLength;
+            if (position + length > centralDirectory.limit()) {
+                return null;
+            }
+            byte[] header = new byte[length];
+            centralDirectory.position(position);
+            centralDirectory.get(header);
+            String name = new String(header, CENTRAL_HEADER_LENGTH, nameLength, StandardCharsets.UTF_8);
+            if (!newEntries.containsKey(name)) {
+                headers.add(header);
+            }
+            position += length;
+        }
+        return headers;
+    }
+
+    private long findEndOfCentralDirectory(RandomAccessFile raf) throws IOException {
+        long length = raf.length();
+        if (length < END_LENGTH) {
+            return -1;
+        }
+        int searchLength = (int) Math.min(length, END_LENGTH + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = read(raf, length - searchLength, searchLength);
+        for (int i = searchLength - END_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE && (tail.getShort(i + 20) & 0xffff) == searchLength - END_LENGTH - i) {
+                return length - searchLength + i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isZip64(RandomAccessFile raf, long endPosition) throws IOException {
+        return endPosition >= ZIP64_LOCATOR_LENGTH &&
+               read(raf, endPosition - ZIP64_LOCATOR_LENGTH, 4).getInt(0) == ZIP64_LOCATOR_SIGNATURE;
+    }
+
+    private ByteBuffer read(RandomAccessFile raf, long position, int length) throws IOException {
+        byte[] data = new byte[length];
+        raf.seek(position);
+        raf.readFully(data);
+        return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // A file to be added as an uncompressed entry
+    private static class NewEntry {
+        private final String name;
+        private final byte[] nameBytes;
+        private final File file;
+        private final long size;
+        private final long crc;
+        private final int dosTime;
+        private final int dosDate;
+
+        private NewEntry(String name, File file) throws IOException {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.file = file;
+
+            CRC32 checksum = new CRC32();
+            long bytes = 0;
+            byte[] buffer = new byte[8192];
+            try (InputStream is = new FileInputStream(file)) {
+                for (int read = is.read(buffer); read > -1; read = is.read(buffer)) {
+                    checksum.update(buffer, 0, read);
+                    bytes += read;
+                }
+            }
+            this.size = bytes;
+            this.crc = checksum.getValue();
+
+            Calendar time = Calendar.getInstance();
+            time.setTimeInMillis(file.lastModified());
+            int year = Math.max(time.get(Calendar.YEAR), 1980);
+            this.dosTime = (time.get(Calendar.HOUR_OF_DAY) << 11) | (time.get(Calendar.MINUTE) << 5) | (time.get(Calendar.SECOND) >> 1);
+            this.dosDate = ((year - 1980) << 9) | ((time.get(Calendar.MONTH) + 1) << 5) | time.get(Calendar.DAY_OF_MONTH);
+        }
+
+        private byte[] createLocalHeader() {
+            ByteBuffer header = ByteBuffer.allocate(30 + nameBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(LOCAL_HEADER_SIGNATURE)
+                  .putShort((short) 10)
+                  .putShort((short) FLAG_UTF8)
+                  .putShort((short) 0)
+                  .putShort((short) dosTime)
+                  .putShort((short) dosDate)
+                  .putInt((int) crc)
+                  .putInt((int) size)
+                  .putInt((int) size)
+                  .putShort((short) nameBytes.length)
+                  .putShort((short) 0)
+                  .put(nameBytes);
+            return header.array();
+        }
+
+        private byte[] createCentralHeader(long localHeaderOffset) {
+            ByteBuffer header = ByteBuffer.allocate(CENTRAL_HEADER_LENGTH + nameBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(CENTRAL_HEADER_SIGNATURE)
+                  .putShort((short) 20)
+                  .putShort((short) 10)
+                  .putShort((short) FLAG_UTF8)
+                  .putShort((short) 0)
+                  .putShort((short) dosTime)
+                  .putShort((short) dosDate)
+                  .putInt((int) crc)
+                  .putInt((int) size)
+                  .putInt((int) size)
+                  .putShort((short) nameBytes.length)
+                  .putShort((short) 0)
+                  .putShort((short) 0)
+                  .putShort((short) 0)
+                  .putShort((short) 0)
+                  .putInt(0)
+                  .putInt((int) localHeaderOffset)
+                  .put(nameBytes);
+            return header.array();
+        }
+
+        private void copyContent(RandomAccessFile raf) throws IOException {
+            byte[] buffer = new byte[8192];
+            long written = 0;
+            try (InputStream is = new FileInputStream(file)) {
+                for (int read = is.read(buffer); read > -1; read = is.read(buffer)) {
+                    raf.write(buffer, 0, read);
+                    written += read;
+                }
+            }
+            if (written != size) {
+                throw new IOException("File " + file + " changed while adding it to " + name);
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -159,6 +160,21 @@ public class SpringBootGenerator extends JavaExecGenerator {
     }
 
     private void copyFilesToFatJar(List<File> libs, List<File> classes, File target) throws IOException {
+        Map<String, File> files = new LinkedHashMap<>();
+        for (File lib : libs) {
+            files.put(getFatJarFullPath(lib, true), lib);
+        }
+        for (File cls : classes) {
+            files.put(getFatJarFullPath(cls, false), cls);
+        }
+        // Update the jar in place if possible, so that its existing content needs not to be copied
+        if (!new FatJarAppender(target).append(files)) {
+            log.verbose("Cannot update %s in place, rewriting it", target);
+            rewriteFatJar(libs, classes, target);
+        }
+    }
+
+    private void rewriteFatJar(List<File> libs, List<File> classes, File target) throws IOException {
         File tmpZip = File.createTempFile(target.getName(), null);
         tmpZip.delete();
 
@@ -166,8 +182,14 @@ public class SpringBootGenerator extends JavaExecGenerator {
         FileUtils.moveFile(target, tmpZip);
 
         byte[] buffer = new byte[8192];
-        ZipInputStream zin = new ZipInputStream(new FileInputStream(tmpZip));
-        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(target));
+        try (ZipInputStream zin = new ZipInputStream(new FileInputStream(tmpZip));
+             ZipOutputStream out = new ZipOutputStream(new FileOutputStream(target))) {
+            copyEntries(zin, out, libs, classes, buffer);
+        }
+        tmpZip.delete();
+    }
+
+    private void copyEntries(ZipInputStream zin, ZipOutputStream out, List<File> libs, List<File> classes, byte[] buffer) throws IOException {
         for (ZipEntry ze = zin.getNextEntry(); ze != null; ze = zin.getNextEntry()) {
             if (matchesFatJarEntry(libs, ze.getName(), true) || matchesFatJarEntry(classes, ze.getName(), false)) {
                 continue;
@@ -198,9 +220,6 @@ public class SpringBootGenerator extends JavaExecGenerator {
                 out.closeEntry();
             }
         }
-
-        out.close();
-        tmpZip.delete();
     }
 
     private boolean matchesFatJarEntry(List<File> fatJarEntries, String path, boolean lib) {
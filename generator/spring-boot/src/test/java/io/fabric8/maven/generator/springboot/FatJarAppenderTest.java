@@ -0,0 +1,175 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.generator.springboot;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.integration.junit4.JMockit;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JMockit.class)
+public class FatJarAppenderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void appendAndReplace() throws IOException {
+        checkAppend("");
+    }
+
+    @Test
+    public void appendWithLaunchScript() throws IOException {
+        checkAppend("#!/bin/bash\necho 'launch script'\nexit 0\n");
+    }
+
+    @Test
+    public void unchangedFilesAreSkipped() throws IOException {
+        File jar = createJar("");
+        File props = createFile("application.properties", "a=b\n");
+        Map<String, File> files = new LinkedHashMap<>();
+        files.put("BOOT-INF/classes/application.properties", props);
+        assertTrue(new FatJarAppender(jar).append(files));
+
+        byte[] content = Files.readAllBytes(jar.toPath());
+        assertTrue(new FatJarAppender(jar).append(files));
+        assertEquals(content.length, Files.readAllBytes(jar.toPath()).length);
+    }
+
+    @Test
+    public void failedAppendKeepsArchive() throws Exception {
+        File jar = createJar("");
+        byte[] content = Files.readAllBytes(jar.toPath());
+        Map<String, File> files = new LinkedHashMap<>();
+        files.put("BOOT-INF/lib/devtools.jar", createFile("devtools.jar", "devtools content"));
+        files.put("BOOT-INF/classes/application.properties", createFile("application.properties", "a=b\n"));
+
+        // The second entry fails after its content has been written over the central directory
+        new MockUp<Object>(Class.forName(FatJarAppender.class.getName() + "$NewEntry")) {
+            @Mock
+            void copyContent(Invocation invocation, RandomAccessFile raf) throws IOException {
+                invocation.proceed(raf);
+                if (invocation.getInvocationCount() == 2) {
+                    throw new IOException("File changed while adding it");
+                }
+            }
+        };
+        try {
+            new FatJarAppender(jar).append(files);
+            fail("Failure not reported");
+        } catch (IOException e) {
+            assertEquals("File changed while adding it", e.getMessage());
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(jar.toPath()));
+        try (JarFile result = new JarFile(jar)) {
+            assertEquals("old=true\n", read(result, "BOOT-INF/classes/application.properties"));
+            assertEquals(4, result.size());
+        }
+    }
+
+    private void checkAppend(String prefix) throws IOException {
+        File jar = createJar(prefix);
+        File lib = createFile("devtools.jar", "devtools content");
+        File props = createFile("application.properties", "spring.devtools.remote.secret=42\n");
+
+        Map<String, File> files = new LinkedHashMap<>();
+        files.put("BOOT-INF/lib/devtools.jar", lib);
+        files.put("BOOT-INF/classes/application.properties", props);
+        assertTrue(new FatJarAppender(jar).append(files));
+
+        assertTrue(new String(Files.readAllBytes(jar.toPath()), StandardCharsets.UTF_8).startsWith(prefix));
+        try (JarFile result = new JarFile(jar)) {
+            assertEquals("org.springframework.boot.loader.JarLauncher", result.getManifest().getMainAttributes().getValue("Main-Class"));
+            assertEquals("compressed content", read(result, "BOOT-INF/classes/Compressed.txt"));
+            assertEquals("stored content", read(result, "BOOT-INF/lib/stored.jar"));
+            assertEquals("devtools content", read(result, "BOOT-INF/lib/devtools.jar"));
+            assertEquals("spring.devtools.remote.secret=42\n", read(result, "BOOT-INF/classes/application.properties"));
+            assertEquals(ZipEntry.STORED, result.getEntry("BOOT-INF/lib/devtools.jar").getMethod());
+            assertEquals(5, result.size());
+        }
+    }
+
+    private File createJar(String prefix) throws IOException {
+        File jar = temporaryFolder.newFile();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Main-Class", "org.springframework.boot.loader.JarLauncher");
+        try (OutputStream os = new FileOutputStream(jar)) {
+            os.write(prefix.getBytes(StandardCharsets.UTF_8));
+            try (JarOutputStream out = new JarOutputStream(os, manifest)) {
+                out.putNextEntry(new ZipEntry("BOOT-INF/classes/Compressed.txt"));
+                out.write("compressed content".getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+
+                byte[] stored = "stored content".getBytes(StandardCharsets.UTF_8);
+                ZipEntry storedEntry = new ZipEntry("BOOT-INF/lib/stored.jar");
+                storedEntry.setMethod(ZipEntry.STORED);
+                storedEntry.setSize(stored.length);
+                CRC32 crc = new CRC32();
+                crc.update(stored);
+                storedEntry.setCrc(crc.getValue());
+                out.putNextEntry(storedEntry);
+                out.write(stored);
+                out.closeEntry();
+
+                out.putNextEntry(new ZipEntry("BOOT-INF/classes/application.properties"));
+                out.write("old=true\n".getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        File file = new File(temporaryFolder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String read(JarFile jar, String name) throws IOException {
+        try (InputStream is = jar.getInputStream(jar.getEntry(name))) {
+            return IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.plugin.enricher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.builder.TypedVisitor;
+import io.fabric8.kubernetes.api.builder.Visitor;
+
+/**
+ * Visitor which dispatches every visited builder to all given typed visitors which
+ * can handle the builder's type. This allows to apply several visitors with a single walk
+ * over a builder tree instead of one walk per visitor.
+ *
+ * Builders are handed to the visitors in the order in which the visitors have been given.
+ */
+class DispatchingVisitor implements Visitor<Object> {
+
+    private final List<TypedVisitor<?>> visitors = new ArrayList<>();
+    private final List<Class<?>> visitorTypes = new ArrayList<>();
+
+    // Visitors to call, looked up once per builder class
+    private final Map<Class<?>, List<TypedVisitor<?>>> visitorsByClass = new HashMap<>();
+
+    DispatchingVisitor(TypedVisitor<?>[]... visitorGroups) {
+        for (TypedVisitor<?>[] group : visitorGroups) {
+            for (TypedVisitor<?> visitor : Arrays.asList(group)) {
+                visitors.add(visitor);
+                visitorTypes.add(visitor.getType());
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void visit(Object item) {
+        // Safe, as only visitors whose type is assignable from the item's class are returned
+        for (TypedVisitor<?> visitor : getVisitors(item.getClass())) {
+            ((TypedVisitor<Object>) visitor).visit(item);
+        }
+    }
+
+    private List<TypedVisitor<?>> getVisitors(Class<?> clazz) {
+        List<TypedVisitor<?>> ret = visitorsByClass.get(clazz);
+        if (ret == null) {
+            ret = new ArrayList<>();
+            for (int i = 0; i < visitors.size(); i++) {
+                if (visitorTypes.get(i).isAssignableFrom(clazz)) {
+                    ret.add(visitors.get(i));
+                }
+            }
+            visitorsByClass.put(clazz, ret);
+        }
+        return ret;
+    }
+}
@@ -15,7 +15,12 @@
  */
 package io.fabric8.maven.plugin.enricher;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -58,6 +63,20 @@ public class EnricherManager {
     private final MetadataVisitor<?>[] metaDataVisitors;
     private final SelectorVisitor<?>[] selectorVisitorCreators;
 
+    // Visitor applying all of the visitors above with a single walk
+    private final DispatchingVisitor enrichVisitor;
+
+    // Enrichers selected by a processor config, computed only once per includes and excludes. The key is a
+    // copy of them, as processor configs are mutable.
+    private final Map<List<?>, List<Enricher>> filteredEnrichers = new HashMap<>();
+
+    // Labels, annotations and selectors per kind as extracted from the enrichers. This cache is only
+    // valid for the processor config it has been created for and only during a single walk in
+    // enrichLabelsAndSelectors(), since enrichers may return other values after resources have been
+    // added or adapted. Outside of this walk it is null and values are always extracted freshly.
+    private ProcessorConfig extractCacheConfig;
+    private Map<Extractor, Map<Kind, Map<String, String>>> extractCache;
+
     public EnricherManager(ResourceConfig resourceConfig, EnricherContext enricherContext) {
         PluginServiceFactory<EnricherContext> pluginFactory = new PluginServiceFactory<>(enricherContext);
 
@@ -81,7 +100,7 @@ public class EnricherManager {
             annotationConfig = null;
         }
 
-        logEnrichers(filterEnrichers(defaultEnricherConfig, enrichers));
+        logEnrichers(filterEnrichers(defaultEnricherConfig));
 
         metaDataVisitors = new MetadataVisitor[] {
             new MetadataVisitor.DeploymentBuilderVisitor(resourceConfig, this),
@@ -103,6 +122,8 @@ public class EnricherManager {
             new SelectorVisitor.StatefulSetSpecBuilderVisitor(this),
             new SelectorVisitor.JobSpecBuilderVisitor(this)
         };
+
+        enrichVisitor = new DispatchingVisitor(metaDataVisitors, selectorVisitorCreators);
     }
 
     public void createDefaultResources(final KubernetesListBuilder builder) {
@@ -125,11 +146,8 @@ public class EnricherManager {
     }
 
     public void enrich(ProcessorConfig config, KubernetesListBuilder builder) {
-        // Enrich labels
-        enrichLabels(config, builder);
-
-        // Add missing selectors
-        addMissingSelectors(config, builder);
+        // Enrich labels and add missing selectors
+        enrichLabelsAndSelectors(config, builder);
 
         // Final customization step
         adapt(config, builder);
@@ -147,28 +165,24 @@ public class EnricherManager {
     }
 
     /**
-     * Enrich the given list with labels.
-     *
-     * @param builder the build to enrich with labels
-     */
-    private void enrichLabels(ProcessorConfig config, KubernetesListBuilder builder) {
-        visit(config, builder, metaDataVisitors);
-    }
-
-    /**
-     * Add selector when missing to services and replication controller / replica sets
+     * Enrich the given list with labels and add selectors when missing to services and replication controller / replica sets.
+     * All label and selector visitors are applied within a single walk over the builder.
      *
      * @param config processor config to use
-     * @param builder builder to add selectors to.
+     * @param builder builder to enrich
      */
-    private void addMissingSelectors(ProcessorConfig config, KubernetesListBuilder builder) {
+    private void enrichLabelsAndSelectors(ProcessorConfig config, KubernetesListBuilder builder) {
+        MetadataVisitor.setProcessorConfig(config);
         SelectorVisitor.setProcessorConfig(config);
+        extractCacheConfig = config;
+        extractCache = new EnumMap<>(Extractor.class);
         try {
-            for (SelectorVisitor<?> visitor : selectorVisitorCreators) {
-                builder.accept(visitor);
-            }
+            builder.accept(enrichVisitor);
         } finally {
+            extractCache = null;
+            extractCacheConfig = null;
             SelectorVisitor.clearProcessorConfig();
+            MetadataVisitor.clearProcessorConfig();
         }
     }
 
@@ -208,19 +222,38 @@ public class EnricherManager {
     }
 
 
-    private List<Enricher> filterEnrichers(ProcessorConfig config, List<Enricher> enrichers) {
-        return config.prepareProcessors(enrichers, "enricher");
+    List<Enricher> filterEnrichers(ProcessorConfig config) {
+        List<?> key = Arrays.asList(new ArrayList<>(config.getIncludes()), new HashSet<>(config.getExcludes()));
+        List<Enricher> ret = filteredEnrichers.get(key);
+        if (ret == null) {
+            ret = config.prepareProcessors(enrichers, "enricher");
+            filteredEnrichers.put(key, ret);
+        }
+        return ret;
     }
 
     private void loop(ProcessorConfig config, Function<Enricher, Void> function) {
-        for (Enricher enricher : filterEnrichers(config,enrichers)) {
+        for (Enricher enricher : filterEnrichers(config)) {
             function.apply(enricher);
         }
     }
 
     private Map<String, String> extract(ProcessorConfig config, Extractor extractor, Kind kind) {
+        if (extractCache == null || config != extractCacheConfig) {
+            return extractFromEnrichers(config, extractor, kind);
+        }
+        Map<Kind, Map<String, String>> cachePerKind = extractCache.computeIfAbsent(extractor, k -> new EnumMap<>(Kind.class));
+        Map<String, String> ret = cachePerKind.get(kind);
+        if (ret == null) {
+            ret = Collections.unmodifiableMap(extractFromEnrichers(config, extractor, kind));
+            cachePerKind.put(kind, ret);
+        }
+        return ret;
+    }
+
+    private Map<String, String> extractFromEnrichers(ProcessorConfig config, Extractor extractor, Kind kind) {
         Map <String, String> ret = new HashMap<>();
-        for (Enricher enricher : filterEnrichers(config, enrichers)) {
+        for (Enricher enricher : filterEnrichers(config)) {
             putAllIfNotNull(ret, extractor.extract(enricher, kind));
         }
         return ret;
@@ -254,15 +287,4 @@ public class EnricherManager {
             ret.putAll(toPut);
         }
     }
-
-    private void visit(ProcessorConfig config, KubernetesListBuilder builder, MetadataVisitor<?>[] visitors) {
-        MetadataVisitor.setProcessorConfig(config);
-        try {
-            for (MetadataVisitor<?> visitor : visitors) {
-                builder.accept(visitor);
-            }
-        } finally {
-            MetadataVisitor.clearProcessorConfig();
-        }
-    }
 }
@@ -22,15 +22,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import io.fabric8.kubernetes.api.model.DoneableService;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
-import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.api.model.ReplicationController;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.ServicePort;
 import io.fabric8.kubernetes.api.model.ServiceSpec;
@@ -45,15 +43,14 @@ import io.fabric8.kubernetes.api.model.extensions.IngressRule;
 import io.fabric8.kubernetes.api.model.extensions.IngressSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
-import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.maven.core.access.ClusterAccess;
 import io.fabric8.maven.core.service.ApplyService;
 import io.fabric8.maven.core.util.FileUtil;
 import io.fabric8.maven.core.util.ResourceUtil;
-import io.fabric8.maven.core.util.kubernetes.Fabric8Annotations;
 import io.fabric8.maven.core.util.kubernetes.KubernetesHelper;
 import io.fabric8.maven.core.util.kubernetes.KubernetesResourceUtil;
 import io.fabric8.maven.core.util.kubernetes.OpenshiftHelper;
+import io.fabric8.maven.core.util.kubernetes.ServiceExposeUrlResolver;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.plugin.mojo.AbstractFabric8Mojo;
 import io.fabric8.openshift.api.model.Route;
@@ -199,6 +196,21 @@ public class ApplyMojo extends AbstractFabric8Mojo {
     @Parameter(property = "fabric8.s2i.buildNameSuffix", defaultValue = "-s2i")
     protected String s2iBuildNameSuffix;
 
+    /**
+     * Number of threads used for applying the resources. With more than one thread the resources are applied
+     * in dependency order (namespaces, then service accounts, secrets and config maps, then services and
+     * finally controllers), with all resources of the same tier applied concurrently.
+     */
+    @Parameter(property = "fabric8.deploy.applyThreads", defaultValue = "1")
+    private int applyThreads;
+
+    /**
+     * Should the running resources be looked up with a single LIST call per kind, filtered by the labels
+     * common to all applied resources, instead of a GET call per resource?
+     */
+    @Parameter(property = "fabric8.deploy.prefetch", defaultValue = "false")
+    private boolean prefetchLiveResources;
+
     private ClusterAccess clusterAccess;
     protected ApplyService applyService;
 
@@ -243,6 +255,8 @@ public class ApplyMojo extends AbstractFabric8Mojo {
             applyService.setDeletePodsOnReplicationControllerUpdate(deletePodsOnReplicationControllerUpdate);
             applyService.setRollingUpgrade(rollingUpgrades);
             applyService.setRollingUpgradePreserveScale(isRollingUpgradePreserveScale());
+            applyService.setApplyThreads(applyThreads);
+            applyService.setPrefetchLiveResources(prefetchLiveResources);
 
             boolean openShift = OpenshiftHelper.isOpenShift(kubernetes);
             if (openShift) {
@@ -435,65 +449,44 @@ public class ApplyMojo extends AbstractFabric8Mojo {
 
     protected void applyEntities(KubernetesClient kubernetes, String namespace, String fileName, Set<HasMetadata> entities) throws Exception {
         // Apply all items
-        for (HasMetadata entity : entities) {
-            if (entity instanceof Pod) {
-                Pod pod = (Pod) entity;
-                applyService.applyPod(pod, fileName);
-            } else if (entity instanceof Service) {
-                Service service = (Service) entity;
-                applyService.applyService(service, fileName);
-            } else if (entity instanceof ReplicationController) {
-                ReplicationController replicationController = (ReplicationController) entity;
-                applyService.applyReplicationController(replicationController, fileName);
-            } else if (entity != null) {
-                applyService.apply(entity, fileName);
-            }
-        }
+        applyService.applyEntities(entities, fileName);
 
         String command = clusterAccess.isOpenShiftImageStream(log) ? "oc" : "kubectl";
         log.info("[[B]]HINT:[[B]] Use the command `%s get pods -w` to watch your pods start up", command);
 
+        logExposedServiceUrls(kubernetes, namespace, entities);
+    }
+
+    /**
+     * Log the URLs of the exposed services, waiting until the first one gets exposed by the expose controller
+     */
+    protected void logExposedServiceUrls(KubernetesClient kubernetes, String namespace, Set<HasMetadata> entities) throws InterruptedException {
         Logger serviceLogger = createExternalProcessLogger("[[G]][SVC][[G]] ");
-        long serviceUrlWaitTimeSeconds = this.serviceUrlWaitTimeSeconds;
-        for (HasMetadata entity : entities) {
-            if (entity instanceof Service) {
-                Service service = (Service) entity;
-                String name = KubernetesHelper.getName(service);
-                Resource<Service, DoneableService> serviceResource = kubernetes.services().inNamespace(namespace).withName(name);
-                String url = null;
-                // lets wait a little while until there is a service URL in case the exposecontroller is running slow
-                for (int i = 0; i < serviceUrlWaitTimeSeconds; i++) {
-                    if (i > 0) {
-                        Thread.sleep(1000);
-                    }
-                    Service s = serviceResource.get();
-                    if (s != null) {
-                        url = getExternalServiceURL(s);
-                        if (StringUtils.isNotBlank(url)) {
-                            break;
-                        }
-                    }
-                    if (!isExposeService(service)) {
-                        break;
-                    }
-                }
+        ServiceExposeUrlResolver resolver = new ServiceExposeUrlResolver(kubernetes, namespace, log) {
+            @Override
+            protected boolean isExposed(Service service) {
+                return isExposeService(service);
+            }
 
-                // lets not wait for other services
-                serviceUrlWaitTimeSeconds = 1;
-                if (StringUtils.isNotBlank(url) && url.startsWith("http")) {
-                    serviceLogger.info("" + name + ": " + url);
-                }
+            @Override
+            protected String getUrl(Service service) {
+                return getExternalServiceURL(service);
+            }
+        };
+        Map<String, String> urls = resolver.resolve(entities, serviceUrlWaitTimeSeconds);
+        for (Map.Entry<String, String> entry : urls.entrySet()) {
+            if (entry.getValue().startsWith("http")) {
+                serviceLogger.info("" + entry.getKey() + ": " + entry.getValue());
             }
         }
     }
 
     protected String getExternalServiceURL(Service service) {
-        return KubernetesHelper.getOrCreateAnnotations(service).get(Fabric8Annotations.SERVICE_EXPOSE_URL.value());
+        return ServiceExposeUrlResolver.getExposeUrl(service);
     }
 
     protected boolean isExposeService(Service service) {
-        String expose = KubernetesHelper.getLabels(service).get("expose");
-        return expose != null && expose.toLowerCase().equals("true");
+        return ServiceExposeUrlResolver.isExposeService(service);
     }
 
     public boolean isRollingUpgrades() {
@@ -17,6 +17,7 @@ package io.fabric8.maven.plugin.mojo.build;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
@@ -29,6 +30,7 @@ import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.ResourceConfig;
 import io.fabric8.maven.core.service.BuildService;
+import io.fabric8.maven.core.service.Fabric8ServiceException;
 import io.fabric8.maven.core.service.Fabric8ServiceHub;
 import io.fabric8.maven.core.util.GoalFinder;
 import io.fabric8.maven.core.util.Gofabric8Util;
@@ -142,6 +144,18 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
     @Parameter(property = "fabric8.s2i.imageStreamLookupPolicyLocal", defaultValue = "true")
     private boolean s2iImageStreamLookupPolicyLocal = true;
 
+    /**
+     * Whether to compress the build archive with gzip while uploading it for an S2I binary build
+     */
+    @Parameter(property = "fabric8.s2i.compressBinary", defaultValue = "false")
+    private boolean s2iCompressBinary;
+
+    /**
+     * How many OpenShift builds to run at the same time if multiple images are built
+     */
+    @Parameter(property = "fabric8.build.concurrency", defaultValue = "1")
+    private int buildConcurrency;
+
     /**
      * Should we use the project's compile-time classpath to scan for additional enrichers/generators?
      */
@@ -190,6 +204,9 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
     // The Fabric8 service hub
     Fabric8ServiceHub fabric8ServiceHub;
 
+    // Images collected for building them concurrently
+    private final List<ImageConfiguration> concurrentImages = new ArrayList<>();
+
     // Mode which is resolved, also when 'auto' is set
     private PlatformMode platformMode;
 
@@ -232,7 +249,21 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
 
         super.executeInternal(hub);
 
-        fabric8ServiceHub.getBuildService().postProcess(getBuildServiceConfig());
+        if (!concurrentImages.isEmpty()) {
+            try {
+                fabric8ServiceHub.getBuildService().buildImages(concurrentImages);
+            } catch (Fabric8ServiceException e) {
+                throw new MojoExecutionException("Failed to execute the build", e);
+            } finally {
+                concurrentImages.clear();
+            }
+        }
+
+        try {
+            fabric8ServiceHub.getBuildService().postProcess(getBuildServiceConfig());
+        } catch (Fabric8ServiceException e) {
+            throw new MojoExecutionException("Failed to post process the build", e);
+        }
     }
 
     private boolean shouldSkipBecauseOfPomPackaging() {
@@ -269,7 +300,12 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
             // TODO need to refactor d-m-p to avoid this call
             EnvUtil.storeTimestamp(this.getBuildTimestampFile(), this.getBuildTimestamp());
 
-            fabric8ServiceHub.getBuildService().build(imageConfig);
+            if (buildConcurrency > 1) {
+                // Built together after all images have been processed
+                concurrentImages.add(imageConfig);
+            } else {
+                fabric8ServiceHub.getBuildService().build(imageConfig);
+            }
 
         } catch (Exception ex) {
             throw new MojoExecutionException("Failed to execute the build", ex);
@@ -285,6 +321,8 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
                 .openshiftPullSecret(openshiftPullSecret)
                 .s2iBuildNameSuffix(s2iBuildNameSuffix)
                 .s2iImageStreamLookupPolicyLocal(s2iImageStreamLookupPolicyLocal)
+                .s2iCompressBinary(s2iCompressBinary)
+                .buildConcurrency(buildConcurrency)
                 .imagePullManager(getImagePullManager(imagePullPolicy, autoPull))
                 .buildDirectory(project.getBuild().getDirectory())
                 .attacher(new BuildService.BuildServiceConfig.Attacher() {
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.TreeMap;
 
 import javax.validation.ConstraintViolationException;
 
@@ -51,6 +52,8 @@ import io.fabric8.maven.core.service.ComposeService;
 import io.fabric8.maven.core.service.Fabric8ServiceException;
 import io.fabric8.maven.core.util.Base64Util;
 import io.fabric8.maven.core.util.DockerServerUtil;
+import io.fabric8.maven.core.util.GitUtil;
+import io.fabric8.maven.core.util.InputFingerprint;
 import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.core.util.OpenShiftDependencyResources;
 import io.fabric8.maven.core.util.OpenShiftOverrideResources;
@@ -88,8 +91,12 @@ import io.fabric8.openshift.api.model.DeploymentConfig;
 import io.fabric8.openshift.api.model.Template;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -98,6 +105,8 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProjectHelper;
 import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenFilteringException;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Repository;
 
 import static io.fabric8.maven.core.util.Constants.RESOURCE_APP_CATALOG_ANNOTATION;
 import static io.fabric8.maven.core.util.ResourceFileType.json;
@@ -118,6 +127,8 @@ public class ResourceMojo extends AbstractFabric8Mojo {
     // THe key how we got the the docker maven plugin
     private static final String DOCKER_MAVEN_PLUGIN_KEY = "io.fabric8:docker-maven-plugin";
     private static final String DOCKER_IMAGE_USER = "docker.image.user";
+    // Inputs of the last run, relative to the build directory
+    private static final String INPUT_FINGERPRINT_FILE = "fabric8/resource.fingerprint";
     /**
      * The generated kubernetes and openshift manifests
      */
@@ -308,6 +319,16 @@ public class ResourceMojo extends AbstractFabric8Mojo {
      */
     @Parameter(property = "fabric8.resourceType")
     private ResourceFileType resourceFileType = yaml;
+    /**
+     * Skip the generation of the resources if none of their inputs changed since the last run. The resources
+     * of the last run are attached to the project instead.
+     */
+    @Parameter(property = "fabric8.resource.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
     @Component
     private MavenProjectHelper projectHelper;
 
@@ -407,6 +428,15 @@ public class ResourceMojo extends AbstractFabric8Mojo {
             resolvedImages = getResolvedImages(images, log);
 
             if (!skip && (!isPomProject() || hasFabric8Dir())) {
+                InputFingerprint fingerprint = incremental ? createInputFingerprint() : null;
+                if (fingerprint != null) {
+                    if (reuseResources(fingerprint)) {
+                        return;
+                    }
+                    // Outdated as soon as the resources get written
+                    getInputFingerprintFile().delete();
+                }
+
                 // Extract and generate resources which can be a mix of Kubernetes and OpenShift resources
                 KubernetesList resources = generateResources(resolvedImages);
 
@@ -421,12 +451,117 @@ public class ResourceMojo extends AbstractFabric8Mojo {
                 writeResources(kubernetesResources, ResourceClassifier.KUBERNETES, generateRoute);
                 File kubernetesResourceDir = new File(this.targetDir, ResourceClassifier.KUBERNETES.getValue());
                 validateIfRequired(kubernetesResourceDir, ResourceClassifier.KUBERNETES);
+
+                if (fingerprint != null) {
+                    storeInputFingerprint(fingerprint);
+                }
             }
         } catch (IOException e) {
             throw new MojoExecutionException("Failed to generate fabric8 descriptor", e);
         }
     }
 
+    // Everything the generated resources depend on, or null if the inputs cannot be fingerprinted
+    private InputFingerprint createInputFingerprint() {
+        try {
+            InputFingerprint fingerprint = new InputFingerprint();
+            if (mojoExecution != null) {
+                // The plugin configuration includes all parameters, the values of expressions are part of the properties
+                PluginDescriptor plugin = mojoExecution.getMojoDescriptor().getPluginDescriptor();
+                fingerprint.add("plugin", plugin.getId());
+                fingerprint.addFileMetadata("plugin", plugin.getPluginArtifact() != null ? plugin.getPluginArtifact().getFile() : null);
+                fingerprint.add("configuration", String.valueOf(mojoExecution.getConfiguration()));
+            }
+            fingerprint.add("project", project.getId());
+            fingerprint.add("mode", platformMode.toString());
+            fingerprint.add("namespace", clusterAccess.getNamespace());
+            fingerprint.add("properties", new TreeMap<>(project.getProperties()).toString());
+            fingerprint.add("properties", new TreeMap<>(session.getUserProperties()).toString());
+
+            fingerprint.addObject("enricher", extractEnricherConfig());
+            fingerprint.addObject("generator", extractGeneratorConfig());
+            fingerprint.addObject("resources", resources);
+            fingerprint.addObject("images", resolvedImages);
+
+            fingerprint.addFiles("fragments", resourceDir);
+            fingerprint.addFiles("fragments", resourceDirOpenShiftOverride);
+            fingerprint.addFiles("fragments", composeResourceDir);
+            fingerprint.addFiles("fragments", composeFile != null ? new File(composeFile) : null);
+            // Enrichers read the application configuration, e.g. Spring Boot's application.properties
+            for (Resource resource : project.getResources()) {
+                fingerprint.addFiles("projectResources", new File(resource.getDirectory()));
+            }
+            // Resource fragments of the dependencies are picked up from their jars
+            for (Artifact artifact : project.getArtifacts()) {
+                fingerprint.add("dependencies", artifact.getId());
+                fingerprint.addFileMetadata("dependencies", artifact.getFile());
+            }
+            fingerprint.add("git", getGitRevision());
+            return fingerprint;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot determine the inputs of the resources, generating them: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    private String getGitRevision() throws IOException {
+        try (Repository repository = GitUtil.getGitRepository(project)) {
+            return repository != null ? repository.getBranch() + ":" + GitUtil.getGitCommitId(repository) : null;
+        } catch (GitAPIException e) {
+            throw new IOException("Cannot read git revision: " + e.getMessage(), e);
+        }
+    }
+
+    // Attach the resources of the last run if they have been generated from the same inputs
+    private boolean reuseResources(InputFingerprint fingerprint) throws IOException {
+        File fingerprintFile = getInputFingerprintFile();
+        List<String> changedInputs = fingerprint.getChangedInputs(fingerprintFile);
+        if (changedInputs == null) {
+            log.verbose("No inputs of a previous run stored in %s", fingerprintFile);
+            return false;
+        }
+        if (!changedInputs.isEmpty()) {
+            log.info("Generating resources as inputs changed since the last run: %s", StringUtils.join(changedInputs, ", "));
+            return false;
+        }
+
+        // Same files as written by writeResources()
+        List<ResourceFileType> fileTypes = this.resourceFileType.equals(yaml) ?
+            Arrays.asList(yaml, json) : Collections.singletonList(this.resourceFileType);
+        List<ResourceClassifier> classifiers = Arrays.asList(ResourceClassifier.OPENSHIFT, ResourceClassifier.KUBERNETES);
+        for (ResourceClassifier classifier : classifiers) {
+            for (ResourceFileType fileType : fileTypes) {
+                File file = fileType.addExtensionIfMissing(new File(this.targetDir, classifier.getValue()));
+                if (!file.isFile()) {
+                    log.info("Generating resources as %s is missing", file);
+                    return false;
+                }
+            }
+        }
+
+        log.info("Resources are up to date, inputs unchanged since the last run. Skipping generation");
+        for (ResourceClassifier classifier : classifiers) {
+            for (ResourceFileType fileType : fileTypes) {
+                File file = fileType.addExtensionIfMissing(new File(this.targetDir, classifier.getValue()));
+                projectHelper.attachArtifact(project, fileType.getArtifactType(), classifier.getValue(), file);
+            }
+        }
+        return true;
+    }
+
+    private void storeInputFingerprint(InputFingerprint fingerprint) {
+        File fingerprintFile = getInputFingerprintFile();
+        try {
+            fingerprint.store(fingerprintFile);
+        } catch (IOException e) {
+            log.warn("Cannot store the inputs of the resources in %s: %s", fingerprintFile, e.getMessage());
+        }
+    }
+
+    private File getInputFingerprintFile() {
+        return new File(project.getBuild().getDirectory(), INPUT_FINGERPRINT_FILE);
+    }
+
     private void updateKindFilenameMappings() {
         if (mappings != null) {
             final Map<String, List<String>> mappingKindFilename = new HashMap<>();
@@ -41,6 +41,8 @@ public class LogMojo extends ApplyMojo {
     private String logContainerName;
     @Parameter(property = "fabric8.log.pod")
     private String podName;
+    @Parameter(property = "fabric8.log.allPods", defaultValue = "false")
+    private boolean allPods;
 
     @Override
     protected void applyEntities(final KubernetesClient kubernetes, final String namespace, String fileName, final Set<HasMetadata> entities) throws Exception {
@@ -57,6 +59,7 @@ public class LogMojo extends ApplyMojo {
                 .log(log)
                 .logContainerName(logContainerName)
                 .podName(podName)
+                .allPods(allPods)
                 .newPodLog(createLogger("[[C]][NEW][[C]] "))
                 .oldPodLog(createLogger("[[R]][OLD][[R]] "))
                 .s2iBuildNameSuffix(s2iBuildNameSuffix)
@@ -21,9 +21,13 @@ import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.enricher.api.Enricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.Kind;
+import io.fabric8.maven.enricher.standard.ProjectEnricher;
 import mockit.Expectations;
 import mockit.Mocked;
+import mockit.Verifications;
 import mockit.integration.junit4.JMockit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -95,4 +99,90 @@ public class EnricherManagerTest {
         assertNotNull(labels);
         assertEquals("fabric8", labels.get("provider"));
     }
+
+    @Test
+    public void enrichLabelsAndSelectorsInSingleWalk() {
+        new Expectations() {{
+           context.getConfig(); result = new ProcessorConfig(Arrays.asList("fmp-project"),null,new HashMap<String, TreeMap>());
+        }};
+        EnricherManager manager = new EnricherManager(null, context);
+
+        KubernetesListBuilder builder = new KubernetesListBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.addNewServiceItem()
+                     .withNewMetadata().withName("svc" + i).endMetadata()
+                     .withNewSpec().addNewPort().withPort(8080).endPort().endSpec()
+                   .endServiceItem()
+                   .addNewReplicaSetItem()
+                     .withNewMetadata().withName("rs" + i).endMetadata()
+                     .withNewSpec()
+                       .withNewTemplate()
+                         .withNewSpec().addNewContainer().withName("test").withImage("busybox").endContainer().endSpec()
+                       .endTemplate()
+                     .endSpec()
+                   .endReplicaSetItem();
+        }
+        manager.enrich(builder);
+
+        KubernetesList list = builder.build();
+        assertEquals(200, list.getItems().size());
+        for (HasMetadata item : list.getItems()) {
+            assertEquals("fabric8", item.getMetadata().getLabels().get("provider"));
+            if (item instanceof Service) {
+                assertEquals("fabric8", ((Service) item).getSpec().getSelector().get("provider"));
+            } else {
+                ReplicaSet replicaSet = (ReplicaSet) item;
+                assertEquals("fabric8", replicaSet.getSpec().getSelector().getMatchLabels().get("provider"));
+                assertEquals("fabric8", replicaSet.getSpec().getTemplate().getMetadata().getLabels().get("provider"));
+            }
+        }
+    }
+
+    @Test
+    public void cachesFollowConfigChanges(@Mocked final ProjectEnricher projectEnricher) {
+        final List<String> includes = new ArrayList<>(Arrays.asList("fmp-project"));
+        final ProcessorConfig config = new ProcessorConfig(includes, null, null);
+        new Expectations() {{
+           context.getConfig(); result = config;
+           projectEnricher.getName(); result = "fmp-project"; minTimes = 0;
+           projectEnricher.getSelector(Kind.SERVICE); result = Collections.singletonMap("provider", "fabric8"); minTimes = 0;
+        }};
+        EnricherManager manager = new EnricherManager(null, context);
+
+        // Configs with the same includes and excludes share the filtered enrichers
+        List<Enricher> filtered = manager.filterEnrichers(config);
+        assertEquals(1, filtered.size());
+        assertSame(filtered, manager.filterEnrichers(new ProcessorConfig(Arrays.asList("fmp-project"), null, null)));
+
+        KubernetesListBuilder builder = createServices(10);
+        manager.enrich(config, builder);
+        for (HasMetadata item : builder.build().getItems()) {
+            assertEquals("fabric8", ((Service) item).getSpec().getSelector().get("provider"));
+        }
+        // The selector has been extracted once for all services of the walk
+        new Verifications() {{
+            projectEnricher.getSelector(Kind.SERVICE); times = 1;
+        }};
+
+        // Changing the config in place is not hidden by the caches
+        includes.clear();
+        assertTrue(manager.filterEnrichers(config).isEmpty());
+        builder = createServices(10);
+        manager.enrich(config, builder);
+        for (HasMetadata item : builder.build().getItems()) {
+            Map<String, String> selector = ((Service) item).getSpec().getSelector();
+            assertTrue(selector == null || !selector.containsKey("provider"));
+        }
+    }
+
+    private KubernetesListBuilder createServices(int count) {
+        KubernetesListBuilder builder = new KubernetesListBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.addNewServiceItem()
+                     .withNewMetadata().withName("svc" + i).endMetadata()
+                     .withNewSpec().addNewPort().withPort(8080).endPort().endSpec()
+                   .endServiceItem();
+        }
+        return builder;
+    }
 }
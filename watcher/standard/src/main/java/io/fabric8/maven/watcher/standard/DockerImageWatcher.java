@@ -15,13 +15,24 @@
  */
 package io.fabric8.maven.watcher.standard;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.HasMetadata;
-import io.fabric8.kubernetes.api.model.PodSpec;
 import io.fabric8.kubernetes.api.model.PodTemplateSpec;
 import io.fabric8.kubernetes.api.model.ReplicationController;
 import io.fabric8.kubernetes.api.model.ReplicationControllerSpec;
@@ -29,10 +40,13 @@ import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.api.model.apps.DeploymentSpec;
 import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
 import io.fabric8.kubernetes.api.model.apps.ReplicaSetSpec;
+import io.fabric8.kubernetes.client.HttpClientAware;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.base.OperationSupport;
 import io.fabric8.maven.core.access.ClusterAccess;
 import io.fabric8.maven.core.config.PlatformMode;
+import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.core.util.kubernetes.KubernetesHelper;
 import io.fabric8.maven.core.util.kubernetes.KubernetesResourceUtil;
 import io.fabric8.maven.core.util.kubernetes.OpenshiftHelper;
@@ -48,6 +62,9 @@ import io.fabric8.maven.watcher.api.WatcherContext;
 import io.fabric8.openshift.api.model.DeploymentConfig;
 import io.fabric8.openshift.api.model.DeploymentConfigSpec;
 import io.fabric8.openshift.client.OpenShiftClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 
@@ -56,6 +73,31 @@ import org.apache.maven.plugin.MojoFailureException;
  */
 public class DockerImageWatcher extends BaseWatcher {
 
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    // Available configuration keys
+    private enum Config implements Configs.Key {
+
+        // Time to wait for further rebuilt images before patching the controllers, so that images
+        // which are rebuilt together are rolled out at once. Patch immediately if 0.
+        patchDelayMillis {{ d = "500"; }};
+
+        public String def() { return d; } protected String d;
+    }
+
+    // Image names to roll out, by image prefix
+    private final Map<String, String> pendingImages = new LinkedHashMap<>();
+
+    private Map<String, List<Controller>> imageIndex;
+    private ScheduledExecutorService patchExecutor;
+    private boolean patchScheduled;
+
+    // Failure of a delayed patch, reported on the next rebuild
+    private MojoExecutionException patchFailure;
+
+    private KubernetesClient client;
+    private String namespace;
+
     public DockerImageWatcher(WatcherContext watcherContext) {
         super(watcherContext, "docker-image");
     }
@@ -91,6 +133,8 @@ public class DockerImageWatcher extends BaseWatcher {
             hub.getWatchService().watch(watchContext, buildContext, configs);
         } catch (Exception ex) {
             throw new RuntimeException("Error while watching", ex);
+        } finally {
+            close();
         }
     }
 
@@ -124,82 +168,246 @@ public class DockerImageWatcher extends BaseWatcher {
     protected void restartContainer(WatchService.ImageWatcher watcher, Set<HasMetadata> resources) throws MojoExecutionException {
         ImageConfiguration imageConfig = watcher.getImageConfiguration();
         String imageName = imageConfig.getName();
+        String imagePrefix = getImagePrefix(imageName);
+        long patchDelay = Configs.asInt(getConfig(Config.patchDelayMillis));
+        MojoExecutionException previousFailure;
+        synchronized (pendingImages) {
+            if (imageIndex == null) {
+                imageIndex = createImageIndex(resources);
+            }
+            pendingImages.put(imagePrefix, imageName);
+            previousFailure = patchFailure;
+            patchFailure = null;
+            if (patchDelay <= 0) {
+                patchControllers();
+            } else if (!patchScheduled) {
+                // Images rebuilt in the meantime are rolled out together with this one
+                patchScheduled = true;
+                getPatchExecutor().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            patchControllers();
+                        } catch (MojoExecutionException e) {
+                            log.error("Failed to update the images of the running controllers: %s", e.getMessage());
+                            synchronized (pendingImages) {
+                                patchFailure = e;
+                            }
+                        }
+                    }
+                }, patchDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (previousFailure != null) {
+            // The images which could not be rolled out have been queued again together with this one
+            throw new MojoExecutionException("Failed to update the images of the running controllers after the previous rebuild: " +
+                                             previousFailure.getMessage(), previousFailure);
+        }
+    }
+
+    private void patchControllers() throws MojoExecutionException {
+        Map<String, String> images;
+        Set<Controller> controllers = new LinkedHashSet<>();
+        synchronized (pendingImages) {
+            images = new LinkedHashMap<>(pendingImages);
+            pendingImages.clear();
+            patchScheduled = false;
+            for (String imagePrefix : images.keySet()) {
+                List<Controller> referencing = imageIndex.get(imagePrefix);
+                if (referencing != null) {
+                    controllers.addAll(referencing);
+                }
+            }
+        }
         try {
-            ClusterAccess clusterAccess = new ClusterAccess(getContext().getNamespace());
-            KubernetesClient client = clusterAccess.createDefaultClient(log);
+            KubernetesClient client = getClient();
+            for (Controller controller : controllers) {
+                patchImages(client, controller, images);
+            }
+        } catch (KubernetesClientException | IOException e) {
+            // Queue the images again so that they are retried with the next rebuild, unless rebuilt meanwhile
+            synchronized (pendingImages) {
+                for (Map.Entry<String, String> entry : images.entrySet()) {
+                    if (!pendingImages.containsKey(entry.getKey())) {
+                        pendingImages.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            if (e instanceof KubernetesClientException) {
+                KubernetesResourceUtil.handleKubernetesClientException((KubernetesClientException) e, this.log);
+            }
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
 
-            String namespace = clusterAccess.getNamespace();
+    // Send a JSON patch which only replaces the images of the containers, without reading the controller first.
+    // The container names are tested first, so that the patch fails instead of changing another container if the
+    // containers of the controller have been changed on the cluster.
+    private void patchImages(KubernetesClient kubernetes, Controller controller, Map<String, String> images) throws IOException {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        Map<Container, String> updated = new LinkedHashMap<>();
+        for (int i = 0; i < controller.containers.size(); i++) {
+            Container container = controller.containers.get(i);
+            String imageName = images.get(getImagePrefixOrNull(container.getImage()));
+            if (imageName != null && !imageName.equals(container.getImage())) {
+                String path = "/spec/template/spec/containers/" + i;
+                if (container.getName() != null) {
+                    operations.add(createOperation("test", path + "/name", container.getName()));
+                }
+                operations.add(createOperation("replace", path + "/image", imageName));
+                updated.put(container, imageName);
+                log.info("Updating " + KubernetesHelper.getKind(controller.entity) + " " + KubernetesHelper.getName(controller.entity) + " to use image: " + imageName);
+            }
+        }
+        if (operations.isEmpty()) {
+            return;
+        }
 
-            String imagePrefix = getImagePrefix(imageName);
-            for (HasMetadata entity : resources) {
-                updateImageName(client, namespace, entity, imagePrefix, imageName);
+        OperationSupport resource = getResourceOperation(kubernetes, controller.entity);
+        if (resource == null) {
+            return;
+        }
+        Request request = new Request.Builder()
+            .url(resource.getResourceUrl())
+            .patch(RequestBody.create(OperationSupport.JSON_PATCH, JSON_MAPPER.writeValueAsString(operations)))
+            .build();
+        try (Response response = ((HttpClientAware) kubernetes).getHttpClient().newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new KubernetesClientException(
+                    String.format("Failed to patch %s %s: %d %s", KubernetesHelper.getKind(controller.entity), KubernetesHelper.getName(controller.entity),
+                                  response.code(), response.message()), response.code(), null);
             }
-        } catch (KubernetesClientException e) {
-            KubernetesResourceUtil.handleKubernetesClientException(e, this.log);
-        } catch (MojoExecutionException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new MojoExecutionException(e.getMessage(), e);
+        }
+        for (Map.Entry<Container, String> entry : updated.entrySet()) {
+            entry.getKey().setImage(entry.getValue());
         }
     }
 
-    private void updateImageName(KubernetesClient kubernetes, String namespace, HasMetadata entity, String imagePrefix, String imageName) {
+    private Map<String, Object> createOperation(String op, String path, String value) {
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put("op", op);
+        operation.put("path", path);
+        operation.put("value", value);
+        return operation;
+    }
+
+    private OperationSupport getResourceOperation(KubernetesClient kubernetes, HasMetadata entity) {
         String name = KubernetesHelper.getName(entity);
         if (entity instanceof Deployment) {
-            Deployment resource = (Deployment) entity;
-            DeploymentSpec spec = resource.getSpec();
-            if (spec != null) {
-                if (updateImageName(entity, spec.getTemplate(), imagePrefix, imageName)) {
-                    kubernetes.extensions().deployments().inNamespace(namespace).withName(name).replace(resource);
-                }
-            }
+            return (OperationSupport) kubernetes.extensions().deployments().inNamespace(namespace).withName(name);
         } else if (entity instanceof ReplicaSet) {
-            ReplicaSet resource = (ReplicaSet) entity;
-            ReplicaSetSpec spec = resource.getSpec();
-            if (spec != null) {
-                if (updateImageName(entity, spec.getTemplate(), imagePrefix, imageName)) {
-                    kubernetes.extensions().replicaSets().inNamespace(namespace).withName(name).replace(resource);
-                }
-            }
+            return (OperationSupport) kubernetes.extensions().replicaSets().inNamespace(namespace).withName(name);
         } else if (entity instanceof ReplicationController) {
-            ReplicationController resource = (ReplicationController) entity;
-            ReplicationControllerSpec spec = resource.getSpec();
-            if (spec != null) {
-                if (updateImageName(entity, spec.getTemplate(), imagePrefix, imageName)) {
-                    kubernetes.replicationControllers().inNamespace(namespace).withName(name).replace(resource);
-                }
-            }
+            return (OperationSupport) kubernetes.replicationControllers().inNamespace(namespace).withName(name);
         } else if (entity instanceof DeploymentConfig) {
-            DeploymentConfig resource = (DeploymentConfig) entity;
-            DeploymentConfigSpec spec = resource.getSpec();
-            if (spec != null) {
-                if (updateImageName(entity, spec.getTemplate(), imagePrefix, imageName)) {
-                    OpenShiftClient openshiftClient = OpenshiftHelper.asOpenShiftClient(kubernetes);
-                    if (openshiftClient == null) {
-                        log.warn("Ignoring DeploymentConfig %s as not connected to an OpenShift cluster", name);
-                    }
-                    openshiftClient.deploymentConfigs().inNamespace(namespace).withName(name).replace(resource);
-                }
+            OpenShiftClient openshiftClient = OpenshiftHelper.asOpenShiftClient(kubernetes);
+            if (openshiftClient == null) {
+                log.warn("Ignoring DeploymentConfig %s as not connected to an OpenShift cluster", name);
+                return null;
             }
+            return (OperationSupport) openshiftClient.deploymentConfigs().inNamespace(namespace).withName(name);
         }
+        return null;
     }
 
-    private boolean updateImageName(HasMetadata entity, PodTemplateSpec template, String imagePrefix, String imageName) {
-        boolean answer = false;
-        PodSpec spec = template.getSpec();
-        if (spec != null) {
-            List<Container> containers = spec.getContainers();
-            if (containers != null) {
-                for (Container container : containers) {
-                    String image = container.getImage();
-                    if (image != null && image.startsWith(imagePrefix)) {
-                        container.setImage(imageName);
-                        log.info("Updating " + KubernetesHelper.getKind(entity) + " " + KubernetesHelper.getName(entity) + " to use image: " + imageName);
-                        answer = true;
+    // The client is looked up only once and kept for all rebuilds of a watch session. It is either the
+    // client of the goal or the one shared by all goals, so it must not be closed here.
+    private synchronized KubernetesClient getClient() {
+        if (client == null) {
+            if (getContext().getKubernetesClient() != null && getContext().getNamespace() != null) {
+                client = getContext().getKubernetesClient();
+                namespace = getContext().getNamespace();
+            } else {
+                ClusterAccess clusterAccess = new ClusterAccess(getContext().getNamespace());
+                client = clusterAccess.createDefaultClient(log);
+                namespace = clusterAccess.getNamespace();
+            }
+        }
+        return client;
+    }
+
+    // Stop the pending patches when the watch ends
+    private synchronized void close() {
+        if (patchExecutor != null) {
+            patchExecutor.shutdownNow();
+            patchExecutor = null;
+        }
+        client = null;
+    }
+
+    private synchronized ScheduledExecutorService getPatchExecutor() {
+        if (patchExecutor == null) {
+            patchExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "fabric8:watch [docker-image] patch");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return patchExecutor;
+    }
+
+    // Index of the controllers by the prefixes (image name without tag) of the images they reference
+    private Map<String, List<Controller>> createImageIndex(Set<HasMetadata> resources) {
+        Map<String, List<Controller>> index = new HashMap<>();
+        for (HasMetadata entity : resources) {
+            PodTemplateSpec template = getPodTemplate(entity);
+            if (template == null || template.getSpec() == null || template.getSpec().getContainers() == null) {
+                continue;
+            }
+            Controller controller = new Controller(entity, template.getSpec().getContainers());
+            for (Container container : controller.containers) {
+                String imagePrefix = getImagePrefixOrNull(container.getImage());
+                if (imagePrefix != null) {
+                    List<Controller> controllers = index.get(imagePrefix);
+                    if (controllers == null) {
+                        controllers = new ArrayList<>();
+                        index.put(imagePrefix, controllers);
+                    }
+                    if (!controllers.contains(controller)) {
+                        controllers.add(controller);
                     }
                 }
             }
         }
-        return answer;
+        return index;
+    }
+
+    private PodTemplateSpec getPodTemplate(HasMetadata entity) {
+        if (entity instanceof Deployment) {
+            DeploymentSpec spec = ((Deployment) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof ReplicaSet) {
+            ReplicaSetSpec spec = ((ReplicaSet) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof ReplicationController) {
+            ReplicationControllerSpec spec = ((ReplicationController) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof DeploymentConfig) {
+            DeploymentConfigSpec spec = ((DeploymentConfig) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        }
+        return null;
+    }
+
+    private String getImagePrefixOrNull(String image) {
+        if (image == null) {
+            return null;
+        }
+        int idx = image.lastIndexOf(':');
+        return idx < 0 ? null : image.substring(0, idx + 1);
+    }
+
+    // A controller together with the containers of its pod template
+    private static class Controller {
+        private final HasMetadata entity;
+        private final List<Container> containers;
+
+        private Controller(HasMetadata entity, List<Container> containers) {
+            this.entity = entity;
+            this.containers = containers;
+        }
     }
 }
@@ -20,21 +20,26 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.io.Closeables;
-import io.fabric8.kubernetes.api.model.DoneableService;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.LabelSelector;
-import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.service.PodLogService;
 import io.fabric8.maven.core.service.PortForwardService;
@@ -45,20 +50,24 @@ import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.core.util.PrefixedLogger;
 import io.fabric8.maven.core.util.SpringBootConfigurationHelper;
 import io.fabric8.maven.core.util.SpringBootUtil;
-import io.fabric8.maven.core.util.kubernetes.Fabric8Annotations;
-import io.fabric8.maven.core.util.kubernetes.KubernetesHelper;
 import io.fabric8.maven.core.util.kubernetes.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.kubernetes.ServiceExposeUrlResolver;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.watcher.api.BaseWatcher;
 import io.fabric8.maven.watcher.api.WatcherContext;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.project.MavenProject;
 
 import static io.fabric8.maven.core.util.SpringBootConfigurationHelper.DEV_TOOLS_REMOTE_SECRET;
 
 public class SpringBootWatcher extends BaseWatcher {
 
+    private static final String REMOTE_SPRING_APPLICATION = "org.springframework.boot.devtools.RemoteSpringApplication";
+
+    // Classpaths of the remote client, shared by all watch sessions within a Maven JVM
+    private static final Map<List<Object>, List<File>> REMOTE_CLASSPATHS = new ConcurrentHashMap<>();
 
     private final PortForwardService portForwardService;
 
@@ -66,7 +75,10 @@ public class SpringBootWatcher extends BaseWatcher {
     private enum Config implements Configs.Key {
 
         // The time to wait for the service to be exposed (by the expose controller)
-        serviceUrlWaitTimeSeconds {{ d = "5"; }};
+        serviceUrlWaitTimeSeconds {{ d = "5"; }},
+
+        // Whether to run the RemoteSpringApplication within the Maven JVM instead of forking a new JVM
+        remoteInProcess {{ d = "false"; }};
 
         public String def() { return d; } protected String d;
     }
@@ -130,34 +142,11 @@ public class SpringBootWatcher extends BaseWatcher {
 
     private String getServiceExposeUrl(KubernetesClient kubernetes, Set<HasMetadata> resources) throws InterruptedException {
         long serviceUrlWaitTimeSeconds = Configs.asInt(getConfig(Config.serviceUrlWaitTimeSeconds));
-        for (HasMetadata entity : resources) {
-            if (entity instanceof Service) {
-                Service service = (Service) entity;
-                String name = KubernetesHelper.getName(service);
-                Resource<Service, DoneableService> serviceResource = kubernetes.services().inNamespace(getContext().getNamespace()).withName(name);
-                String url = null;
-                // lets wait a little while until there is a service URL in case the exposecontroller is running slow
-                for (int i = 0; i < serviceUrlWaitTimeSeconds; i++) {
-                    if (i > 0) {
-                        Thread.sleep(1000);
-                    }
-                    Service s = serviceResource.get();
-                    if (s != null) {
-                        url = KubernetesHelper.getOrCreateAnnotations(s).get(Fabric8Annotations.SERVICE_EXPOSE_URL);
-                        if (StringUtils.isNotBlank(url)) {
-                            break;
-                        }
-                    }
-                    if (!isExposeService(service)) {
-                        break;
-                    }
-                }
-
-                // lets not wait for other services
-                serviceUrlWaitTimeSeconds = 1;
-                if (StringUtils.isNotBlank(url) && url.startsWith("http")) {
-                    return url;
-                }
+        Map<String, String> urls = new ServiceExposeUrlResolver(kubernetes, getContext().getNamespace(), log)
+            .resolve(resources, serviceUrlWaitTimeSeconds);
+        for (String url : urls.values()) {
+            if (url.startsWith("http")) {
+                return url;
             }
         }
 
@@ -165,11 +154,6 @@ public class SpringBootWatcher extends BaseWatcher {
         return null;
     }
 
-    private boolean isExposeService(Service service) {
-        String expose = KubernetesHelper.getLabels(service).get("expose");
-        return expose != null && expose.toLowerCase().equals("true");
-    }
-
     private void runRemoteSpringApplication(String url) {
         log.info("Running RemoteSpringApplication against endpoint: " + url);
 
@@ -180,73 +164,150 @@ public class SpringBootWatcher extends BaseWatcher {
             throw new IllegalStateException("No " + DEV_TOOLS_REMOTE_SECRET + " property defined in application.properties or system properties");
         }
 
-        ClassLoader classLoader = getClass().getClassLoader();
-        if (classLoader instanceof URLClassLoader) {
-            URLClassLoader pluginClassLoader = (URLClassLoader) classLoader;
-            URLClassLoader projectClassLoader = ClassUtil.createProjectClassLoader(getContext().getProject(), log);
-            URLClassLoader[] classLoaders = {projectClassLoader, pluginClassLoader};
-
-            StringBuilder buffer = new StringBuilder("java -cp ");
-            int count = 0;
-            for (URLClassLoader urlClassLoader : classLoaders) {
-                URL[] urLs = urlClassLoader.getURLs();
-                for (URL u : urLs) {
-                    if (count++ > 0) {
-                        buffer.append(File.pathSeparator);
-                    }
+        List<File> classpath = getRemoteClasspath();
+        if (Configs.asBoolean(getConfig(Config.remoteInProcess))) {
+            runRemoteSpringApplicationInProcess(classpath, remoteSecret, url);
+        } else {
+            runRemoteSpringApplicationProcess(classpath, remoteSecret, url);
+        }
+    }
+
+    private void runRemoteSpringApplicationProcess(List<File> classpath, String remoteSecret, String url) {
+        StringBuilder buffer = new StringBuilder("java -cp ");
+        buffer.append(StringUtils.join(classpath, File.pathSeparator));
+        buffer.append(" -Dspring.devtools.remote.secret=");
+        buffer.append(remoteSecret);
+        buffer.append(" " + REMOTE_SPRING_APPLICATION + " ");
+        buffer.append(url);
+
+        try {
+            String command = buffer.toString();
+            log.debug("Running: " + command);
+            final Process process = Runtime.getRuntime().exec(command);
+
+            final AtomicBoolean outputEnabled = new AtomicBoolean(true);
+            Runtime.getRuntime().addShutdownHook(new Thread("fabric8:watch [spring-boot] shutdown hook") {
+                @Override
+                public void run() {
+                    log.info("Terminating the Spring remote client...");
+                    outputEnabled.set(false);
+                    process.destroy();
+                }
+            });
+            Logger logger = new PrefixedLogger("Spring-Remote", log);
+            Thread stdOutPrinter = startOutputProcessor(logger, process.getInputStream(), false, outputEnabled);
+            Thread stdErrPrinter = startOutputProcessor(logger, process.getErrorStream(), true, outputEnabled);
+            int status = process.waitFor();
+            stdOutPrinter.join();
+            stdErrPrinter.join();
+            if (status != 0) {
+                log.warn("Process returned status: %s", status);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to run RemoteSpringApplication: " + e, e);
+        }
+    }
+
+    // Run the remote client within this JVM, in a class loader which is isolated from the plugin's classes
+    void runRemoteSpringApplicationInProcess(List<File> classpath, String remoteSecret, String url) {
+        try {
+            URL[] urls = new URL[classpath.size()];
+            for (int i = 0; i < urls.length; i++) {
+                urls[i] = classpath.get(i).toURI().toURL();
+            }
+            final URLClassLoader remoteClassLoader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent());
+            final Method main = remoteClassLoader.loadClass(REMOTE_SPRING_APPLICATION).getMethod("main", String[].class);
+            final String[] args = { "--spring.devtools.remote.secret=" + remoteSecret, url };
+
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+            final Thread remote = new Thread("fabric8:watch [spring-boot] remote client") {
+                @Override
+                public void run() {
                     try {
-                        URI uri = u.toURI();
-                        File file = new File(uri);
-                        buffer.append(file.getCanonicalPath());
+                        main.invoke(null, (Object) args);
+                    } catch (InvocationTargetException e) {
+                        failure.set(e.getCause());
                     } catch (Exception e) {
-                        throw new IllegalStateException("Failed to create classpath: " + e, e);
+                        failure.set(e);
                     }
                 }
+            };
+            remote.setContextClassLoader(remoteClassLoader);
+            remote.setDaemon(true);
+            Runtime.getRuntime().addShutdownHook(new Thread("fabric8:watch [spring-boot] shutdown hook") {
+                @Override
+                public void run() {
+                    log.info("Terminating the Spring remote client...");
+                    remote.interrupt();
+                    closeQuietly(remoteClassLoader);
+                }
+            });
+
+            log.debug("Running %s in process with classpath %s", REMOTE_SPRING_APPLICATION, classpath);
+            remote.start();
+            remote.join();
+            if (failure.get() != null) {
+                throw failure.get();
             }
-            // Add dev tools to the classpath (the main class is not read from BOOT-INF/lib)
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to run RemoteSpringApplication: " + e, e);
+        }
+    }
+
+    // Classpath of the project, the plugin and the dev tools. It is resolved only once per project, compile classpath
+    // and dev tools version, without creating the project class loader again when found in the cache.
+    List<File> getRemoteClasspath() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        if (!(classLoader instanceof URLClassLoader)) {
+            throw new IllegalStateException("ClassLoader must be a URLClassLoader but it is: " + classLoader.getClass().getName());
+        }
+        MavenProject project = getContext().getProject();
+        List<Object> key = Arrays.<Object>asList(project.getId(),
+                                                 getCompileClasspathElements(project),
+                                                 SpringBootUtil.getSpringBootDevToolsVersion(project));
+        List<File> classpath = REMOTE_CLASSPATHS.get(key);
+        if (classpath == null) {
+            URLClassLoader projectClassLoader = ClassUtil.createProjectClassLoader(project, log);
             try {
-                File devtools = getSpringBootDevToolsJar(getContext().getProject());
-                buffer.append(File.pathSeparator);
-                buffer.append(devtools.getCanonicalPath());
-            } catch (Exception e) {
-                throw new IllegalStateException("Failed to include devtools in the classpath: " + e, e);
+                classpath = resolveRemoteClasspath(project, projectClassLoader, (URLClassLoader) classLoader);
+            } finally {
+                closeQuietly(projectClassLoader);
             }
+            REMOTE_CLASSPATHS.put(key, classpath);
+        }
+        return classpath;
+    }
 
-            buffer.append(" -Dspring.devtools.remote.secret=");
-            buffer.append(remoteSecret);
-            buffer.append(" org.springframework.boot.devtools.RemoteSpringApplication ");
-            buffer.append(url);
+    private List<String> getCompileClasspathElements(MavenProject project) {
+        try {
+            return project.getCompileClasspathElements();
+        } catch (DependencyResolutionRequiredException e) {
+            // The project class loader is going to be empty as well
+            return Collections.emptyList();
+        }
+    }
 
-            try {
-                String command = buffer.toString();
-                log.debug("Running: " + command);
-                final Process process = Runtime.getRuntime().exec(command);
-
-                final AtomicBoolean outputEnabled = new AtomicBoolean(true);
-                Runtime.getRuntime().addShutdownHook(new Thread("fabric8:watch [spring-boot] shutdown hook") {
-                    @Override
-                    public void run() {
-                        log.info("Terminating the Spring remote client...");
-                        outputEnabled.set(false);
-                        process.destroy();
-                    }
-                });
-                Logger logger = new PrefixedLogger("Spring-Remote", log);
-                Thread stdOutPrinter = startOutputProcessor(logger, process.getInputStream(), false, outputEnabled);
-                Thread stdErrPrinter = startOutputProcessor(logger, process.getErrorStream(), true, outputEnabled);
-                int status = process.waitFor();
-                stdOutPrinter.join();
-                stdErrPrinter.join();
-                if (status != 0) {
-                    log.warn("Process returned status: %s", status);
+    private List<File> resolveRemoteClasspath(MavenProject project, URLClassLoader... classLoaders) {
+        List<File> classpath = new ArrayList<>();
+        for (URLClassLoader urlClassLoader : classLoaders) {
+            for (URL u : urlClassLoader.getURLs()) {
+                try {
+                    URI uri = u.toURI();
+                    File file = new File(uri);
+                    classpath.add(file.getCanonicalFile());
+                } catch (Exception e) {
+                    throw new IllegalStateException("Failed to create classpath: " + e, e);
                 }
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to run RemoteSpringApplication: " + e, e);
             }
-
-        } else {
-            throw new IllegalStateException("ClassLoader must be a URLClassLoader but it is: " + classLoader.getClass().getName());
         }
+        // Add dev tools to the classpath (the main class is not read from BOOT-INF/lib)
+        try {
+            File devtools = getSpringBootDevToolsJar(project);
+            classpath.add(devtools.getCanonicalFile());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to include devtools in the classpath: " + e, e);
+        }
+        return Collections.unmodifiableList(classpath);
     }
 
     protected Thread startOutputProcessor(final Logger logger, final InputStream inputStream, final boolean error, final AtomicBoolean outputEnabled) throws IOException {
@@ -279,6 +340,14 @@ public class SpringBootWatcher extends BaseWatcher {
         return printer;
     }
 
+    private static void closeQuietly(URLClassLoader classLoader) {
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
     private File getSpringBootDevToolsJar(MavenProject project) throws IOException {
         String version = SpringBootUtil.getSpringBootDevToolsVersion(project);
         if (version == null) {
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.watcher.standard;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.HttpClientAware;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.maven.core.access.ClusterAccess;
+import io.fabric8.maven.core.config.PlatformMode;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.service.BuildService;
+import io.fabric8.maven.docker.service.ServiceHub;
+import io.fabric8.maven.docker.service.WatchService;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.watcher.api.WatcherContext;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JMockit.class)
+public class DockerImageWatcherTest {
+
+    private static final String DEPLOYMENTS_PATH = "/apis/apps/v1/namespaces/test/deployments/";
+
+    @Mocked
+    private Logger logger;
+
+    @Mocked
+    private WatchService.ImageWatcher imageWatcher;
+
+    private OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+
+    @After
+    public void tearDown() {
+        mockServer.destroy();
+        System.clearProperty("kubernetes.master");
+        System.clearProperty("kubernetes.auth.tryKubeConfig");
+        System.clearProperty("kubernetes.auth.tryServiceAccount");
+    }
+
+    @Test
+    public void patchOnlyContainersWithSameImage() throws Exception {
+        Deployment app = createDeployment("app", "example/app:1", "example/app-sidecar:1");
+        Deployment sidecar = createDeployment("sidecar", "example/app-sidecar:1");
+        mockServer.expect().patch().withPath(DEPLOYMENTS_PATH + "app").andReturn(200, app).once();
+        rebuiltImages("example/app:2");
+
+        DockerImageWatcher watcher = createWatcher(0);
+        watcher.restartContainer(imageWatcher, resources(app, sidecar));
+
+        RecordedRequest request = mockServer.takeRequest();
+        assertEquals("PATCH", request.getMethod());
+        assertEquals(DEPLOYMENTS_PATH + "app", request.getPath());
+        assertJsonEquals("[{'op':'test','path':'/spec/template/spec/containers/0/name','value':'app'}," +
+                         " {'op':'replace','path':'/spec/template/spec/containers/0/image','value':'example/app:2'}]",
+                         request.getBody().readUtf8());
+        // The deployment using example/app-sidecar is not touched
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    public void coalesceRebuilds() throws Exception {
+        Deployment app = createDeployment("app", "example/app:1", "example/app-sidecar:1");
+        mockServer.expect().patch().withPath(DEPLOYMENTS_PATH + "app").andReturn(200, app).always();
+        rebuiltImages("example/app:2", "example/app-sidecar:2");
+
+        DockerImageWatcher watcher = createWatcher(200);
+        Set<HasMetadata> resources = resources(app);
+        watcher.restartContainer(imageWatcher, resources);
+        watcher.restartContainer(imageWatcher, resources);
+
+        RecordedRequest request = mockServer.takeRequest(10, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertJsonEquals("[{'op':'test','path':'/spec/template/spec/containers/0/name','value':'app'}," +
+                         " {'op':'replace','path':'/spec/template/spec/containers/0/image','value':'example/app:2'}," +
+                         " {'op':'test','path':'/spec/template/spec/containers/1/name','value':'app-1'}," +
+                         " {'op':'replace','path':'/spec/template/spec/containers/1/image','value':'example/app-sidecar:2'}]",
+                         request.getBody().readUtf8());
+        Thread.sleep(400);
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    public void reportFailedPatchOnNextRebuild() throws Exception {
+        Deployment app = createDeployment("app", "example/app:1");
+        mockServer.expect().patch().withPath(DEPLOYMENTS_PATH + "app").andReturn(422, "").once();
+        mockServer.expect().patch().withPath(DEPLOYMENTS_PATH + "app").andReturn(200, app).once();
+        rebuiltImages("example/app:2", "example/app:3");
+
+        DockerImageWatcher watcher = createWatcher(100);
+        Set<HasMetadata> resources = resources(app);
+        watcher.restartContainer(imageWatcher, resources);
+        assertNotNull(mockServer.takeRequest(10, TimeUnit.SECONDS));
+        Thread.sleep(200);
+
+        try {
+            watcher.restartContainer(imageWatcher, resources);
+            fail("Failed patch not reported");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("422"));
+        }
+
+        // The newest image is rolled out with the next patch
+        RecordedRequest request = mockServer.takeRequest(10, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertTrue(request.getBody().readUtf8().contains("example/app:3"));
+    }
+
+    @Test
+    public void sharedClientUsableAfterWatch(@Mocked final ServiceHub hub, @Mocked final WatchService watchService) throws Exception {
+        System.setProperty("kubernetes.master", mockServer.url("/"));
+        System.setProperty("kubernetes.auth.tryKubeConfig", "false");
+        System.setProperty("kubernetes.auth.tryServiceAccount", "false");
+        final Deployment app = createDeployment("app", "example/app:1");
+        mockServer.expect().patch().withPath(DEPLOYMENTS_PATH + "app").andReturn(200, app).once();
+        mockServer.expect().get().withPath(DEPLOYMENTS_PATH + "app").andReturn(200, app).once();
+        rebuiltImages("example/app:2");
+        new Expectations() {{
+            hub.getWatchService(); result = watchService;
+            watchService.watch((WatchService.WatchContext) any, (BuildService.BuildContext) any, (List<ImageConfiguration>) any);
+            result = new Delegate() {
+                void watch(WatchService.WatchContext context, BuildService.BuildContext buildContext, List<ImageConfiguration> images) throws Exception {
+                    context.getContainerRestarter().execute(imageWatcher);
+                }
+            };
+        }};
+
+        // Without a client of the goal the watcher uses the client shared by all goals
+        MavenProject project = new MavenProject();
+        project.getProperties().setProperty("fabric8.watcher.docker-image.patchDelayMillis", "0");
+        WatcherContext context = new WatcherContext.Builder()
+            .project(project)
+            .logger(logger)
+            .namespace("test")
+            .serviceHub(hub)
+            .watchContext(new WatchService.WatchContext.Builder().build())
+            .build();
+        new DockerImageWatcher(context).watch(Collections.<ImageConfiguration>emptyList(), resources(app), PlatformMode.kubernetes);
+        // Requests for detecting the cluster type come first
+        RecordedRequest request = mockServer.takeRequest(10, TimeUnit.SECONDS);
+        while (request != null && !"PATCH".equals(request.getMethod())) {
+            request = mockServer.takeRequest(10, TimeUnit.SECONDS);
+        }
+        assertNotNull(request);
+
+        KubernetesClient client = new ClusterAccess("test").createDefaultClient(logger);
+        assertFalse(((HttpClientAware) client).getHttpClient().dispatcher().executorService().isShutdown());
+        assertNotNull(client.apps().deployments().inNamespace("test").withName("app").get());
+    }
+
+    private void rebuiltImages(final String... names) {
+        final ImageConfiguration[] configs = new ImageConfiguration[names.length];
+        for (int i = 0; i < names.length; i++) {
+            configs[i] = new ImageConfiguration.Builder().name(names[i]).build();
+        }
+        new Expectations() {{
+            imageWatcher.getImageConfiguration();
+            returns(configs[0], Arrays.copyOfRange(configs, 1, configs.length));
+            minTimes = 0;
+        }};
+    }
+
+    private DockerImageWatcher createWatcher(long patchDelay) {
+        MavenProject project = new MavenProject();
+        project.getProperties().setProperty("fabric8.watcher.docker-image.patchDelayMillis", Long.toString(patchDelay));
+        WatcherContext context = new WatcherContext.Builder()
+            .project(project)
+            .logger(logger)
+            .namespace("test")
+            .kubernetesClient(mockServer.createOpenShiftClient())
+            .build();
+        return new DockerImageWatcher(context);
+    }
+
+    private Set<HasMetadata> resources(HasMetadata... entities) {
+        return new LinkedHashSet<>(Arrays.asList(entities));
+    }
+
+    private Deployment createDeployment(String name, String... images) {
+        DeploymentBuilder builder = new DeploymentBuilder()
+            .withNewMetadata().withName(name).endMetadata()
+            .withNewSpec().withNewTemplate().withNewSpec().endSpec().endTemplate().endSpec();
+        for (int i = 0; i < images.length; i++) {
+            builder.editSpec().editTemplate().editSpec()
+                   .addNewContainer().withName(i == 0 ? name : name + "-" + i).withImage(images[i]).endContainer()
+                   .endSpec().endTemplate().endSpec();
+        }
+        return builder.build();
+    }
+
+    private void assertJsonEquals(String expected, String actual) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(expected.replace('\'', '"')), mapper.readTree(actual));
+    }
+}
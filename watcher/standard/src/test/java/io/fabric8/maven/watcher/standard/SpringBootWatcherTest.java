@@ -0,0 +1,156 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.watcher.standard;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.maven.core.service.ArtifactResolverService;
+import io.fabric8.maven.core.service.Fabric8ServiceHub;
+import io.fabric8.maven.core.util.ClassUtil;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.watcher.api.WatcherContext;
+import mockit.Expectations;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.project.MavenProject;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.boot.devtools.RemoteSpringApplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JMockit.class)
+public class SpringBootWatcherTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mocked
+    private Logger logger;
+
+    @Mocked
+    private KubernetesClient kubernetes;
+
+    @After
+    public void tearDown() {
+        System.clearProperty("remote.test.args");
+        System.clearProperty("remote.test.contextClassLoader");
+        System.clearProperty("remote.test.pluginVisible");
+    }
+
+    @Test
+    public void remoteClasspathCached(@Mocked final Fabric8ServiceHub hub, @Mocked final ArtifactResolverService resolver) throws Exception {
+        final File devtools = temporaryFolder.newFile("spring-boot-devtools.jar");
+        new Expectations() {{
+            hub.getArtifactResolverService(); result = resolver;
+            resolver.resolveArtifact("org.springframework.boot", "spring-boot-devtools", anyString, "jar"); result = devtools;
+        }};
+        final AtomicInteger projectClassLoaders = new AtomicInteger();
+        new MockUp<ClassUtil>() {
+            @Mock
+            URLClassLoader createProjectClassLoader(Invocation invocation, MavenProject project, Logger log) {
+                projectClassLoaders.incrementAndGet();
+                return invocation.proceed(project, log);
+            }
+        };
+
+        MavenProject project = createProject("cached", "1.5.0.RELEASE");
+        List<File> classpath = createWatcher(project, hub).getRemoteClasspath();
+        assertTrue(classpath.contains(devtools.getCanonicalFile()));
+
+        // Same project and dev tools version in a later watch session
+        assertSame(classpath, createWatcher(createProject("cached", "1.5.0.RELEASE"), hub).getRemoteClasspath());
+        assertEquals(1, projectClassLoaders.get());
+
+        // Other dev tools version
+        assertNotSame(classpath, createWatcher(createProject("cached", "1.5.1.RELEASE"), hub).getRemoteClasspath());
+        assertEquals(2, projectClassLoaders.get());
+
+        new Verifications() {{
+            resolver.resolveArtifact(anyString, anyString, anyString, anyString); times = 2;
+        }};
+    }
+
+    @Test
+    public void remoteInProcessIsolated() throws Exception {
+        createWatcher(createProject("isolated", "1.5.0.RELEASE"), null)
+            .runRemoteSpringApplicationInProcess(getRemoteClasspath(), "secret", "http://localhost:8080");
+
+        assertEquals("--spring.devtools.remote.secret=secret http://localhost:8080", System.getProperty("remote.test.args"));
+        assertEquals("true", System.getProperty("remote.test.contextClassLoader"));
+        assertEquals("false", System.getProperty("remote.test.pluginVisible"));
+    }
+
+    @Test
+    public void remoteInProcessFailure() throws Exception {
+        try {
+            createWatcher(createProject("failure", "1.5.0.RELEASE"), null)
+                .runRemoteSpringApplicationInProcess(getRemoteClasspath(), "secret", "http://fail.example.com");
+            fail("Failure of the remote client not reported");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Cannot connect to http://fail.example.com"));
+        }
+    }
+
+    // Only the stand-in for the remote client, without the classes of the plugin
+    private List<File> getRemoteClasspath() throws Exception {
+        return Collections.singletonList(new File(RemoteSpringApplication.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+    }
+
+    private SpringBootWatcher createWatcher(MavenProject project, Fabric8ServiceHub hub) {
+        WatcherContext context = new WatcherContext.Builder()
+            .project(project)
+            .logger(logger)
+            .kubernetesClient(kubernetes)
+            .fabric8ServiceHub(hub)
+            .build();
+        return new SpringBootWatcher(context);
+    }
+
+    private MavenProject createProject(String artifactId, String springBootVersion) throws IOException {
+        MavenProject project = new MavenProject();
+        project.setGroupId("io.fabric8.test");
+        project.setArtifactId(artifactId);
+        project.setVersion("1.0");
+        project.getBuild().setOutputDirectory(temporaryFolder.getRoot().getAbsolutePath());
+
+        Artifact springBoot = new DefaultArtifact("org.springframework.boot", "spring-boot", springBootVersion,
+                                                  "compile", "jar", "", new DefaultArtifactHandler("jar"));
+        springBoot.setFile(new File(temporaryFolder.getRoot(), "spring-boot-" + springBootVersion + ".jar"));
+        project.setArtifacts(Collections.singleton(springBoot));
+        return project;
+    }
+}
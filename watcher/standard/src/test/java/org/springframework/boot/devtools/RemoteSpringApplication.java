@@ -0,0 +1,38 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.springframework.boot.devtools;
+
+/**
+ * Stand-in for the dev tools remote client, which reports how it has been run through system properties
+ * as it is loaded by a class loader of its own.
+ */
+public class RemoteSpringApplication {
+
+    public static void main(String[] args) {
+        if (args.length > 1 && args[1].contains("fail")) {
+            throw new IllegalStateException("Cannot connect to " + args[1]);
+        }
+        System.setProperty("remote.test.args", String.join(" ", args));
+        System.setProperty("remote.test.contextClassLoader",
+                           Boolean.toString(Thread.currentThread().getContextClassLoader() == RemoteSpringApplication.class.getClassLoader()));
+        try {
+            Class.forName("io.fabric8.maven.watcher.standard.SpringBootWatcher");
+            System.setProperty("remote.test.pluginVisible", "true");
+        } catch (ClassNotFoundException e) {
+            System.setProperty("remote.test.pluginVisible", "false");
+        }
+    }
+}